@@ -0,0 +1,52 @@
+// k6 load test for POST /api/v1/feedback and GET /api/v1/feedback/{id}
+//
+// Compare the two execution modes against the same Postgres/Kafka:
+//   java -jar target/*.jar                                               (platform threads)
+//   java -jar target/*.jar --spring.profiles.active=virtual-threads      (virtual threads)
+//   k6 run -e BASE_URL=http://localhost:8082 -e RATE=2000 load-tests/submit-feedback.js
+//
+// Raise RATE between runs until http_req_failed climbs above 1% or p(99) breaks the threshold;
+// the last passing RATE is the max sustained RPS for that mode.
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8082';
+const RATE = parseInt(__ENV.RATE || '1000');
+
+export const options = {
+    scenarios: {
+        submit: {
+            executor: 'constant-arrival-rate',
+            rate: RATE,
+            timeUnit: '1s',
+            duration: __ENV.DURATION || '2m',
+            preAllocatedVUs: 200,
+            maxVUs: 5000,
+        },
+    },
+    thresholds: {
+        http_req_failed: ['rate<0.01'],
+        http_req_duration: ['p(99)<500'],
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+export default function () {
+    const body = JSON.stringify({
+        memberId: `m-${Math.floor(Math.random() * 100000)}`,
+        providerName: `provider-${Math.floor(Math.random() * 500)}`,
+        rating: 1 + Math.floor(Math.random() * 5),
+        comment: 'Load test feedback',
+    });
+
+    const created = http.post(`${BASE_URL}/api/v1/feedback`, body, {
+        headers: { 'Content-Type': 'application/json' },
+        tags: { name: 'submit' },
+    });
+    check(created, { 'created': (r) => r.status === 201 });
+
+    if (created.status === 201) {
+        const read = http.get(`${BASE_URL}/api/v1/feedback/${created.json('id')}`, { tags: { name: 'getById' } });
+        check(read, { 'found': (r) => r.status === 200 });
+    }
+}
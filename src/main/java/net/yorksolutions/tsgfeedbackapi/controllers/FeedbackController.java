@@ -1,19 +1,41 @@
 package net.yorksolutions.tsgfeedbackapi.controllers;
 
-// TODO: Implement REST controller
-// Endpoints: POST /api/v1/feedback, GET /api/v1/feedback/{id}, 
-//            GET /api/v1/feedback?memberId=, GET /api/v1/health
-
 import lombok.RequiredArgsConstructor;
+import net.yorksolutions.tsgfeedbackapi.dtos.BatchFeedbackResponse;
+import net.yorksolutions.tsgfeedbackapi.dtos.ErrorResponse;
+import net.yorksolutions.tsgfeedbackapi.dtos.FeedbackPage;
 import net.yorksolutions.tsgfeedbackapi.dtos.FeedbackRequest;
 import net.yorksolutions.tsgfeedbackapi.dtos.FeedbackResponse;
+import net.yorksolutions.tsgfeedbackapi.dtos.FeedbackSearchPage;
+import net.yorksolutions.tsgfeedbackapi.dtos.SubmissionStatusResponse;
+import net.yorksolutions.tsgfeedbackapi.services.AsyncFeedbackSubmissions;
+import net.yorksolutions.tsgfeedbackapi.services.FeedbackExportService;
+import net.yorksolutions.tsgfeedbackapi.services.FeedbackSearchIndex;
 import net.yorksolutions.tsgfeedbackapi.services.FeedbackService;
+import net.yorksolutions.tsgfeedbackapi.services.GroupCommitCoalescer;
+import net.yorksolutions.tsgfeedbackapi.services.IdempotentFeedbackSubmissions;
+import net.yorksolutions.tsgfeedbackapi.services.SubmissionRateLimiter;
+import net.yorksolutions.tsgfeedbackapi.services.ValidationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.Callable;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -30,6 +52,23 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 public class FeedbackController {
 
     private final FeedbackService feedbackService;
+    private final AsyncFeedbackSubmissions asyncSubmissions;
+    private final GroupCommitCoalescer groupCommit;
+    private final IdempotentFeedbackSubmissions idempotentSubmissions;
+    private final FeedbackExportService exportService;
+    private final SubmissionRateLimiter rateLimiter;
+    private final FeedbackSearchIndex searchIndex;
+
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+
+    // Feedback never changes once created, so a response for an id can be cached for as long as caches allow
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+    // Member lists change with every new submission: caches keep them but must revalidate each use
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    @Value("${feedback.batch.max-size:500}")
+    private int maxBatchSize;
 
     @PostMapping("/feedback")
     @Operation(
@@ -45,14 +84,215 @@ public class FeedbackController {
         @ApiResponse(
             responseCode = "400",
             description = "Validation error - see error response body for details"
+        ),
+        @ApiResponse(
+            responseCode = "422",
+            description = "Idempotency-Key was already used for a different submission"
+        ),
+        @ApiResponse(
+            responseCode = "429",
+            description = "Too many submissions for this member or overall - retry after the Retry-After delay"
         )
     })
-    public ResponseEntity<FeedbackResponse> submitFeedback(@RequestBody FeedbackRequest feedbackRequest) {
-        FeedbackResponse created = feedbackService.createFeedback(feedbackRequest);
+    public ResponseEntity<FeedbackResponse> submitFeedback(
+            @RequestBody FeedbackRequest feedbackRequest,
+            @Parameter(description = "Client-chosen key; retries with the same key return the original feedback "
+                + "with an Idempotent-Replayed: true header instead of creating a duplicate")
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        rateLimiter.acquire(feedbackRequest.memberId());
         URI location = URI.create("/api/v1/feedback");
+        if (idempotencyKey != null) {
+            // Keyed submissions bypass group commit: the key has to be claimed in the row's own transaction
+            IdempotentFeedbackSubmissions.Result result = idempotentSubmissions.submit(feedbackRequest, idempotencyKey);
+            ResponseEntity.BodyBuilder builder = ResponseEntity.created(location);
+            if (result.replayed()) {
+                builder.header(IDEMPOTENT_REPLAYED_HEADER, "true");
+            }
+            return builder.body(result.feedback());
+        }
+
+        // With group commit enabled, concurrent submissions share one insert batch and one commit
+        FeedbackResponse created = groupCommit.isEnabled()
+            ? groupCommit.submit(feedbackRequest)
+            : feedbackService.createFeedback(feedbackRequest);
         return  ResponseEntity.created(location).body(created);
     }
 
+    @PostMapping(value = "/feedback", params = "mode=async")
+    @Operation(
+        summary = "Submit feedback asynchronously",
+        description = "Validates the request, queues it for background persistence and returns a tracking id immediately"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "202",
+            description = "Feedback accepted for processing - poll the Location header for its status",
+            content = @Content(schema = @Schema(implementation = SubmissionStatusResponse.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Validation error - see error response body for details"
+        ),
+        @ApiResponse(
+            responseCode = "429",
+            description = "Too many submissions for this member or overall - retry after the Retry-After delay"
+        ),
+        @ApiResponse(
+            responseCode = "503",
+            description = "Submission queue is full - retry after the Retry-After delay"
+        )
+    })
+    public ResponseEntity<SubmissionStatusResponse> submitFeedbackAsync(@RequestBody FeedbackRequest feedbackRequest) {
+        rateLimiter.acquire(feedbackRequest.memberId());
+        UUID trackingId = asyncSubmissions.submit(feedbackRequest);
+        URI location = URI.create("/api/v1/feedback/submissions/" + trackingId);
+        return ResponseEntity.accepted().location(location).body(SubmissionStatusResponse.pending(trackingId));
+    }
+
+    @GetMapping("/feedback/submissions/{trackingId}")
+    @Operation(
+        summary = "Get asynchronous submission status",
+        description = "Reports whether an asynchronous submission is still pending, completed or failed"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Submission status",
+            content = @Content(schema = @Schema(implementation = SubmissionStatusResponse.class))
+        ),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Unknown or expired tracking id"
+        )
+    })
+    public SubmissionStatusResponse submissionStatus(
+            @Parameter(
+                description = "Tracking id from the 202 response",
+                required = true
+            )
+            @PathVariable UUID trackingId) {
+        return asyncSubmissions.getStatus(trackingId);
+    }
+
+    @PostMapping("/feedback/batch")
+    @Operation(
+        summary = "Submit feedback in bulk",
+        description = "Validates every item, persists the valid ones in a single batch and reports errors per item"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Batch processed - see per-item results for accepted and rejected entries",
+            content = @Content(schema = @Schema(implementation = BatchFeedbackResponse.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Batch is empty, larger than the configured maximum, or larger than a member's or the overall burst"
+        ),
+        @ApiResponse(
+            responseCode = "429",
+            description = "Batch would exceed a member's or the overall submission rate - retry after the Retry-After delay"
+        )
+    })
+    public BatchFeedbackResponse submitFeedbackBatch(@RequestBody List<FeedbackRequest> feedbackRequests) {
+        if (feedbackRequests.isEmpty() || feedbackRequests.size() > maxBatchSize) {
+            throw new ValidationException(List.of(new ErrorResponse.FieldError(
+                "requests", "Batch must contain between 1 and " + maxBatchSize + " items")));
+        }
+        // One permit per item, so a batch cannot be used to get around the per-member limit
+        rateLimiter.acquire(feedbackRequests);
+        return feedbackService.createFeedbackBatch(feedbackRequests);
+    }
+
+    @GetMapping("/feedback/export")
+    @Operation(
+        summary = "Export feedback as NDJSON",
+        description = "Streams every matching feedback entry, oldest first, one JSON object per line. "
+            + "At least one filter is required; filters are combined with AND. "
+            + "Months already moved to the archive by retention are not exported."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Stream of feedback entries, one FeedbackResponse JSON object per line"
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "No filter given, or from is not before to"
+        ),
+        @ApiResponse(
+            responseCode = "503",
+            description = "Too many exports running - retry after the Retry-After delay"
+        )
+    })
+    public ResponseEntity<StreamingResponseBody> export(
+            @Parameter(description = "Only feedback for this provider", example = "Jerold Calloway Offices")
+            @RequestParam(required = false) String providerName,
+            @Parameter(description = "Only feedback from this member", example = "908908908")
+            @RequestParam(required = false) String memberId,
+            @Parameter(description = "Only feedback submitted at or after this instant", example = "2025-01-01T00:00:00Z")
+            @RequestParam(required = false) Instant from,
+            @Parameter(description = "Only feedback submitted before this instant", example = "2025-02-01T00:00:00Z")
+            @RequestParam(required = false) Instant to,
+            WebRequest webRequest) {
+        FeedbackExportService.Export export = exportService.prepare(providerName, memberId, from, to);
+        try {
+            WebAsyncUtils.getAsyncManager(webRequest).registerCallableInterceptor(export, new ExportLifecycle(export));
+            return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(export::writeTo);
+        } catch (RuntimeException e) {
+            export.close();
+            throw e;
+        }
+    }
+
+    /* Gives an export its own async timeout in place of the application-wide one, and frees its slot however */
+    /* the request ends, including timeouts and errors before writeTo ran */
+    private record ExportLifecycle(FeedbackExportService.Export export) implements CallableProcessingInterceptor {
+        @Override
+        public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+            if (request instanceof AsyncWebRequest asyncRequest) {
+                asyncRequest.setTimeout(export.timeout().toMillis());
+            }
+        }
+
+        @Override
+        public <T> void afterCompletion(NativeWebRequest request, Callable<T> task) {
+            export.close();
+        }
+    }
+
+    @GetMapping("/feedback/search")
+    @Operation(
+        summary = "Search feedback comments",
+        description = "Full-text search over comments, best match first. Words are stemmed and all must match; "
+            + "use \"quotes\" for a phrase, | for either word, - to exclude a word and * for a prefix. "
+            + "New feedback becomes searchable within about a second."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Page of matching feedback (may be empty)",
+            content = @Content(schema = @Schema(implementation = FeedbackSearchPage.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Search text missing, or limit/offset out of range"
+        )
+    })
+    public FeedbackSearchPage search(
+            @Parameter(description = "Words to find in comments", required = true, example = "billing")
+            @RequestParam(required = false) String q,
+            @Parameter(description = "Only feedback for this provider", example = "Jerold Calloway Offices")
+            @RequestParam(required = false) String provider,
+            @Parameter(description = "Maximum number of entries to return (1-100)", example = "20")
+            @RequestParam(defaultValue = "20") int limit,
+            @Parameter(description = "Entries to skip (0-1000); pass the previous page's nextOffset", example = "0")
+            @RequestParam(defaultValue = "0") int offset) {
+        return searchIndex.search(q, provider, limit, offset);
+    }
+
     @GetMapping("/feedback/{id}")
     @Operation(
         summary = "Get feedback by ID",
@@ -61,44 +301,94 @@ public class FeedbackController {
     @ApiResponses(value = {
         @ApiResponse(
             responseCode = "200",
-            description = "Feedback found",
+            description = "Feedback found; cacheable forever (Cache-Control: immutable) with a strong ETag",
             content = @Content(schema = @Schema(implementation = FeedbackResponse.class))
         ),
+        @ApiResponse(
+            responseCode = "304",
+            description = "If-None-Match matched the ETag of this feedback"
+        ),
         @ApiResponse(
             responseCode = "404",
             description = "Feedback not found"
         )
     })
-    public FeedbackResponse get(
+    public ResponseEntity<FeedbackResponse> get(
             @Parameter(
                 description = "UUID of the feedback",
                 required = true,
                 example = "550e8400-e29b-41d4-a716-446655440000"
             )
-            @PathVariable UUID id) {
-        return  feedbackService.getFeedbackById(id);
+            @PathVariable UUID id,
+            WebRequest webRequest) {
+        // The id alone identifies the representation, so a matching If-None-Match is answered
+        // before the cache or the database is consulted
+        String etag = '"' + id.toString() + '"';
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(IMMUTABLE).build();
+        }
+        return ResponseEntity.ok()
+            .eTag(etag)
+            .cacheControl(IMMUTABLE)
+            .body(feedbackService.getFeedbackById(id));
     }
 
     @GetMapping("/feedback")
     @Operation(
         summary = "Get feedback by member ID",
-        description = "Retrieves all feedback entries for a specific member"
+        description = "Retrieves a page of feedback entries for a specific member, newest first. "
+            + "Pass the returned nextCursor as cursor to fetch the following page."
     )
     @ApiResponses(value = {
         @ApiResponse(
             responseCode = "200",
-            description = "List of feedback entries (may be empty)",
-            content = @Content(schema = @Schema(implementation = FeedbackResponse.class))
+            description = "Page of feedback entries (may be empty), with an ETag and Last-Modified "
+                + "taken from the member's newest submission",
+            content = @Content(schema = @Schema(implementation = FeedbackPage.class))
+        ),
+        @ApiResponse(
+            responseCode = "304",
+            description = "The member has submitted nothing since the If-None-Match / If-Modified-Since validator"
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Limit out of range or cursor is invalid"
         )
     })
-    public List<FeedbackResponse> byMember(
+    public ResponseEntity<FeedbackPage> byMember(
             @Parameter(
                 description = "Member ID to filter feedback by",
                 required = true,
                 example = "908908908"
             )
-            @RequestParam String memberId) {
-        return feedbackService.getFeedbackByMemberId(memberId);
+            @RequestParam String memberId,
+            @Parameter(
+                description = "Maximum number of entries to return (1-200)",
+                example = "50"
+            )
+            @RequestParam(defaultValue = "50") int limit,
+            @Parameter(
+                description = "Opaque cursor from a previous page's nextCursor"
+            )
+            @RequestParam(required = false) String cursor,
+            WebRequest webRequest) {
+        // Every page of the list is determined by the member's newest submission, so that is the validator;
+        // one index probe decides a 304 without loading, mapping or serializing the page
+        Optional<Instant> latest = feedbackService.getLatestSubmittedAt(memberId);
+        String etag = latest.map(FeedbackController::memberListETag).orElse("\"empty\"");
+        long lastModified = latest.map(Instant::toEpochMilli).orElse(-1L);
+        if (webRequest.checkNotModified(etag, lastModified)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(REVALIDATE).build();
+        }
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE);
+        latest.ifPresent(builder::lastModified);
+        return builder.body(feedbackService.getFeedbackByMemberId(memberId, limit, cursor));
+    }
+
+    // Microsecond precision, unlike Last-Modified, so two submissions within the same second still differ
+    private static String memberListETag(Instant latest) {
+        long micros = latest.getEpochSecond() * 1_000_000 + latest.getNano() / 1_000;
+        return '"' + Long.toString(micros, 36) + '"';
     }
 
     @GetMapping("/health")
@@ -1,41 +1,34 @@
 package net.yorksolutions.tsgfeedbackapi.controllers;
 
 import net.yorksolutions.tsgfeedbackapi.dtos.ErrorResponse;
+import net.yorksolutions.tsgfeedbackapi.services.ExportCapacityException;
 import net.yorksolutions.tsgfeedbackapi.services.FeedbackNotFoundException;
+import net.yorksolutions.tsgfeedbackapi.services.IdempotencyKeyReusedException;
+import net.yorksolutions.tsgfeedbackapi.services.ProviderNotFoundException;
+import net.yorksolutions.tsgfeedbackapi.services.RateLimitExceededException;
+import net.yorksolutions.tsgfeedbackapi.services.SubmissionNotFoundException;
+import net.yorksolutions.tsgfeedbackapi.services.SubmissionQueueFullException;
 import net.yorksolutions.tsgfeedbackapi.services.ValidationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    /* Every request rule lives in FeedbackRequestValidator, so this is the only 400 for invalid input; there is */
+    /* no Bean Validation on the classpath to raise MethodArgumentNotValidException */
     @ExceptionHandler(ValidationException.class)
     public ResponseEntity<ErrorResponse> handleValidationException(ValidationException ex) {
         ErrorResponse errorResponse = new ErrorResponse(ex.getFieldErrors());
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
     }
 
-    @ExceptionHandler(MethodArgumentNotValidException.class)
-    public ResponseEntity<ErrorResponse> handleMethodArgumentNotValid(MethodArgumentNotValidException ex) {
-        List<ErrorResponse.FieldError> errors = ex.getBindingResult()
-            .getFieldErrors()
-            .stream()
-            .map(error -> new ErrorResponse.FieldError(
-                error.getField(),
-                error.getDefaultMessage()
-            ))
-            .collect(Collectors.toList());
-        
-        ErrorResponse errorResponse = new ErrorResponse(errors);
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
-    }
-
     @ExceptionHandler(FeedbackNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleFeedbackNotFoundException(FeedbackNotFoundException ex) {
         ErrorResponse errorResponse = new ErrorResponse(
@@ -43,4 +36,71 @@ public class GlobalExceptionHandler {
         );
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
     }
+
+    /* Hikari could not hand out a connection within connection-timeout: the pool is saturated */
+    @ExceptionHandler(CannotCreateTransactionException.class)
+    public ResponseEntity<ErrorResponse> handleCannotCreateTransaction(CannotCreateTransactionException ex) {
+        ErrorResponse errorResponse = new ErrorResponse(
+            List.of(new ErrorResponse.FieldError("service", "Service is busy, please retry"))
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .body(errorResponse);
+    }
+
+    @ExceptionHandler(SubmissionQueueFullException.class)
+    public ResponseEntity<ErrorResponse> handleSubmissionQueueFull(SubmissionQueueFullException ex) {
+        ErrorResponse errorResponse = new ErrorResponse(
+            List.of(new ErrorResponse.FieldError("service", ex.getMessage()))
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .body(errorResponse);
+    }
+
+    @ExceptionHandler(ExportCapacityException.class)
+    public ResponseEntity<ErrorResponse> handleExportCapacity(ExportCapacityException ex) {
+        ErrorResponse errorResponse = new ErrorResponse(
+            List.of(new ErrorResponse.FieldError("service", ex.getMessage()))
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "5")
+            .body(errorResponse);
+    }
+
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<ErrorResponse> handleRateLimitExceeded(RateLimitExceededException ex) {
+        ErrorResponse errorResponse = new ErrorResponse(
+            List.of(new ErrorResponse.FieldError(ex.getField(), ex.getMessage()))
+        );
+        // Retry-After is whole seconds; round up so a client that honours it is admitted
+        long retryAfterSeconds = Math.max(1, ex.getRetryAfter().plusNanos(999_999_999).toSeconds());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+            .body(errorResponse);
+    }
+
+    @ExceptionHandler(SubmissionNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleSubmissionNotFound(SubmissionNotFoundException ex) {
+        ErrorResponse errorResponse = new ErrorResponse(
+            List.of(new ErrorResponse.FieldError("trackingId", ex.getMessage()))
+        );
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+    }
+
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<ErrorResponse> handleIdempotencyKeyReused(IdempotencyKeyReusedException ex) {
+        ErrorResponse errorResponse = new ErrorResponse(
+            List.of(new ErrorResponse.FieldError("Idempotency-Key", ex.getMessage()))
+        );
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(errorResponse);
+    }
+
+    @ExceptionHandler(ProviderNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleProviderNotFoundException(ProviderNotFoundException ex) {
+        ErrorResponse errorResponse = new ErrorResponse(
+            List.of(new ErrorResponse.FieldError("providerName", ex.getMessage()))
+        );
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+    }
 }
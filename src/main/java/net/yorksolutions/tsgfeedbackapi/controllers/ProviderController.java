@@ -0,0 +1,87 @@
+package net.yorksolutions.tsgfeedbackapi.controllers;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import net.yorksolutions.tsgfeedbackapi.dtos.ProviderStatsResponse;
+import net.yorksolutions.tsgfeedbackapi.dtos.ProviderTrendResponse;
+import net.yorksolutions.tsgfeedbackapi.services.ProviderStatsService;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Instant;
+
+@RestController
+@RequestMapping("/api/v1/providers")
+@RequiredArgsConstructor
+@Tag(name = "Providers", description = "Provider rating aggregates")
+public class ProviderController {
+
+    private final ProviderStatsService providerStatsService;
+
+    @GetMapping("/{providerName}/stats")
+    @Operation(
+        summary = "Get provider rating stats",
+        description = "Returns count, mean and 1-5 histogram from incrementally maintained aggregates"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Provider stats",
+            content = @Content(schema = @Schema(implementation = ProviderStatsResponse.class))
+        ),
+        @ApiResponse(
+            responseCode = "404",
+            description = "No feedback recorded for the provider"
+        )
+    })
+    public ProviderStatsResponse stats(
+            @Parameter(
+                description = "Provider name",
+                required = true,
+                example = "Jerold Calloway Offices"
+            )
+            @PathVariable String providerName) {
+        return providerStatsService.getStats(providerName);
+    }
+
+    @GetMapping("/{providerName}/trend")
+    @Operation(
+        summary = "Get provider rating trend",
+        description = "Returns count, mean and 1-5 histogram per UTC hour or day from incrementally maintained "
+            + "rollups; the cost depends on the number of buckets, not the number of ratings. "
+            + "Hours are recounted exactly from the stored feedback about 10 minutes after they end"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Provider trend; buckets without ratings are omitted",
+            content = @Content(schema = @Schema(implementation = ProviderTrendResponse.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Unknown bucket, from is not before to, or more than 1000 buckets requested"
+        )
+    })
+    public ProviderTrendResponse trend(
+            @Parameter(
+                description = "Provider name",
+                required = true,
+                example = "Jerold Calloway Offices"
+            )
+            @PathVariable String providerName,
+            @Parameter(description = "Start of the range, rounded down to a bucket; defaults to 7 days before to",
+                example = "2025-01-01T00:00:00Z")
+            @RequestParam(required = false) Instant from,
+            @Parameter(description = "End of the range, exclusive, rounded up to a bucket; defaults to now",
+                example = "2025-02-01T00:00:00Z")
+            @RequestParam(required = false) Instant to,
+            @Parameter(description = "Bucket size: hour or day", example = "day")
+            @RequestParam(defaultValue = "hour") String bucket) {
+        return providerStatsService.getTrend(providerName, from, to, bucket);
+    }
+}
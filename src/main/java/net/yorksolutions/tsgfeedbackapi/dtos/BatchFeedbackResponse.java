@@ -0,0 +1,32 @@
+package net.yorksolutions.tsgfeedbackapi.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+/* BatchFeedbackResponse DTO */
+/* This DTO reports the outcome of every item in a batch submission, in request order */
+@Schema(description = "Per-item results of a batch feedback submission")
+public record BatchFeedbackResponse(
+    @Schema(description = "Number of items persisted", example = "2")
+    int accepted,
+    @Schema(description = "Number of items rejected by validation", example = "1")
+    int rejected,
+    @Schema(description = "One result per submitted item, in request order")
+    List<ItemResult> results
+) {
+    @Schema(description = "Result for a single batch item; exactly one of feedback or errors is set")
+    public record ItemResult(
+        @Schema(description = "Zero-based position of the item in the request", example = "0")
+        int index,
+        FeedbackResponse feedback,
+        List<ErrorResponse.FieldError> errors
+    ) {
+        public static ItemResult accepted(int index, FeedbackResponse feedback) {
+            return new ItemResult(index, feedback, null);
+        }
+
+        public static ItemResult rejected(int index, List<ErrorResponse.FieldError> errors) {
+            return new ItemResult(index, null, errors);
+        }
+    }
+}
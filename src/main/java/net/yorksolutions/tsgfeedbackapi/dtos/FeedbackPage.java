@@ -0,0 +1,17 @@
+package net.yorksolutions.tsgfeedbackapi.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+/* FeedbackPage DTO */
+/* This DTO is used to send one keyset page of a member's feedback, newest first */
+@Schema(description = "One page of feedback entries with an opaque cursor for the next page")
+public record FeedbackPage(
+    @Schema(description = "Feedback entries on this page, newest first")
+    List<FeedbackResponse> items,
+    @Schema(description = "Cursor to pass as `cursor` for the next page; null when this is the last page",
+        example = "MjAyNS0xMS0xNFQxMjowMDowMFp8NTUwZTg0MDAtZTI5Yi00MWQ0LWE3MTYtNDQ2NjU1NDQwMDAw")
+    String nextCursor
+) {
+
+}
@@ -0,0 +1,18 @@
+package net.yorksolutions.tsgfeedbackapi.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+/* FeedbackSearchPage DTO */
+/* This DTO is used to send one page of comment search results, best match first */
+@Schema(description = "One page of feedback whose comments match a search, ranked by relevance")
+public record FeedbackSearchPage(
+    @Schema(description = "Matching feedback entries on this page, best match first")
+    List<FeedbackResponse> items,
+    @Schema(description = "Number of matching entries; exact up to 1000, a lower bound beyond that", example = "42")
+    long totalHits,
+    @Schema(description = "Offset to pass for the next page; null when this is the last page", example = "20")
+    Integer nextOffset
+) {
+
+}
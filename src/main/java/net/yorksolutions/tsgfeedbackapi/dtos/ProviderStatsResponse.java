@@ -0,0 +1,20 @@
+package net.yorksolutions.tsgfeedbackapi.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.Map;
+
+/* ProviderStatsResponse DTO */
+/* This DTO is used to send a provider's rating aggregates to the client */
+@Schema(description = "Rating aggregates for a provider")
+public record ProviderStatsResponse(
+    @Schema(description = "Provider name", example = "Jerold Calloway Offices")
+    String providerName,
+    @Schema(description = "Number of ratings received", example = "42")
+    long count,
+    @Schema(description = "Mean rating", example = "4.21")
+    double mean,
+    @Schema(description = "Number of ratings per value 1-5", example = "{\"1\":1,\"2\":2,\"3\":4,\"4\":15,\"5\":20}")
+    Map<Integer, Long> histogram
+) {
+
+}
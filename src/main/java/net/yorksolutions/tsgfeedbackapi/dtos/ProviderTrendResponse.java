@@ -0,0 +1,33 @@
+package net.yorksolutions.tsgfeedbackapi.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/* ProviderTrendResponse DTO */
+/* This DTO is used to send a provider's rating aggregates per hour or day to the client */
+@Schema(description = "Rating aggregates for a provider per UTC hour or day")
+public record ProviderTrendResponse(
+    @Schema(description = "Provider name", example = "Jerold Calloway Offices")
+    String providerName,
+    @Schema(description = "Bucket size", example = "day", allowableValues = {"hour", "day"})
+    String bucket,
+    @Schema(description = "Start of the first bucket covered (from, rounded down to a bucket)", example = "2025-01-01T00:00:00Z")
+    Instant from,
+    @Schema(description = "End of the last bucket covered (to, rounded up to a bucket), exclusive", example = "2025-02-01T00:00:00Z")
+    Instant to,
+    @Schema(description = "Buckets with at least one rating, oldest first; buckets without ratings are omitted")
+    List<Point> points
+) {
+    public record Point(
+        @Schema(description = "Start of the bucket", example = "2025-01-14T00:00:00Z")
+        Instant bucketStart,
+        @Schema(description = "Number of ratings received in the bucket", example = "12")
+        long count,
+        @Schema(description = "Mean rating in the bucket", example = "4.25")
+        double mean,
+        @Schema(description = "Number of ratings per value 1-5", example = "{\"1\":0,\"2\":1,\"3\":1,\"4\":4,\"5\":6}")
+        Map<Integer, Long> histogram
+    ) {}
+}
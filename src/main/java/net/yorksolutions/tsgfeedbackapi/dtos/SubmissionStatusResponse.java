@@ -0,0 +1,33 @@
+package net.yorksolutions.tsgfeedbackapi.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import java.util.UUID;
+
+/* SubmissionStatusResponse DTO */
+/* This DTO is used to report the progress of an asynchronous feedback submission */
+@Schema(description = "Status of an asynchronous feedback submission")
+public record SubmissionStatusResponse(
+    @Schema(description = "Tracking id returned by the 202 response", example = "01a14808-732f-7000-88af-d3d4ed8c8fd0")
+    UUID trackingId,
+    @Schema(description = "PENDING until persisted, then COMPLETED or FAILED", example = "COMPLETED")
+    Status status,
+    @Schema(description = "Id of the stored feedback once COMPLETED", example = "01a14808-7330-7000-9a1b-3b8f1f0e2c11")
+    UUID feedbackId,
+    @Schema(description = "Why the submission FAILED")
+    List<ErrorResponse.FieldError> errors
+) {
+    public enum Status { PENDING, COMPLETED, FAILED }
+
+    public static SubmissionStatusResponse pending(UUID trackingId) {
+        return new SubmissionStatusResponse(trackingId, Status.PENDING, null, null);
+    }
+
+    public static SubmissionStatusResponse completed(UUID trackingId, UUID feedbackId) {
+        return new SubmissionStatusResponse(trackingId, Status.COMPLETED, feedbackId, null);
+    }
+
+    public static SubmissionStatusResponse failed(UUID trackingId, List<ErrorResponse.FieldError> errors) {
+        return new SubmissionStatusResponse(trackingId, Status.FAILED, null, errors);
+    }
+}
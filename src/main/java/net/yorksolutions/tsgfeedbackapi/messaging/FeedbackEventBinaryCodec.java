@@ -0,0 +1,133 @@
+package net.yorksolutions.tsgfeedbackapi.messaging;
+
+import net.yorksolutions.tsgfeedbackapi.dtos.contracts.FeedbackSubmittedEvent;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.UUID;
+
+/* FeedbackEventBinaryCodec */
+/* Compact encoding of FeedbackSubmittedEvent: no field names, fixed field order per schema version */
+/* The first byte is the event's schemaVersion and selects the layout on decode */
+/*
+ * Version 1 layout:
+ *   byte    schemaVersion (1)
+ *   16      id as UUID (most, least significant bits)
+ *   byte    rating
+ *   varlong submittedAt epoch seconds
+ *   varint  submittedAt nanos
+ *   varint  memberId UTF-8 length, then bytes
+ *   varint  providerName UTF-8 length, then bytes
+ *   varint  comment UTF-8 length + 1 (0 = null), then bytes
+*/
+public final class FeedbackEventBinaryCodec {
+
+    static final int VERSION_1 = 1;
+
+    private FeedbackEventBinaryCodec() {
+    }
+
+    public static byte[] encode(FeedbackSubmittedEvent event) {
+        if (event.schemaVersion() != VERSION_1) {
+            throw new IllegalArgumentException("No binary layout for schemaVersion " + event.schemaVersion());
+        }
+        UUID id = UUID.fromString(event.id());
+        byte[] memberId = event.memberId().getBytes(StandardCharsets.UTF_8);
+        byte[] providerName = event.providerName().getBytes(StandardCharsets.UTF_8);
+        byte[] comment = event.comment() == null ? null : event.comment().getBytes(StandardCharsets.UTF_8);
+        long seconds = event.submittedAt().getEpochSecond();
+        int nanos = event.submittedAt().getNano();
+
+        int size = 1 + 16 + 1
+            + varLongSize(seconds) + varLongSize(nanos)
+            + varLongSize(memberId.length) + memberId.length
+            + varLongSize(providerName.length) + providerName.length
+            + (comment == null ? 1 : varLongSize(comment.length + 1L) + comment.length);
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put((byte) VERSION_1);
+        buffer.putLong(id.getMostSignificantBits());
+        buffer.putLong(id.getLeastSignificantBits());
+        buffer.put((byte) event.rating());
+        putVarLong(buffer, seconds);
+        putVarLong(buffer, nanos);
+        putBytes(buffer, memberId);
+        putBytes(buffer, providerName);
+        if (comment == null) {
+            putVarLong(buffer, 0);
+        } else {
+            putVarLong(buffer, comment.length + 1L);
+            buffer.put(comment);
+        }
+        return buffer.array();
+    }
+
+    public static FeedbackSubmittedEvent decode(byte[] data) {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        try {
+            int version = buffer.get();
+            if (version != VERSION_1) {
+                throw new IllegalArgumentException("Unsupported binary schemaVersion " + version);
+            }
+            UUID id = new UUID(buffer.getLong(), buffer.getLong());
+            int rating = buffer.get();
+            long seconds = getVarLong(buffer);
+            int nanos = (int) getVarLong(buffer);
+            String memberId = getString(buffer, (int) getVarLong(buffer));
+            String providerName = getString(buffer, (int) getVarLong(buffer));
+            int commentLength = (int) getVarLong(buffer);
+            String comment = commentLength == 0 ? null : getString(buffer, commentLength - 1);
+
+            return new FeedbackSubmittedEvent(id.toString(), memberId, providerName, rating, comment,
+                Instant.ofEpochSecond(seconds, nanos), version);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated binary feedback event", e);
+        }
+    }
+
+    private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+        putVarLong(buffer, bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer, int length) {
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("Invalid string length " + length + " in binary feedback event");
+        }
+        String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    // Unsigned LEB128: 7 bits per byte, high bit set on every byte but the last
+    private static void putVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static long getVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint in binary feedback event");
+    }
+
+    private static int varLongSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,47 @@
+package net.yorksolutions.tsgfeedbackapi.messaging;
+
+import net.yorksolutions.tsgfeedbackapi.dtos.contracts.FeedbackSubmittedEvent;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+/* FeedbackEventDeserializer */
+/* Consumer-side counterpart of FeedbackEventSerializer: picks JSON or binary from the feedback-encoding header */
+public class FeedbackEventDeserializer implements Deserializer<FeedbackSubmittedEvent> {
+
+    // Type headers are ignored: every record on the topic is a FeedbackSubmittedEvent
+    private final JsonDeserializer<FeedbackSubmittedEvent> jsonDeserializer =
+        new JsonDeserializer<>(FeedbackSubmittedEvent.class, false);
+
+    @Override
+    public FeedbackSubmittedEvent deserialize(String topic, byte[] data) {
+        return deserialize(topic, null, data);
+    }
+
+    @Override
+    public FeedbackSubmittedEvent deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        FeedbackEventEncoding encoding;
+        try {
+            encoding = FeedbackEventEncoding.fromHeaders(headers);
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException(e.getMessage(), e);
+        }
+        if (encoding == FeedbackEventEncoding.JSON) {
+            return jsonDeserializer.deserialize(topic, data);
+        }
+        try {
+            return FeedbackEventBinaryCodec.decode(data);
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException("Cannot decode binary feedback event", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        jsonDeserializer.close();
+    }
+}
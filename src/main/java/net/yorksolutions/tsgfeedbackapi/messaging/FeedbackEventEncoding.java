@@ -0,0 +1,49 @@
+package net.yorksolutions.tsgfeedbackapi.messaging;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import java.nio.charset.StandardCharsets;
+
+/* FeedbackEventEncoding */
+/* Wire formats for the feedback-submitted topic, named in the feedback-encoding record header */
+/* Records without the header predate it and are JSON */
+public enum FeedbackEventEncoding {
+    JSON("json"),
+    BINARY("binary");
+
+    public static final String HEADER = "feedback-encoding";
+
+    /* Producer property (spring.kafka.producer.properties) selecting the encoding FeedbackEventSerializer writes */
+    public static final String CONFIG = "feedback.event.encoding";
+
+    private final String value;
+    private final byte[] headerValue;
+
+    FeedbackEventEncoding(String value) {
+        this.value = value;
+        this.headerValue = value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    public String value() {
+        return value;
+    }
+
+    byte[] headerValue() {
+        return headerValue.clone();
+    }
+
+    public static FeedbackEventEncoding of(String value) {
+        for (FeedbackEventEncoding encoding : values()) {
+            if (encoding.value.equalsIgnoreCase(value.trim())) {
+                return encoding;
+            }
+        }
+        throw new IllegalArgumentException("Unknown " + CONFIG + " '" + value + "', expected json or binary");
+    }
+
+    static FeedbackEventEncoding fromHeaders(Headers headers) {
+        Header header = headers == null ? null : headers.lastHeader(HEADER);
+        return header == null ? JSON : of(new String(header.value(), StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,27 @@
+package net.yorksolutions.tsgfeedbackapi.messaging;
+
+import net.yorksolutions.tsgfeedbackapi.dtos.contracts.FeedbackSubmittedEvent;
+
+import java.util.function.Function;
+
+/* FeedbackEventKeyStrategy */
+/* Chooses the Kafka record key, and therefore the partition and the ordering guarantee, for feedback-submitted */
+/* Selected with feedback.kafka.key-strategy (id | member-id | provider-name) */
+public enum FeedbackEventKeyStrategy {
+    /* Spreads evenly; no ordering between events */
+    ID(FeedbackSubmittedEvent::id),
+    /* Events for one member stay in order on one partition */
+    MEMBER_ID(FeedbackSubmittedEvent::memberId),
+    /* Events for one provider stay in order; a very busy provider becomes a hot partition */
+    PROVIDER_NAME(FeedbackSubmittedEvent::providerName);
+
+    private final Function<FeedbackSubmittedEvent, String> key;
+
+    FeedbackEventKeyStrategy(Function<FeedbackSubmittedEvent, String> key) {
+        this.key = key;
+    }
+
+    public String keyOf(FeedbackSubmittedEvent event) {
+        return key.apply(event);
+    }
+}
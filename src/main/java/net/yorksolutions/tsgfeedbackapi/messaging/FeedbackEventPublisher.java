@@ -1,22 +1,54 @@
 package net.yorksolutions.tsgfeedbackapi.messaging;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import net.yorksolutions.tsgfeedbackapi.dtos.contracts.FeedbackSubmittedEvent;
-import org.springframework.kafka.core.KafkaTemplate;
+import net.yorksolutions.tsgfeedbackapi.repositories.FeedbackOutboxRepository;
+import net.yorksolutions.tsgfeedbackapi.repositories.entities.FeedbackOutboxEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /* FeedbackEventPublisher Service */
-/* This service is used to publish feedback submitted events to the Kafka topic */
+/* This service records feedback submitted events in the transactional outbox */
+/* The event is written in the caller's transaction, FeedbackOutboxRelay delivers it to the Kafka topic after commit */
 @Service
 public class FeedbackEventPublisher {
-    private static final String TOPIC = "feedback-submitted";
-    private final KafkaTemplate<String, FeedbackSubmittedEvent> kafkaTemplate;
+    static final String TOPIC = "feedback-submitted";
+    private final FeedbackOutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
 
-    public FeedbackEventPublisher(KafkaTemplate<String, FeedbackSubmittedEvent> kafkaTemplate) {
-        this.kafkaTemplate = kafkaTemplate;
+    public FeedbackEventPublisher(FeedbackOutboxRepository outboxRepository, ObjectMapper objectMapper) {
+        this.outboxRepository = outboxRepository;
+        this.objectMapper = objectMapper;
     }
 
+    @Transactional(propagation = Propagation.MANDATORY)
     public void publishFeedbackSubmitted(FeedbackSubmittedEvent event) {
-        kafkaTemplate.send(TOPIC, event.id(), event);
+        outboxRepository.save(toOutboxEntity(event));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publishFeedbackSubmittedBatch(List<FeedbackSubmittedEvent> events) {
+        List<FeedbackOutboxEntity> rows = new ArrayList<>(events.size());
+        for (FeedbackSubmittedEvent event : events) {
+            rows.add(toOutboxEntity(event));
+        }
+        outboxRepository.saveAll(rows);
     }
-}
 
+    private FeedbackOutboxEntity toOutboxEntity(FeedbackSubmittedEvent event) {
+        FeedbackOutboxEntity entity = new FeedbackOutboxEntity();
+        entity.setAggregateId(event.id());
+        entity.setTopic(TOPIC);
+        try {
+            entity.setPayload(objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize event for feedback " + event.id(), e);
+        }
+        return entity;
+    }
+}
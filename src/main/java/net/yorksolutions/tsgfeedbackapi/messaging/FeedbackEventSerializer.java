@@ -0,0 +1,64 @@
+package net.yorksolutions.tsgfeedbackapi.messaging;
+
+import net.yorksolutions.tsgfeedbackapi.dtos.contracts.FeedbackSubmittedEvent;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.Map;
+
+/* FeedbackEventSerializer */
+/* Kafka value serializer for feedback-submitted that writes either JSON or FeedbackEventBinaryCodec */
+/* The encoding comes from the feedback.event.encoding producer property (default json) and is */
+/* recorded in the feedback-encoding header so consumers can read both during a migration */
+public class FeedbackEventSerializer implements Serializer<FeedbackSubmittedEvent> {
+
+    private final JsonSerializer<FeedbackSubmittedEvent> jsonSerializer = new JsonSerializer<>();
+    private FeedbackEventEncoding encoding = FeedbackEventEncoding.JSON;
+
+    public FeedbackEventSerializer() {
+    }
+
+    public FeedbackEventSerializer(FeedbackEventEncoding encoding) {
+        this.encoding = encoding;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        jsonSerializer.configure(configs, isKey);
+        Object configured = configs.get(FeedbackEventEncoding.CONFIG);
+        if (configured != null) {
+            encoding = FeedbackEventEncoding.of(configured.toString());
+        }
+    }
+
+    @Override
+    public byte[] serialize(String topic, FeedbackSubmittedEvent data) {
+        return serialize(topic, null, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, FeedbackSubmittedEvent data) {
+        if (data == null) {
+            return null;
+        }
+        if (headers != null) {
+            headers.remove(FeedbackEventEncoding.HEADER);
+            headers.add(FeedbackEventEncoding.HEADER, encoding.headerValue());
+        }
+        if (encoding == FeedbackEventEncoding.JSON) {
+            return headers == null ? jsonSerializer.serialize(topic, data) : jsonSerializer.serialize(topic, headers, data);
+        }
+        try {
+            return FeedbackEventBinaryCodec.encode(data);
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException("Cannot encode feedback event " + data.id(), e);
+        }
+    }
+
+    @Override
+    public void close() {
+        jsonSerializer.close();
+    }
+}
@@ -0,0 +1,208 @@
+package net.yorksolutions.tsgfeedbackapi.messaging;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import net.yorksolutions.tsgfeedbackapi.dtos.contracts.FeedbackSubmittedEvent;
+import net.yorksolutions.tsgfeedbackapi.repositories.FeedbackOutboxRepository;
+import net.yorksolutions.tsgfeedbackapi.repositories.entities.FeedbackOutboxEntity;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/* FeedbackOutboxRelay */
+/* Drains the feedback_outbox table to Kafka in batches on a fixed delay */
+/* Each batch is claimed in one short transaction, sent with no transaction or row lock held while waiting */
+/* for acknowledgements, and deleted in another; a relay that dies mid-batch leaves it claimed until */
+/* claim-timeout-ms, after which any relay sends it again */
+/* A batch is only deleted once every send in it has been acknowledged, so delivery is at-least-once */
+@Slf4j
+@Component
+public class FeedbackOutboxRelay {
+    private final FeedbackOutboxRepository outboxRepository;
+    private final KafkaTemplate<String, FeedbackSubmittedEvent> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration sendTimeout;
+    private final Duration claimTimeout;
+    private final FeedbackEventKeyStrategy keyStrategy;
+
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final Counter relayed;
+    private final Counter failures;
+    private final MeterRegistry meterRegistry;
+    private final Timer sendAcked;
+    private final Timer sendFailed;
+
+    public FeedbackOutboxRelay(FeedbackOutboxRepository outboxRepository,
+                               KafkaTemplate<String, FeedbackSubmittedEvent> kafkaTemplate,
+                               ObjectMapper objectMapper,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${feedback.outbox.batch-size:500}") int batchSize,
+                               @Value("${feedback.outbox.send-timeout-ms:10000}") long sendTimeoutMs,
+                               @Value("${feedback.outbox.claim-timeout-ms:60000}") long claimTimeoutMs,
+                               @Value("${feedback.kafka.key-strategy:member-id}") FeedbackEventKeyStrategy keyStrategy) {
+        if (claimTimeoutMs <= sendTimeoutMs) {
+            // Otherwise another relay could claim a batch that is still waiting for its acknowledgements
+            throw new IllegalStateException("feedback.outbox.claim-timeout-ms must be longer than send-timeout-ms");
+        }
+        this.outboxRepository = outboxRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.sendTimeout = Duration.ofMillis(sendTimeoutMs);
+        this.claimTimeout = Duration.ofMillis(claimTimeoutMs);
+        this.keyStrategy = keyStrategy;
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("feedback.outbox.pending", pending, AtomicLong::get)
+            .description("Outbox rows waiting to be relayed to Kafka, as of the last pending count")
+            .register(meterRegistry);
+        Gauge.builder("feedback.outbox.lag", lagMillis, value -> value.get() / 1000.0)
+            .description("Age of the oldest outbox row waiting to be relayed")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+        this.relayed = Counter.builder("feedback.outbox.relayed")
+            .description("Outbox rows acknowledged by Kafka")
+            .register(meterRegistry);
+        this.failures = Counter.builder("feedback.outbox.relay.failures")
+            .description("Relay batches that failed and will be retried")
+            .register(meterRegistry);
+        this.sendAcked = sendTimer("success", meterRegistry);
+        this.sendFailed = sendTimer("failure", meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${feedback.outbox.poll-interval-ms:200}")
+    public void relayPending() {
+        try {
+            // Keep draining while full batches come back so a backlog clears without waiting on the poll interval
+            while (relayBatch() == batchSize) {
+                // next batch
+            }
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.warn("Outbox relay batch failed, will retry on next poll", e);
+        } finally {
+            refreshLag();
+        }
+    }
+
+    /* Claims, sends and deletes one batch; returns the number of rows relayed */
+    private int relayBatch() {
+        List<FeedbackOutboxEntity> batch = transactionTemplate.execute(status ->
+            outboxRepository.claimNextBatch(batchSize, claimTimeout.toMillis()));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            List<CompletableFuture<SendResult<String, FeedbackSubmittedEvent>>> sends = new ArrayList<>(batch.size());
+            for (FeedbackOutboxEntity row : batch) {
+                FeedbackSubmittedEvent event = toEvent(row);
+                long sentAt = System.nanoTime();
+                sends.add(kafkaTemplate.send(row.getTopic(), keyStrategy.keyOf(event), event)
+                    .whenComplete((result, error) -> recordAck(sentAt, error)));
+            }
+            awaitAcks(sends);
+        } catch (RuntimeException e) {
+            release(batch);
+            throw e;
+        }
+
+        // If this fails the claim expires and the batch is sent again, which at-least-once allows
+        transactionTemplate.executeWithoutResult(status -> outboxRepository.deleteAllInBatch(batch));
+        relayed.increment(batch.size());
+        return batch.size();
+    }
+
+    private void release(List<FeedbackOutboxEntity> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                outboxRepository.releaseClaims(batch.stream().map(FeedbackOutboxEntity::getId).toList()));
+        } catch (RuntimeException e) {
+            log.debug("Could not release outbox claims, they expire in {}", claimTimeout, e);
+        }
+    }
+
+    private void awaitAcks(List<CompletableFuture<SendResult<String, FeedbackSubmittedEvent>>> sends) {
+        try {
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new))
+                .get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for Kafka acknowledgements", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Kafka did not acknowledge outbox batch", e);
+        }
+    }
+
+    /* Send-to-acknowledgement latency per record, plus a failure count tagged with the cause */
+    private void recordAck(long sentAt, Throwable error) {
+        long elapsed = System.nanoTime() - sentAt;
+        if (error == null) {
+            sendAcked.record(elapsed, TimeUnit.NANOSECONDS);
+            return;
+        }
+        sendFailed.record(elapsed, TimeUnit.NANOSECONDS);
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        meterRegistry.counter("feedback.kafka.send.failures", "exception", cause.getClass().getSimpleName()).increment();
+    }
+
+    private static Timer sendTimer(String outcome, MeterRegistry meterRegistry) {
+        return Timer.builder("feedback.kafka.send")
+            .description("Time from KafkaTemplate.send to broker acknowledgement")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    private FeedbackSubmittedEvent toEvent(FeedbackOutboxEntity row) {
+        try {
+            return objectMapper.readValue(row.getPayload(), FeedbackSubmittedEvent.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable outbox payload " + row.getId(), e);
+        }
+    }
+
+    /* After every poll: one index probe */
+    private void refreshLag() {
+        try {
+            Instant oldest = outboxRepository.findOldestCreatedAt();
+            lagMillis.set(oldest == null ? 0 : Math.max(0, Duration.between(oldest, Instant.now()).toMillis()));
+        } catch (RuntimeException e) {
+            log.debug("Could not refresh outbox lag metric", e);
+        }
+    }
+
+    /* count(*) reads the whole table, so it runs on its own slower schedule rather than after every poll */
+    @Scheduled(fixedDelayString = "${feedback.outbox.pending-count-interval-ms:60000}")
+    public void refreshPendingCount() {
+        try {
+            pending.set(outboxRepository.count());
+        } catch (RuntimeException e) {
+            log.debug("Could not refresh outbox pending count", e);
+        }
+    }
+}
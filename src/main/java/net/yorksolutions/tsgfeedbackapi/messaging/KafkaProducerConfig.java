@@ -2,9 +2,11 @@ package net.yorksolutions.tsgfeedbackapi.messaging;
 
 import net.yorksolutions.tsgfeedbackapi.dtos.contracts.FeedbackSubmittedEvent;
 import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
@@ -22,9 +24,13 @@ public class KafkaProducerConfig {
         return new KafkaTemplate<>(producerFactory);
     }
 
+    /* Partitions cap consumer parallelism; KafkaAdmin only ever adds partitions to an existing topic, never removes them */
     @Bean
-    public NewTopic feedbackSubmittedEventTopic() {
-        return new NewTopic("feedback-submitted", 1, (short) 1);
+    public NewTopic feedbackSubmittedEventTopic(@Value("${feedback.kafka.topic.partitions:6}") int partitions,
+                                                @Value("${feedback.kafka.topic.replication-factor:1}") short replicationFactor) {
+        return TopicBuilder.name(FeedbackEventPublisher.TOPIC)
+            .partitions(partitions)
+            .replicas(replicationFactor)
+            .build();
     }
 }
-
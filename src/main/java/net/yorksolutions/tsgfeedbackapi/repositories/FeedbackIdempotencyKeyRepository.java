@@ -0,0 +1,36 @@
+package net.yorksolutions.tsgfeedbackapi.repositories;
+
+import net.yorksolutions.tsgfeedbackapi.repositories.entities.FeedbackIdempotencyKeyEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface FeedbackIdempotencyKeyRepository
+        extends JpaRepository<FeedbackIdempotencyKeyEntity, FeedbackIdempotencyKeyEntity.Key> {
+
+    /* Claims the key for a new feedback row; returns 0 when the key is already taken */
+    /* A concurrent claim of the same key waits for the other transaction and then returns 0 if it committed */
+    @Modifying
+    @Query(value = """
+            INSERT INTO feedback_idempotency_key (member_id, idempotency_key, feedback_id, created_at)
+            VALUES (:memberId, :idempotencyKey, :feedbackId, now())
+            ON CONFLICT (member_id, idempotency_key) DO NOTHING
+            """, nativeQuery = true)
+    int claim(@Param("memberId") String memberId,
+              @Param("idempotencyKey") String idempotencyKey,
+              @Param("feedbackId") UUID feedbackId);
+
+    @Query("select k.feedbackId from FeedbackIdempotencyKeyEntity k "
+        + "where k.memberId = :memberId and k.idempotencyKey = :idempotencyKey")
+    Optional<UUID> findFeedbackId(@Param("memberId") String memberId,
+                                  @Param("idempotencyKey") String idempotencyKey);
+
+    @Modifying
+    @Query(value = "DELETE FROM feedback_idempotency_key WHERE created_at < :cutoff", nativeQuery = true)
+    int deleteCreatedBefore(@Param("cutoff") Instant cutoff);
+}
@@ -0,0 +1,44 @@
+package net.yorksolutions.tsgfeedbackapi.repositories;
+
+import net.yorksolutions.tsgfeedbackapi.repositories.entities.FeedbackOutboxEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface FeedbackOutboxRepository extends JpaRepository<FeedbackOutboxEntity, UUID> {
+
+    /* Claims the oldest unclaimed (or expired) rows for claimMs and returns them oldest first */
+    /* SKIP LOCKED lets several relay instances claim without blocking each other; the row locks end with the */
+    /* caller's (short) transaction, after which claimed_until alone keeps other relays off the batch */
+    @Transactional
+    @Query(value = """
+            WITH claimed AS (
+                UPDATE feedback_outbox o SET claimed_until = now() + :claimMs * interval '1 millisecond'
+                FROM (SELECT id FROM feedback_outbox
+                      WHERE claimed_until IS NULL OR claimed_until < now()
+                      ORDER BY created_at, id
+                      LIMIT :limit
+                      FOR UPDATE SKIP LOCKED) next
+                WHERE o.id = next.id
+                RETURNING o.*
+            )
+            SELECT * FROM claimed ORDER BY created_at, id
+            """, nativeQuery = true)
+    List<FeedbackOutboxEntity> claimNextBatch(@Param("limit") int limit, @Param("claimMs") long claimMs);
+
+    /* Hands a batch that could not be sent back to the next poll instead of waiting out its claim */
+    @Modifying
+    @Query(value = "UPDATE feedback_outbox SET claimed_until = NULL WHERE id IN (:ids)", nativeQuery = true)
+    int releaseClaims(@Param("ids") Collection<UUID> ids);
+
+    /* One probe of the head of idx_feedback_outbox_created */
+    @Query("select min(o.createdAt) from FeedbackOutboxEntity o")
+    Instant findOldestCreatedAt();
+}
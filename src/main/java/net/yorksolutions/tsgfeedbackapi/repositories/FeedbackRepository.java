@@ -1,12 +1,177 @@
 package net.yorksolutions.tsgfeedbackapi.repositories;
 
+import jakarta.persistence.QueryHint;
+import net.yorksolutions.tsgfeedbackapi.dtos.FeedbackResponse;
 import net.yorksolutions.tsgfeedbackapi.repositories.entities.FeedbackEntity;
+import net.yorksolutions.tsgfeedbackapi.repositories.entities.UuidV7Generator;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
+/* Read methods project straight into FeedbackResponse with constructor expressions: no managed entities, */
+/* so no hydration into the persistence context, no snapshot copies and nothing for flush to dirty-check */
+/* feedback is partitioned by submitted_at month (V5 migration); every query should constrain submitted_at */
+/* where it can, so Postgres only touches the partitions that can hold matching rows */
 public interface FeedbackRepository extends JpaRepository<FeedbackEntity, UUID> {
-    List<FeedbackEntity> findByMemberId(String memberId);
-}
 
+    // Larger than any API page (200 + 1 look-ahead row), so a page is always a single round trip
+    String PAGE_FETCH_SIZE = "256";
+
+    // A v7 id is generated at persist and submitted_at at insert, in the same transaction: at most this far apart
+    // Enforced for every writer by the feedback_v7_id_time check constraint (V7 migration); change both together
+    Duration ID_TIME_MARGIN = Duration.ofMinutes(5);
+
+    /* One feedback entry by id; a v7 id's timestamp bounds submitted_at, pruning the lookup to one partition */
+    /* (two at a month boundary); legacy random ids probe every partition */
+    default Optional<FeedbackResponse> findResponseById(UUID id) {
+        if (id.version() != 7) {
+            return findResponseByIdInAnyPartition(id);
+        }
+        Instant created = UuidV7Generator.timestampOf(id);
+        return findResponseByIdSubmittedBetween(id, created.minus(ID_TIME_MARGIN), created.plus(ID_TIME_MARGIN));
+    }
+
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("""
+            select new net.yorksolutions.tsgfeedbackapi.dtos.FeedbackResponse(
+                f.id, f.memberId, f.providerName, f.rating, f.comment, f.submittedAt)
+            from FeedbackEntity f
+            where f.id = :id and f.submittedAt >= :from and f.submittedAt < :to
+            """)
+    Optional<FeedbackResponse> findResponseByIdSubmittedBetween(@Param("id") UUID id,
+                                                                @Param("from") Instant from,
+                                                                @Param("to") Instant to);
+
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("""
+            select new net.yorksolutions.tsgfeedbackapi.dtos.FeedbackResponse(
+                f.id, f.memberId, f.providerName, f.rating, f.comment, f.submittedAt)
+            from FeedbackEntity f
+            where f.id = :id
+            """)
+    Optional<FeedbackResponse> findResponseByIdInAnyPartition(@Param("id") UUID id);
+
+    /* Feedback for a set of ids, in no particular order (search hits); pruned to the months the ids span */
+    default List<FeedbackResponse> findResponsesByIdIn(Collection<UUID> ids) {
+        Instant from = Instant.MAX;
+        Instant to = Instant.MIN;
+        for (UUID id : ids) {
+            if (id.version() != 7) {
+                return findResponsesByIdInAnyPartition(ids);
+            }
+            Instant created = UuidV7Generator.timestampOf(id);
+            from = created.isBefore(from) ? created : from;
+            to = created.isAfter(to) ? created : to;
+        }
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return findResponsesByIdInSubmittedBetween(ids, from.minus(ID_TIME_MARGIN), to.plus(ID_TIME_MARGIN));
+    }
+
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("""
+            select new net.yorksolutions.tsgfeedbackapi.dtos.FeedbackResponse(
+                f.id, f.memberId, f.providerName, f.rating, f.comment, f.submittedAt)
+            from FeedbackEntity f
+            where f.id in :ids and f.submittedAt >= :from and f.submittedAt < :to
+            """)
+    List<FeedbackResponse> findResponsesByIdInSubmittedBetween(@Param("ids") Collection<UUID> ids,
+                                                               @Param("from") Instant from,
+                                                               @Param("to") Instant to);
+
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("""
+            select new net.yorksolutions.tsgfeedbackapi.dtos.FeedbackResponse(
+                f.id, f.memberId, f.providerName, f.rating, f.comment, f.submittedAt)
+            from FeedbackEntity f
+            where f.id in :ids
+            """)
+    List<FeedbackResponse> findResponsesByIdInAnyPartition(@Param("ids") Collection<UUID> ids);
+
+    /* Keyset walk over an id range in primary key order (search index backfill and catch-up) */
+    @Transactional(readOnly = true)
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000")
+    })
+    @Query("""
+            select new net.yorksolutions.tsgfeedbackapi.dtos.FeedbackResponse(
+                f.id, f.memberId, f.providerName, f.rating, f.comment, f.submittedAt)
+            from FeedbackEntity f
+            where f.id > :after and f.id < :before
+            order by f.id
+            """)
+    List<FeedbackResponse> findResponsesBetween(@Param("after") UUID after, @Param("before") UUID before, Limit limit);
+
+    /* First keyset page: newest feedback for the member; reads the head of each partition's member index */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = PAGE_FETCH_SIZE)
+    })
+    @Query("""
+            select new net.yorksolutions.tsgfeedbackapi.dtos.FeedbackResponse(
+                f.id, f.memberId, f.providerName, f.rating, f.comment, f.submittedAt)
+            from FeedbackEntity f
+            where f.memberId = :memberId
+            order by f.submittedAt desc, f.id desc
+            """)
+    List<FeedbackResponse> findPageByMemberId(@Param("memberId") String memberId, Limit limit);
+
+    /* Following keyset pages: rows strictly older than the (submittedAt, id) of the previous page's last row */
+    /* The row comparison is an Index Cond on idx_feedback_member_submitted, so the scan starts at the cursor instead */
+    /* of filtering out the member's newer rows; the redundant submittedAt bound prunes partitions newer than it */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = PAGE_FETCH_SIZE)
+    })
+    @Query("""
+            select new net.yorksolutions.tsgfeedbackapi.dtos.FeedbackResponse(
+                f.id, f.memberId, f.providerName, f.rating, f.comment, f.submittedAt)
+            from FeedbackEntity f
+            where f.memberId = :memberId
+              and f.submittedAt <= :submittedAt
+              and (f.submittedAt, f.id) < (:submittedAt, :id)
+            order by f.submittedAt desc, f.id desc
+            """)
+    List<FeedbackResponse> findPageByMemberIdBefore(@Param("memberId") String memberId,
+                                                    @Param("submittedAt") Instant submittedAt,
+                                                    @Param("id") UUID id,
+                                                    Limit limit);
+
+    /* Inserts rows whose id and submittedAt the caller assigned, in one statement; a row already stored by an */
+    /* earlier attempt conflicts on the primary key and is skipped. Returns the ids this call inserted */
+    @Transactional
+    @Query(value = """
+            INSERT INTO feedback (id, member_id, provider_name, rating, comment, submitted_at)
+            SELECT * FROM unnest(CAST(:ids AS uuid[]), CAST(:memberIds AS varchar[]), CAST(:providerNames AS varchar[]),
+                                 CAST(:ratings AS integer[]), CAST(:comments AS varchar[]), CAST(:submittedAts AS timestamptz[]))
+            ON CONFLICT DO NOTHING
+            RETURNING id
+            """, nativeQuery = true)
+    List<UUID> insertAbsent(@Param("ids") UUID[] ids,
+                            @Param("memberIds") String[] memberIds,
+                            @Param("providerNames") String[] providerNames,
+                            @Param("ratings") Integer[] ratings,
+                            @Param("comments") String[] comments,
+                            @Param("submittedAts") Instant[] submittedAts);
+
+    /* Newest submittedAt for the member; one probe of idx_feedback_member_submitted */
+    @Query("select max(f.submittedAt) from FeedbackEntity f where f.memberId = :memberId")
+    Optional<Instant> findLatestSubmittedAt(@Param("memberId") String memberId);
+}
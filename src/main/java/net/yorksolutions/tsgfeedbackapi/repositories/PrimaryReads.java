@@ -0,0 +1,36 @@
+package net.yorksolutions.tsgfeedbackapi.repositories;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+/* PrimaryReads */
+/* Runs a read on the primary even where the caller is read-only and would otherwise be served by the replica */
+/* The work runs in its own read-write transaction, which ReadReplicaDataSourceConfig's proxy always takes from the */
+/* primary pool; used where a row missing from the replica may only not have been replayed yet */
+@Component
+public class PrimaryReads {
+
+    private final TransactionTemplate transactionTemplate;
+    private final boolean replicaConfigured;
+
+    public PrimaryReads(PlatformTransactionManager transactionManager,
+                        @Value("${feedback.datasource.replica.url:}") String replicaUrl) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.replicaConfigured = !replicaUrl.isBlank();
+    }
+
+    /* False with a single datasource, where every read already sees the primary */
+    public boolean hasReplica() {
+        return replicaConfigured;
+    }
+
+    public <T> T read(Supplier<T> work) {
+        return transactionTemplate.execute(status -> work.get());
+    }
+}
@@ -0,0 +1,129 @@
+package net.yorksolutions.tsgfeedbackapi.repositories;
+
+import net.yorksolutions.tsgfeedbackapi.repositories.entities.ProviderRatingRollupEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public interface ProviderRatingRollupRepository
+        extends JpaRepository<ProviderRatingRollupEntity, ProviderRatingRollupEntity.Key> {
+
+    /* One provider's buckets of one size in [from, to), oldest first; a primary key range scan */
+    @Query("""
+            select r from ProviderRatingRollupEntity r
+            where r.providerName = :providerName and r.bucket = :bucket
+              and r.bucketStart >= :from and r.bucketStart < :to
+            order by r.bucketStart
+            """)
+    List<ProviderRatingRollupEntity> findRange(@Param("providerName") String providerName,
+                                               @Param("bucket") String bucket,
+                                               @Param("from") Instant from,
+                                               @Param("to") Instant to);
+
+    /* Hours before this have been recounted; held FOR SHARE until the caller's transaction ends */
+    @Query(value = "SELECT reconciled_through FROM provider_rating_rollup_state WHERE id = 1 FOR SHARE",
+        nativeQuery = true)
+    Instant lockReconciledThroughForShare();
+
+    /* Same, but FOR UPDATE: waits for in-flight delta flushes and blocks new ones until the caller commits */
+    @Query(value = "SELECT reconciled_through FROM provider_rating_rollup_state WHERE id = 1 FOR UPDATE",
+        nativeQuery = true)
+    Instant lockReconciledThroughForUpdate();
+
+    @Modifying
+    @Query(value = "UPDATE provider_rating_rollup_state SET reconciled_through = :through WHERE id = 1",
+        nativeQuery = true)
+    void setReconciledThrough(@Param("through") Instant through);
+
+    /* Adds a delta to one hour or day row, creating it on first use */
+    @Modifying
+    @Query(value = """
+            INSERT INTO provider_rating_rollup AS r (provider_name, bucket, bucket_start, rating_count, rating_sum,
+                                                     rating_1, rating_2, rating_3, rating_4, rating_5, updated_at)
+            VALUES (:providerName, :bucket, :bucketStart, :count, :sum, :rating1, :rating2, :rating3, :rating4, :rating5, now())
+            ON CONFLICT (provider_name, bucket, bucket_start) DO UPDATE SET
+                rating_count = r.rating_count + EXCLUDED.rating_count,
+                rating_sum   = r.rating_sum + EXCLUDED.rating_sum,
+                rating_1     = r.rating_1 + EXCLUDED.rating_1,
+                rating_2     = r.rating_2 + EXCLUDED.rating_2,
+                rating_3     = r.rating_3 + EXCLUDED.rating_3,
+                rating_4     = r.rating_4 + EXCLUDED.rating_4,
+                rating_5     = r.rating_5 + EXCLUDED.rating_5,
+                updated_at   = now()
+            """, nativeQuery = true)
+    void addDelta(@Param("providerName") String providerName,
+                  @Param("bucket") String bucket,
+                  @Param("bucketStart") Instant bucketStart,
+                  @Param("count") long count,
+                  @Param("sum") long sum,
+                  @Param("rating1") long rating1,
+                  @Param("rating2") long rating2,
+                  @Param("rating3") long rating3,
+                  @Param("rating4") long rating4,
+                  @Param("rating5") long rating5);
+
+    /* Overwrites the hour rows in [from, to) with exact counts from feedback */
+    /* Rows are found through the primary key: v7 ids in [idFrom, idTo) cover that submitted_at range */
+    @Modifying
+    @Query(value = """
+            INSERT INTO provider_rating_rollup AS r (provider_name, bucket, bucket_start, rating_count, rating_sum,
+                                                     rating_1, rating_2, rating_3, rating_4, rating_5, updated_at)
+            SELECT provider_name,
+                   'hour',
+                   date_trunc('hour', submitted_at, 'UTC'),
+                   count(*),
+                   sum(rating),
+                   count(*) FILTER (WHERE rating = 1),
+                   count(*) FILTER (WHERE rating = 2),
+                   count(*) FILTER (WHERE rating = 3),
+                   count(*) FILTER (WHERE rating = 4),
+                   count(*) FILTER (WHERE rating = 5),
+                   now()
+            FROM feedback
+            WHERE id >= :idFrom AND id < :idTo
+              AND submitted_at >= :from AND submitted_at < :to
+            GROUP BY provider_name, date_trunc('hour', submitted_at, 'UTC')
+            ON CONFLICT (provider_name, bucket, bucket_start) DO UPDATE SET
+                rating_count = EXCLUDED.rating_count,
+                rating_sum   = EXCLUDED.rating_sum,
+                rating_1     = EXCLUDED.rating_1,
+                rating_2     = EXCLUDED.rating_2,
+                rating_3     = EXCLUDED.rating_3,
+                rating_4     = EXCLUDED.rating_4,
+                rating_5     = EXCLUDED.rating_5,
+                updated_at   = now()
+            """, nativeQuery = true)
+    int recountHours(@Param("from") Instant from,
+                     @Param("to") Instant to,
+                     @Param("idFrom") UUID idFrom,
+                     @Param("idTo") UUID idTo);
+
+    /* Overwrites the day rows in [from, to) with the sum of their hour rows */
+    @Modifying
+    @Query(value = """
+            INSERT INTO provider_rating_rollup AS r (provider_name, bucket, bucket_start, rating_count, rating_sum,
+                                                     rating_1, rating_2, rating_3, rating_4, rating_5, updated_at)
+            SELECT provider_name, 'day', date_trunc('day', bucket_start, 'UTC'),
+                   sum(rating_count), sum(rating_sum),
+                   sum(rating_1), sum(rating_2), sum(rating_3), sum(rating_4), sum(rating_5),
+                   now()
+            FROM provider_rating_rollup
+            WHERE bucket = 'hour' AND bucket_start >= :from AND bucket_start < :to
+            GROUP BY provider_name, date_trunc('day', bucket_start, 'UTC')
+            ON CONFLICT (provider_name, bucket, bucket_start) DO UPDATE SET
+                rating_count = EXCLUDED.rating_count,
+                rating_sum   = EXCLUDED.rating_sum,
+                rating_1     = EXCLUDED.rating_1,
+                rating_2     = EXCLUDED.rating_2,
+                rating_3     = EXCLUDED.rating_3,
+                rating_4     = EXCLUDED.rating_4,
+                rating_5     = EXCLUDED.rating_5,
+                updated_at   = now()
+            """, nativeQuery = true)
+    int rollUpDays(@Param("from") Instant from, @Param("to") Instant to);
+}
@@ -0,0 +1,83 @@
+package net.yorksolutions.tsgfeedbackapi.repositories;
+
+import net.yorksolutions.tsgfeedbackapi.repositories.entities.ProviderRatingStatsEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+
+public interface ProviderRatingStatsRepository extends JpaRepository<ProviderRatingStatsEntity, String> {
+
+    /* Adds a delta to the provider's totals, creating the row on first use */
+    @Modifying
+    @Query(value = """
+            INSERT INTO provider_rating_stats AS s (provider_name, rating_count, rating_sum,
+                                                    rating_1, rating_2, rating_3, rating_4, rating_5, updated_at)
+            VALUES (:providerName, :count, :sum, :rating1, :rating2, :rating3, :rating4, :rating5, now())
+            ON CONFLICT (provider_name) DO UPDATE SET
+                rating_count = s.rating_count + EXCLUDED.rating_count,
+                rating_sum   = s.rating_sum + EXCLUDED.rating_sum,
+                rating_1     = s.rating_1 + EXCLUDED.rating_1,
+                rating_2     = s.rating_2 + EXCLUDED.rating_2,
+                rating_3     = s.rating_3 + EXCLUDED.rating_3,
+                rating_4     = s.rating_4 + EXCLUDED.rating_4,
+                rating_5     = s.rating_5 + EXCLUDED.rating_5,
+                updated_at   = now()
+            """, nativeQuery = true)
+    void addDelta(@Param("providerName") String providerName,
+                  @Param("count") long count,
+                  @Param("sum") long sum,
+                  @Param("rating1") long rating1,
+                  @Param("rating2") long rating2,
+                  @Param("rating3") long rating3,
+                  @Param("rating4") long rating4,
+                  @Param("rating5") long rating5);
+
+    /* Takes the hour rollup rows in [from, to) out of the totals; with addHours after a recount of those */
+    /* hours, the totals move by exactly what the recount changed */
+    @Modifying
+    @Query(value = """
+            UPDATE provider_rating_stats AS s SET
+                rating_count = s.rating_count - h.rating_count,
+                rating_sum   = s.rating_sum - h.rating_sum,
+                rating_1     = s.rating_1 - h.rating_1,
+                rating_2     = s.rating_2 - h.rating_2,
+                rating_3     = s.rating_3 - h.rating_3,
+                rating_4     = s.rating_4 - h.rating_4,
+                rating_5     = s.rating_5 - h.rating_5,
+                updated_at   = now()
+            FROM (SELECT provider_name, sum(rating_count) AS rating_count, sum(rating_sum) AS rating_sum,
+                         sum(rating_1) AS rating_1, sum(rating_2) AS rating_2, sum(rating_3) AS rating_3,
+                         sum(rating_4) AS rating_4, sum(rating_5) AS rating_5
+                  FROM provider_rating_rollup
+                  WHERE bucket = 'hour' AND bucket_start >= :from AND bucket_start < :to
+                  GROUP BY provider_name) h
+            WHERE s.provider_name = h.provider_name
+            """, nativeQuery = true)
+    int subtractHours(@Param("from") Instant from, @Param("to") Instant to);
+
+    /* Adds the hour rollup rows in [from, to) to the totals, creating rows for providers seen for the first time */
+    @Modifying
+    @Query(value = """
+            INSERT INTO provider_rating_stats AS s (provider_name, rating_count, rating_sum,
+                                                    rating_1, rating_2, rating_3, rating_4, rating_5, updated_at)
+            SELECT provider_name, sum(rating_count), sum(rating_sum),
+                   sum(rating_1), sum(rating_2), sum(rating_3), sum(rating_4), sum(rating_5),
+                   now()
+            FROM provider_rating_rollup
+            WHERE bucket = 'hour' AND bucket_start >= :from AND bucket_start < :to
+            GROUP BY provider_name
+            ON CONFLICT (provider_name) DO UPDATE SET
+                rating_count = s.rating_count + EXCLUDED.rating_count,
+                rating_sum   = s.rating_sum + EXCLUDED.rating_sum,
+                rating_1     = s.rating_1 + EXCLUDED.rating_1,
+                rating_2     = s.rating_2 + EXCLUDED.rating_2,
+                rating_3     = s.rating_3 + EXCLUDED.rating_3,
+                rating_4     = s.rating_4 + EXCLUDED.rating_4,
+                rating_5     = s.rating_5 + EXCLUDED.rating_5,
+                updated_at   = now()
+            """, nativeQuery = true)
+    int addHours(@Param("from") Instant from, @Param("to") Instant to);
+}
@@ -0,0 +1,88 @@
+package net.yorksolutions.tsgfeedbackapi.repositories;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.TaskScheduler;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/* ReadReplicaDataSourceConfig */
+/* Active only when feedback.datasource.replica.url is set; otherwise Boot's single datasource is used unchanged */
+/* The primary pool is built from spring.datasource(.hikari), the replica pool from feedback.datasource.replica(.hikari) */
+/* Both pools are owned by the routing datasource, so Boot's health and pool metrics see one datasource; */
+/* the pools publish their own hikaricp.* meters tagged pool=primary / pool=replica */
+/* The replica pool waits REPLICA_CONNECTION_TIMEOUT for a connection by default (Hikari's own default is 30 s), */
+/* so a replica that goes down between health checks delays reads by about that much before they fall back */
+@Configuration
+@ConditionalOnProperty(name = "feedback.datasource.replica.url")
+public class ReadReplicaDataSourceConfig {
+    static final Duration REPLICA_CONNECTION_TIMEOUT = Duration.ofSeconds(1);
+
+    @Bean(destroyMethod = "close")
+    public ReadReplicaRoutingDataSource readReplicaRoutingDataSource(DataSourceProperties primaryProperties,
+                                                                     Environment environment,
+                                                                     MeterRegistry meterRegistry) {
+        Binder binder = Binder.get(environment);
+
+        HikariDataSource primary = primaryProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName("primary");
+
+        HikariDataSource replica = new HikariDataSource();
+        replica.setJdbcUrl(binder.bind("feedback.datasource.replica.url", String.class).get());
+        replica.setDriverClassName(primaryProperties.determineDriverClassName());
+        replica.setUsername(primaryProperties.determineUsername());
+        replica.setPassword(primaryProperties.determinePassword());
+        replica.setConnectionTimeout(REPLICA_CONNECTION_TIMEOUT.toMillis());
+        // Same driver settings as the primary unless the replica section overrides them
+        binder.bind("spring.datasource.hikari.data-source-properties", Bindable.mapOf(String.class, String.class))
+            .ifBound(properties -> properties.forEach(replica::addDataSourceProperty));
+        binder.bind("feedback.datasource.replica.username", String.class).ifBound(replica::setUsername);
+        binder.bind("feedback.datasource.replica.password", String.class).ifBound(replica::setPassword);
+        binder.bind("feedback.datasource.replica.hikari", Bindable.ofInstance(replica));
+        replica.setPoolName("replica");
+        replica.setReadOnly(true);
+        // Start even if the replica is down; the health monitor keeps it out of rotation until it answers
+        replica.setInitializationFailTimeout(-1);
+
+        MicrometerMetricsTrackerFactory metrics = new MicrometerMetricsTrackerFactory(meterRegistry);
+        primary.setMetricsTrackerFactory(metrics);
+        replica.setMetricsTrackerFactory(metrics);
+
+        return new ReadReplicaRoutingDataSource(primary, replica);
+    }
+
+    /* The application-wide DataSource: JPA, Flyway and JdbcTemplate all go through the lazy proxy */
+    /* The proxy fetches the physical connection on first use, once the transaction has marked it read-only or not, */
+    /* and takes read-only ones from the routing datasource and all others from the primary pool */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadReplicaRoutingDataSource routing) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(routing.getPrimary());
+        proxy.setReadOnlyDataSource(routing);
+        return proxy;
+    }
+
+    @Bean
+    public ReplicaHealthMonitor readReplicaHealthIndicator(ReadReplicaRoutingDataSource routing,
+                                                          MeterRegistry meterRegistry,
+                                                          TaskScheduler taskScheduler,
+                                                          @Value("${feedback.datasource.replica.max-lag-ms:5000}") long maxLagMs,
+                                                          @Value("${feedback.datasource.replica.health-check-interval-ms:2000}") long intervalMs) {
+        ReplicaHealthMonitor monitor = new ReplicaHealthMonitor(routing, Duration.ofMillis(maxLagMs), meterRegistry);
+        taskScheduler.scheduleWithFixedDelay(monitor::check, Duration.ofMillis(intervalMs));
+        return monitor;
+    }
+}
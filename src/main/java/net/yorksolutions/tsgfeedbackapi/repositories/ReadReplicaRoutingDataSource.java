@@ -0,0 +1,74 @@
+package net.yorksolutions.tsgfeedbackapi.repositories;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/* ReadReplicaRoutingDataSource */
+/* The read-only DataSource of the application's LazyConnectionDataSourceProxy (setReadOnlyDataSource): the proxy */
+/* decides read-only vs read-write per transaction, this class only decides where read-only connections come from */
+/* Connections come from the replica pool while it is in rotation, and from the primary while it is not, or if */
+/* the replica refuses one; the replica pool's short connection-timeout bounds how long a read waits for that */
+@Slf4j
+public class ReadReplicaRoutingDataSource extends AbstractDataSource {
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private volatile boolean replicaHealthy = true;
+
+    public ReadReplicaRoutingDataSource(DataSource primary, DataSource replica) {
+        this.primary = primary;
+        this.replica = replica;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!replicaHealthy) {
+            return primary.getConnection();
+        }
+        try {
+            return replica.getConnection();
+        } catch (SQLException e) {
+            // Do not fail the read: take the replica out of rotation until the health check sees it recover
+            markReplicaHealthy(false);
+            log.warn("Replica refused a connection, routing reads to the primary", e);
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return (replicaHealthy ? replica : primary).getConnection(username, password);
+    }
+
+    public boolean isReplicaHealthy() {
+        return replicaHealthy;
+    }
+
+    public void markReplicaHealthy(boolean healthy) {
+        if (replicaHealthy != healthy) {
+            log.info("Read replica is now {}", healthy ? "in rotation" : "out of rotation");
+        }
+        replicaHealthy = healthy;
+    }
+
+    DataSource getPrimary() {
+        return primary;
+    }
+
+    DataSource getReplica() {
+        return replica;
+    }
+
+    /* Closes both pools on shutdown */
+    public void close() throws Exception {
+        for (DataSource pool : new DataSource[] { replica, primary }) {
+            if (pool instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package net.yorksolutions.tsgfeedbackapi.repositories;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/* ReplicaHealthMonitor */
+/* Periodically checks that the replica answers and is not lagging more than max-lag behind the primary, */
+/* and puts it in or out of read rotation accordingly */
+/* Reported as the readReplica health component; a replica outage is UP with a fallback detail because reads keep working */
+@Slf4j
+public class ReplicaHealthMonitor implements HealthIndicator {
+    // Zero on a primary or stand-in, and on a replica that has replayed all the WAL it received: the age of the last
+    // replayed transaction keeps growing while the primary has no writes, so it only counts while replay is behind
+    private static final String LAG_QUERY = """
+            SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0
+                        WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                        ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) END
+            """;
+
+    private final ReadReplicaRoutingDataSource routing;
+    private final Duration maxLag;
+    private volatile String lastFailure;
+    private volatile long lastLagMillis;
+
+    public ReplicaHealthMonitor(ReadReplicaRoutingDataSource routing, Duration maxLag, MeterRegistry meterRegistry) {
+        this.routing = routing;
+        this.maxLag = maxLag;
+
+        Gauge.builder("feedback.datasource.replica.healthy", routing, r -> r.isReplicaHealthy() ? 1 : 0)
+            .description("1 while read-only transactions are routed to the replica, 0 while they fall back to the primary")
+            .register(meterRegistry);
+        Gauge.builder("feedback.datasource.replica.lag", this, monitor -> monitor.lastLagMillis / 1000.0)
+            .description("Replication lag seen by the last replica health check")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+    }
+
+    public void check() {
+        try (Connection connection = routing.getReplica().getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet lag = statement.executeQuery(LAG_QUERY)) {
+            lag.next();
+            lastLagMillis = (long) lag.getDouble(1);
+            if (lastLagMillis > maxLag.toMillis()) {
+                fail("Replication lag " + lastLagMillis + " ms exceeds " + maxLag.toMillis() + " ms");
+                return;
+            }
+            lastFailure = null;
+            routing.markReplicaHealthy(true);
+        } catch (SQLException | RuntimeException e) {
+            fail(e.getMessage());
+        }
+    }
+
+    private void fail(String reason) {
+        if (routing.isReplicaHealthy()) {
+            log.warn("Read replica failed its health check: {}", reason);
+        }
+        lastFailure = reason;
+        routing.markReplicaHealthy(false);
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder health = Health.up().withDetail("lagMillis", lastLagMillis);
+        if (routing.isReplicaHealthy()) {
+            return health.withDetail("reads", "replica").build();
+        }
+        return health.withDetail("reads", "primary (fallback)")
+            .withDetail("replicaError", String.valueOf(lastFailure))
+            .build();
+    }
+}
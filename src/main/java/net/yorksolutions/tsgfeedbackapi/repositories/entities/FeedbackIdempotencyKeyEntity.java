@@ -0,0 +1,41 @@
+package net.yorksolutions.tsgfeedbackapi.repositories.entities;
+
+import jakarta.persistence.*;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.UUID;
+
+/* Maps a member's Idempotency-Key to the feedback it created; rows are written with an ON CONFLICT insert */
+@Entity
+@Table(name = "feedback_idempotency_key")
+@IdClass(FeedbackIdempotencyKeyEntity.Key.class)
+@Getter @Setter
+@NoArgsConstructor
+public class FeedbackIdempotencyKeyEntity {
+    @Id
+    @Column(name = "member_id", length = 36)
+    private String memberId;
+
+    @Id
+    @Column(name = "idempotency_key", length = 100)
+    private String idempotencyKey;
+
+    @Column(name = "feedback_id", nullable = false)
+    private UUID feedbackId;
+
+    @Column(name = "created_at", nullable = false, columnDefinition = "timestamptz")
+    private Instant createdAt;
+
+    @Getter @Setter
+    @NoArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private String memberId;
+        private String idempotencyKey;
+    }
+}
@@ -0,0 +1,41 @@
+package net.yorksolutions.tsgfeedbackapi.repositories.entities;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UuidGenerator;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/* Outbox row written in the same transaction as the feedback it describes */
+/* FeedbackOutboxRelay drains these rows to Kafka and deletes them once acknowledged */
+@Entity
+@Table(name = "feedback_outbox")
+@Getter @Setter
+@NoArgsConstructor
+public class FeedbackOutboxEntity {
+    @Id
+    @UuidGenerator(algorithm = UuidV7Generator.class)
+    @Column(columnDefinition = "uuid")
+    private UUID id;
+
+    @Column(name = "aggregate_id", nullable = false, length = 36)
+    private String aggregateId;
+
+    @Column(nullable = false, length = 120)
+    private String topic;
+
+    @Column(nullable = false, columnDefinition = "text")
+    private String payload;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, columnDefinition = "timestamptz")
+    private Instant createdAt;
+
+    // Set while a relay is sending the row; other relays skip it until then
+    @Column(name = "claimed_until", columnDefinition = "timestamptz")
+    private Instant claimedUntil;
+}
@@ -0,0 +1,66 @@
+package net.yorksolutions.tsgfeedbackapi.repositories.entities;
+
+import jakarta.persistence.*;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/* Rating totals for one provider in one UTC hour or day; rows are only ever changed through upserts */
+@Entity
+@Table(name = "provider_rating_rollup")
+@IdClass(ProviderRatingRollupEntity.Key.class)
+@Getter @Setter
+@NoArgsConstructor
+public class ProviderRatingRollupEntity {
+    public static final String HOUR = "hour";
+    public static final String DAY = "day";
+
+    @Id
+    @Column(name = "provider_name", length = 80)
+    private String providerName;
+
+    @Id
+    @Column(name = "bucket", length = 4)
+    private String bucket;
+
+    @Id
+    @Column(name = "bucket_start", columnDefinition = "timestamptz")
+    private Instant bucketStart;
+
+    @Column(name = "rating_count", nullable = false)
+    private long ratingCount;
+
+    @Column(name = "rating_sum", nullable = false)
+    private long ratingSum;
+
+    @Column(name = "rating_1", nullable = false)
+    private long rating1;
+
+    @Column(name = "rating_2", nullable = false)
+    private long rating2;
+
+    @Column(name = "rating_3", nullable = false)
+    private long rating3;
+
+    @Column(name = "rating_4", nullable = false)
+    private long rating4;
+
+    @Column(name = "rating_5", nullable = false)
+    private long rating5;
+
+    @Column(name = "updated_at", nullable = false, columnDefinition = "timestamptz")
+    private Instant updatedAt;
+
+    @Getter @Setter
+    @NoArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private String providerName;
+        private String bucket;
+        private Instant bucketStart;
+    }
+}
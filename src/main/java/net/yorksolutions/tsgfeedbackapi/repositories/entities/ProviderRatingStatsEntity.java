@@ -0,0 +1,43 @@
+package net.yorksolutions.tsgfeedbackapi.repositories.entities;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/* Running rating totals for one provider; rows are only ever changed through additive upserts */
+@Entity
+@Table(name = "provider_rating_stats")
+@Getter @Setter
+@NoArgsConstructor
+public class ProviderRatingStatsEntity {
+    @Id
+    @Column(name = "provider_name", length = 80)
+    private String providerName;
+
+    @Column(name = "rating_count", nullable = false)
+    private long ratingCount;
+
+    @Column(name = "rating_sum", nullable = false)
+    private long ratingSum;
+
+    @Column(name = "rating_1", nullable = false)
+    private long rating1;
+
+    @Column(name = "rating_2", nullable = false)
+    private long rating2;
+
+    @Column(name = "rating_3", nullable = false)
+    private long rating3;
+
+    @Column(name = "rating_4", nullable = false)
+    private long rating4;
+
+    @Column(name = "rating_5", nullable = false)
+    private long rating5;
+
+    @Column(name = "updated_at", nullable = false, columnDefinition = "timestamptz")
+    private Instant updatedAt;
+}
@@ -0,0 +1,46 @@
+package net.yorksolutions.tsgfeedbackapi.repositories.entities;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.uuid.UuidValueGenerator;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/* Time-ordered UUID version 7 (RFC 9562) generated in the JVM, no database round trip */
+/* Layout: 48-bit unix millis | version 7 | 12-bit counter | variant | 62 random bits */
+/* New keys land at the right edge of the primary key btree instead of on random pages */
+public class UuidV7Generator implements UuidValueGenerator {
+
+    // (unix millis << 12) | counter of the last id handed out; keeps ids monotonic within this JVM
+    private static final AtomicLong LAST_STAMP = new AtomicLong();
+
+    @Override
+    public UUID generateUuid(SharedSessionContractImplementor session) {
+        return next();
+    }
+
+    public static UUID next() {
+        long now = System.currentTimeMillis() << 12;
+        // Same millisecond (or a clock step back) bumps the counter; overflow borrows from the next millisecond
+        long stamp = LAST_STAMP.accumulateAndGet(now, (last, candidate) -> Math.max(candidate, last + 1));
+
+        long mostSigBits = (stamp >>> 12) << 16 | 0x7000L | (stamp & 0xFFFL);
+        long leastSigBits = ThreadLocalRandom.current().nextLong() & 0x3FFFFFFFFFFFFFFFL | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    /* Creation time embedded in a version 7 id */
+    public static Instant timestampOf(UUID id) {
+        if (id.version() != 7) {
+            throw new IllegalArgumentException("Not a version 7 UUID: " + id);
+        }
+        return Instant.ofEpochMilli(id.getMostSignificantBits() >>> 16);
+    }
+
+    /* Smallest version 7 id that can be generated at or after the given instant; ids compare in time order in Postgres */
+    public static UUID lowerBound(Instant instant) {
+        return new UUID(instant.toEpochMilli() << 16 | 0x7000L, 0x8000000000000000L);
+    }
+}
@@ -0,0 +1,213 @@
+package net.yorksolutions.tsgfeedbackapi.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import net.yorksolutions.tsgfeedbackapi.dtos.ErrorResponse;
+import net.yorksolutions.tsgfeedbackapi.dtos.FeedbackRequest;
+import net.yorksolutions.tsgfeedbackapi.dtos.FeedbackResponse;
+import net.yorksolutions.tsgfeedbackapi.dtos.SubmissionStatusResponse;
+import net.yorksolutions.tsgfeedbackapi.repositories.FeedbackRepository;
+import net.yorksolutions.tsgfeedbackapi.repositories.PrimaryReads;
+import net.yorksolutions.tsgfeedbackapi.repositories.entities.UuidV7Generator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/* AsyncFeedbackSubmissions */
+/* Backs POST /api/v1/feedback?mode=async: validate, enqueue on a bounded ring buffer, answer 202 */
+/* Worker threads drain the buffer into createAssignedFeedback, so submit latency does not depend on DB or Kafka */
+/* Each row's id and submittedAt are fixed before the first attempt, so a retried batch skips rows an attempt */
+/* that seemed to fail had already committed, instead of storing them twice; once attempts run out, rows found on */
+/* the primary are still reported completed, and only the rest are asked to resubmit */
+/* A full buffer rejects new work (503) instead of growing; statuses are kept in a bounded, expiring cache */
+@Slf4j
+@Service
+public class AsyncFeedbackSubmissions implements SmartLifecycle {
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long RETRY_BACKOFF_MS = 200;
+
+    private final FeedbackService feedbackService;
+    private final FeedbackRepository feedbackRepository;
+    private final PrimaryReads primaryReads;
+    private final BlockingQueue<PendingSubmission> queue;
+    private final Cache<UUID, SubmissionStatusResponse> statuses;
+    private final int workerCount;
+    private final int batchSize;
+    private final boolean virtualThreads;
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running;
+
+    public AsyncFeedbackSubmissions(FeedbackService feedbackService,
+                                    FeedbackRepository feedbackRepository,
+                                    PrimaryReads primaryReads,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${feedback.async.capacity:10000}") int capacity,
+                                    @Value("${feedback.async.workers:2}") int workerCount,
+                                    @Value("${feedback.async.batch-size:200}") int batchSize,
+                                    @Value("${feedback.async.status-max-size:100000}") long statusMaxSize,
+                                    @Value("${feedback.async.status-ttl-ms:3600000}") long statusTtlMs,
+                                    @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.feedbackService = feedbackService;
+        this.feedbackRepository = feedbackRepository;
+        this.primaryReads = primaryReads;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.statuses = Caffeine.newBuilder()
+            .maximumSize(statusMaxSize)
+            .expireAfterWrite(Duration.ofMillis(statusTtlMs))
+            .build();
+        this.workerCount = workerCount;
+        this.batchSize = batchSize;
+        this.virtualThreads = virtualThreads;
+
+        Gauge.builder("feedback.async.queue.depth", queue, BlockingQueue::size)
+            .description("Accepted asynchronous submissions waiting to be persisted")
+            .register(meterRegistry);
+    }
+
+    /* Returns the tracking id; throws ValidationException or SubmissionQueueFullException */
+    public UUID submit(FeedbackRequest request) {
+        // Called directly rather than through the transactional FeedbackService proxy, so no connection is borrowed
+        List<ErrorResponse.FieldError> errors = FeedbackRequestValidator.validate(request);
+        if (!errors.isEmpty()) {
+            throw new ValidationException(errors);
+        }
+
+        UUID trackingId = UuidV7Generator.next();
+        statuses.put(trackingId, SubmissionStatusResponse.pending(trackingId));
+        if (!running || !queue.offer(new PendingSubmission(trackingId, request))) {
+            statuses.invalidate(trackingId);
+            throw new SubmissionQueueFullException();
+        }
+        return trackingId;
+    }
+
+    public SubmissionStatusResponse getStatus(UUID trackingId) {
+        SubmissionStatusResponse status = statuses.getIfPresent(trackingId);
+        if (status == null) {
+            throw new SubmissionNotFoundException(trackingId);
+        }
+        return status;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        Thread.Builder builder = virtualThreads
+            ? Thread.ofVirtual().name("feedback-async-", 0)
+            : Thread.ofPlatform().daemon().name("feedback-async-", 0);
+        for (int i = 0; i < workerCount; i++) {
+            workers.add(builder.start(this::drain));
+        }
+    }
+
+    /* Workers finish whatever is already buffered before the datasource shuts down */
+    @Override
+    public void stop() {
+        running = false;
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        workers.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void drain() {
+        List<PendingSubmission> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingSubmission first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                persist(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    void persist(List<PendingSubmission> batch) throws InterruptedException {
+        // Assigned here rather than at submit, so the id's timestamp stays close to the commit that other
+        // instances' search tail and the rollup recount look for it by. Truncated to the column's microseconds, so
+        // the response cached on commit, the outbox event and the search document match the stored row
+        Instant submittedAt = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        List<FeedbackResponse> rows = new ArrayList<>(batch.size());
+        for (PendingSubmission submission : batch) {
+            FeedbackRequest request = submission.request();
+            rows.add(new FeedbackResponse(UuidV7Generator.next(), request.memberId(), request.providerName(),
+                request.rating(), request.comment(), submittedAt));
+        }
+
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            try {
+                feedbackService.createAssignedFeedback(rows);
+                for (int i = 0; i < batch.size(); i++) {
+                    UUID trackingId = batch.get(i).trackingId();
+                    statuses.put(trackingId, SubmissionStatusResponse.completed(trackingId, rows.get(i).id()));
+                }
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Async batch of {} failed on attempt {}/{}", batch.size(), attempt, MAX_ATTEMPTS, e);
+                Thread.sleep(RETRY_BACKOFF_MS * attempt);
+            }
+        }
+
+        // An attempt reported as failed may still have committed (e.g. the connection dropped during commit);
+        // telling those clients to resubmit would store their feedback twice
+        Set<UUID> stored = findStored(rows);
+        List<ErrorResponse.FieldError> errors = List.of(
+            new ErrorResponse.FieldError("submission", "Feedback could not be stored, please resubmit"));
+        for (int i = 0; i < batch.size(); i++) {
+            UUID trackingId = batch.get(i).trackingId();
+            UUID feedbackId = rows.get(i).id();
+            statuses.put(trackingId, stored.contains(feedbackId)
+                ? SubmissionStatusResponse.completed(trackingId, feedbackId)
+                : SubmissionStatusResponse.failed(trackingId, errors));
+        }
+    }
+
+    private Set<UUID> findStored(List<FeedbackResponse> rows) {
+        List<UUID> ids = rows.stream().map(FeedbackResponse::id).toList();
+        try {
+            // On the primary: the replica may not have replayed a commit that just happened
+            return primaryReads.read(() -> feedbackRepository.findResponsesByIdIn(ids)).stream()
+                .map(FeedbackResponse::id)
+                .collect(Collectors.toSet());
+        } catch (RuntimeException e) {
+            log.warn("Could not check which of {} async rows were stored", ids.size(), e);
+            return Set.of();
+        }
+    }
+
+    record PendingSubmission(UUID trackingId, FeedbackRequest request) {
+    }
+}
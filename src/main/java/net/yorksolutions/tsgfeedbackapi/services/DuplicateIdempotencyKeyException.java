@@ -0,0 +1,8 @@
+package net.yorksolutions.tsgfeedbackapi.services;
+
+/* Thrown inside the create transaction when another submission already claimed the key, to roll it back */
+class DuplicateIdempotencyKeyException extends RuntimeException {
+    DuplicateIdempotencyKeyException() {
+        super("Idempotency key already claimed", null, false, false);
+    }
+}
@@ -0,0 +1,7 @@
+package net.yorksolutions.tsgfeedbackapi.services;
+
+public class ExportCapacityException extends RuntimeException {
+    public ExportCapacityException() {
+        super("Too many exports are running, please retry");
+    }
+}
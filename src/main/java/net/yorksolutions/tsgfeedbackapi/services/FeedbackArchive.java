@@ -0,0 +1,305 @@
+package net.yorksolutions.tsgfeedbackapi.services;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import net.yorksolutions.tsgfeedbackapi.dtos.FeedbackResponse;
+import net.yorksolutions.tsgfeedbackapi.repositories.FeedbackRepository;
+import net.yorksolutions.tsgfeedbackapi.repositories.entities.UuidV7Generator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/* FeedbackArchive */
+/* Cold tier for months of feedback taken out of the database: one FeedbackArchiveSegment per month under */
+/* feedback.archive.dir, named after the partition it was written from (feedback_yyyy_mm.seg) */
+/* FeedbackPartitionMaintenance archives expired months oldest first and stops at the first failure, so every */
+/* archived month is older than every month left in feedback; reads only fall through here once the database runs out */
+/* A segment is written under a temporary name, forced to disk and hard-linked to its final name, and never changes */
+/* after; the link fails rather than replace a segment, so of two instances archiving a month the first one wins */
+/* Instances sharing the directory open segments written by another instance on the next rescan, or at once */
+/* when a v7 id's month has a segment file that is not open yet */
+/* Once a month is archived its segment is the only copy, so feedback.archive.dir has no default: it must name */
+/* durable storage shared by every instance (NFS, EFS, a replicated volume), and archiving refuses to run without it */
+/* Segments are read through memory mappings. Over shared storage this is only safe because a segment file is */
+/* never modified, truncated or replaced once linked: a mapped file that shrinks underneath a reader faults */
+/* the JVM (SIGBUS), and a client may keep serving cached pages of a file replaced under the same name. Never */
+/* rewrite or delete a segment while any instance has the directory open */
+@Slf4j
+@Service
+public class FeedbackArchive implements SmartLifecycle {
+    private static final Pattern SEGMENT_NAME = Pattern.compile("feedback_(\\d{4})_(\\d{2})\\.seg");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Path dir;
+    private final int rowsPerBlock;
+    private final int fetchSize;
+    // Newest month first, the order member pages read them in
+    private final ConcurrentNavigableMap<YearMonth, FeedbackArchiveSegment> segments =
+        new ConcurrentSkipListMap<>(Comparator.reverseOrder());
+    private final Timer readTimer;
+    private volatile boolean running;
+
+    public FeedbackArchive(JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry,
+                           @Value("${feedback.archive.dir:}") String dir,
+                           @Value("${feedback.archive.rows-per-block:128}") int rowsPerBlock,
+                           @Value("${feedback.archive.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.dir = dir.isBlank() ? null : Path.of(dir);
+        this.rowsPerBlock = rowsPerBlock;
+        this.fetchSize = fetchSize;
+
+        this.readTimer = Timer.builder("feedback.archive.read")
+            .description("Time to look up one id or one member page in the archive segments")
+            .register(meterRegistry);
+        Gauge.builder("feedback.archive.segments", segments, ConcurrentNavigableMap::size)
+            .description("Months of feedback held in archive segments instead of the database")
+            .register(meterRegistry);
+        Gauge.builder("feedback.archive.rows", segments,
+                open -> open.values().stream().mapToLong(FeedbackArchiveSegment::rowCount).sum())
+            .description("Feedback rows held in archive segments")
+            .register(meterRegistry);
+    }
+
+    /* An id's row; a v7 id's timestamp picks the one or two months it can be in, other ids try every month */
+    public Optional<FeedbackResponse> find(UUID id) {
+        if (segments.isEmpty() && id.version() != 7) {
+            return Optional.empty();
+        }
+        return readTimer.record(() -> {
+            for (FeedbackArchiveSegment segment : candidates(id)) {
+                Optional<FeedbackResponse> row = segment.find(id);
+                if (row.isPresent()) {
+                    return row;
+                }
+            }
+            return Optional.empty();
+        });
+    }
+
+    /* Up to limit of the member's archived rows older than (beforeSubmittedAt, beforeId), newest first; */
+    /* a null beforeSubmittedAt starts from the member's newest archived row */
+    public List<FeedbackResponse> findByMember(String memberId, Instant beforeSubmittedAt, UUID beforeId, int limit) {
+        if (segments.isEmpty()) {
+            return List.of();
+        }
+        return readTimer.record(() -> {
+            List<FeedbackResponse> rows = new ArrayList<>();
+            for (var entry : segments.entrySet()) {
+                // A month starting at or after the cursor holds nothing older than it
+                if (beforeSubmittedAt != null && !start(entry.getKey()).isBefore(beforeSubmittedAt)) {
+                    continue;
+                }
+                rows.addAll(entry.getValue().findByMember(memberId, beforeSubmittedAt, beforeId, limit - rows.size()));
+                if (rows.size() == limit) {
+                    break;
+                }
+            }
+            return rows;
+        });
+    }
+
+    /* True once the month's segment is open, opening one another instance wrote if needed */
+    public boolean contains(YearMonth month) {
+        return segment(month) != null;
+    }
+
+    /* False without feedback.archive.dir: nothing can be archived and every read finds nothing */
+    public boolean isConfigured() {
+        return dir != null;
+    }
+
+    /* Writes the month's segment from its table, attached to feedback or already detached; does nothing if it exists */
+    /* The table must no longer receive rows: FeedbackPartitionMaintenance only archives months past retention */
+    public void archive(YearMonth month) throws IOException {
+        if (dir == null) {
+            throw new IllegalStateException("feedback.archive.dir is not set");
+        }
+        if (contains(month)) {
+            return;
+        }
+        String table = FeedbackPartitionMaintenance.name(month);
+        Files.createDirectories(dir);
+        // Unique per writer, so two instances archiving the same month never write the same file
+        Path temp = Files.createTempFile(dir, table, ".seg.tmp");
+        long startedAt = System.currentTimeMillis();
+        try {
+            long rows;
+            try (FeedbackArchiveSegment.Writer writer = new FeedbackArchiveSegment.Writer(temp, rowsPerBlock)) {
+                transactionTemplate.executeWithoutResult(status -> {
+                    stream("SELECT id, member_id, provider_name, rating, comment, submitted_at FROM " + table
+                        + " ORDER BY id", writer::addById);
+                    // COLLATE "C" sorts by bytes, the order the segment's member index is searched in
+                    stream("SELECT id, member_id, provider_name, rating, comment, submitted_at FROM " + table
+                        + " ORDER BY member_id COLLATE \"C\", submitted_at DESC, id DESC", writer::addByMember);
+                });
+                writer.finish();
+                rows = writer.rows();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            Path target = dir.resolve(table + ".seg");
+            try {
+                Files.createLink(target, temp);
+                log.info("Archived {} rows of {} to {} in {} ms", rows, table, target, System.currentTimeMillis() - startedAt);
+            } catch (FileAlreadyExistsException e) {
+                // Another instance published the month first; other instances may already have it mapped
+                log.info("{} was archived by another instance, keeping its segment", table);
+            }
+            if (segment(month) == null) {
+                throw new IOException("Could not open feedback archive segment " + target);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /* Opens segments written by other instances sharing the directory */
+    @Scheduled(fixedDelayString = "${feedback.archive.rescan-interval-ms:60000}")
+    public void rescan() {
+        if (dir == null || !Files.isDirectory(dir)) {
+            return;
+        }
+        Set<YearMonth> found = new TreeSet<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "feedback_*.seg")) {
+            for (Path file : files) {
+                Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    found.add(YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))));
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not list feedback archive segments in {}", dir, e);
+            return;
+        }
+        found.forEach(this::segment);
+    }
+
+    @Override
+    public void start() {
+        rescan();
+        running = true;
+        if (dir == null) {
+            return;
+        }
+        log.info("Feedback archive opened {} segments from {}", segments.size(), dir);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private List<FeedbackArchiveSegment> candidates(UUID id) {
+        if (id.version() != 7) {
+            return List.copyOf(segments.values());
+        }
+        Instant created = UuidV7Generator.timestampOf(id);
+        YearMonth first = month(created.minus(FeedbackRepository.ID_TIME_MARGIN));
+        YearMonth last = month(created.plus(FeedbackRepository.ID_TIME_MARGIN));
+        List<FeedbackArchiveSegment> candidates = new ArrayList<>(2);
+        for (YearMonth month = first; !month.isAfter(last); month = month.plusMonths(1)) {
+            FeedbackArchiveSegment segment = segment(month);
+            if (segment != null) {
+                candidates.add(segment);
+            }
+        }
+        return candidates;
+    }
+
+    private FeedbackArchiveSegment segment(YearMonth month) {
+        FeedbackArchiveSegment open = segments.get(month);
+        if (open != null || dir == null) {
+            return open;
+        }
+        Path file = dir.resolve(FeedbackPartitionMaintenance.name(month) + ".seg");
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            return segments.computeIfAbsent(month, m -> {
+                try {
+                    return FeedbackArchiveSegment.open(file);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            log.warn("Could not open feedback archive segment {}", file, e.getCause());
+            return null;
+        }
+    }
+
+    private void stream(String sql, RowSink sink) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            // Postgres only streams with a fetch size inside a transaction; otherwise the month is read into memory
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, (RowCallbackHandler) rs -> {
+            try {
+                sink.add(new FeedbackResponse(
+                    rs.getObject("id", UUID.class),
+                    rs.getString("member_id"),
+                    rs.getString("provider_name"),
+                    rs.getInt("rating"),
+                    rs.getString("comment"),
+                    rs.getObject("submitted_at", OffsetDateTime.class).toInstant()));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static YearMonth month(Instant instant) {
+        return YearMonth.from(instant.atOffset(ZoneOffset.UTC));
+    }
+
+    private static Instant start(YearMonth month) {
+        return month.atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+
+    @FunctionalInterface
+    private interface RowSink {
+        void add(FeedbackResponse row) throws IOException;
+    }
+}
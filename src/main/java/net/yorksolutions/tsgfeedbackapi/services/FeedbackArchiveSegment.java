@@ -0,0 +1,473 @@
+package net.yorksolutions.tsgfeedbackapi.services;
+
+import net.yorksolutions.tsgfeedbackapi.dtos.FeedbackResponse;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/* FeedbackArchiveSegment */
+/* One immutable archive file holding the feedback of one month, read through a memory mapping */
+/* The rows are stored twice, as deflate-compressed blocks of rows-per-block rows: */
+/*  - by id (unsigned, the order Postgres sorts uuids in), found through a sparse index of each block's first id */
+/*  - by member, newest first (member_id in byte order, submitted_at desc, id desc), with each block's first member */
+/* A bloom filter over ids and one over members answer most misses without decompressing a block */
+/* Layout: header, id blocks, member blocks, id index, member index, id bloom, member bloom, fixed-size footer */
+final class FeedbackArchiveSegment {
+    static final long MAGIC = 0x4642_4152_4348_0001L; // "FBARCH" + format version 1
+    private static final int HEADER_SIZE = 8;
+    private static final int FOOTER_SIZE = 64;
+    private static final int ID_INDEX_ENTRY_SIZE = 28;
+    private static final int BLOOM_BITS_PER_KEY = 10;
+    private static final int BLOOM_HASHES = 7;
+    private static final Instant NEWEST = Instant.MAX;
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final long rowCount;
+    private final int idIndexOffset;
+    private final int idBlocks;
+    private final int[] memberIndexEntries;
+    private final Bloom idBloom;
+    private final Bloom memberBloom;
+
+    private FeedbackArchiveSegment(Path path, MappedByteBuffer buffer) throws IOException {
+        this.path = path;
+        this.buffer = buffer;
+        int footer = buffer.capacity() - FOOTER_SIZE;
+        if (footer < HEADER_SIZE || buffer.getLong(0) != MAGIC || buffer.getLong(footer + FOOTER_SIZE - 8) != MAGIC) {
+            throw new IOException("Not a complete feedback archive segment: " + path);
+        }
+        this.idIndexOffset = (int) buffer.getLong(footer);
+        this.idBlocks = buffer.getInt(footer + 8);
+        int memberIndexOffset = (int) buffer.getLong(footer + 12);
+        int memberBlocks = buffer.getInt(footer + 20);
+        this.idBloom = new Bloom(buffer, (int) buffer.getLong(footer + 24), buffer.getInt(footer + 32));
+        this.memberBloom = new Bloom(buffer, (int) buffer.getLong(footer + 36), buffer.getInt(footer + 44));
+        this.rowCount = buffer.getLong(footer + 48);
+
+        // Member index entries vary in length, so only where each one starts is kept on the heap
+        this.memberIndexEntries = new int[memberBlocks];
+        int position = memberIndexOffset;
+        for (int i = 0; i < memberBlocks; i++) {
+            memberIndexEntries[i] = position;
+            position += 12 + 2 + Short.toUnsignedInt(buffer.getShort(position + 12));
+        }
+    }
+
+    static FeedbackArchiveSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Feedback archive segment larger than 2 GiB: " + path);
+            }
+            // The mapping stays valid after the channel is closed and is released when the buffer is collected
+            return new FeedbackArchiveSegment(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    Path path() {
+        return path;
+    }
+
+    long rowCount() {
+        return rowCount;
+    }
+
+
+    Optional<FeedbackResponse> find(UUID id) {
+        if (idBlocks == 0 || !idBloom.mightContain(hash(id))) {
+            return Optional.empty();
+        }
+        // Last block whose first id is <= id
+        int low = 0;
+        int high = idBlocks - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            int entry = idIndexOffset + mid * ID_INDEX_ENTRY_SIZE;
+            if (compare(buffer.getLong(entry), buffer.getLong(entry + 8), id) <= 0) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        int entry = idIndexOffset + low * ID_INDEX_ENTRY_SIZE;
+        for (FeedbackResponse row : block((int) buffer.getLong(entry + 16), buffer.getInt(entry + 24))) {
+            if (row.id().equals(id)) {
+                return Optional.of(row);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /* Up to limit of the member's rows older than (beforeSubmittedAt, beforeId), newest first; null means from the newest */
+    List<FeedbackResponse> findByMember(String memberId, Instant beforeSubmittedAt, UUID beforeId, int limit) {
+        byte[] key = memberId.getBytes(StandardCharsets.UTF_8);
+        List<FeedbackResponse> rows = new ArrayList<>();
+        if (memberIndexEntries.length == 0 || !memberBloom.mightContain(hash(key))) {
+            return rows;
+        }
+        // The member's rows start in the last block whose first member sorts before it, or in block 0
+        int low = 0;
+        int high = memberIndexEntries.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (Arrays.compareUnsigned(memberKey(mid), key) < 0) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        Instant before = beforeSubmittedAt == null ? NEWEST : beforeSubmittedAt;
+        for (int i = low; i < memberIndexEntries.length && Arrays.compareUnsigned(memberKey(i), key) <= 0; i++) {
+            int entry = memberIndexEntries[i];
+            for (FeedbackResponse row : block((int) buffer.getLong(entry), buffer.getInt(entry + 8))) {
+                if (!row.memberId().equals(memberId) || !isBefore(row, before, beforeId)) {
+                    continue;
+                }
+                rows.add(row);
+                if (rows.size() == limit) {
+                    return rows;
+                }
+            }
+        }
+        return rows;
+    }
+
+    private byte[] memberKey(int block) {
+        int entry = memberIndexEntries[block];
+        byte[] key = new byte[Short.toUnsignedInt(buffer.getShort(entry + 12))];
+        buffer.get(entry + 14, key);
+        return key;
+    }
+
+    /* Inflates straight out of the mapping; a block starts with its uncompressed length */
+    private List<FeedbackResponse> block(int offset, int length) {
+        byte[] raw = new byte[buffer.getInt(offset)];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(buffer.slice(offset + 4, length - 4));
+            int read = 0;
+            while (read < raw.length && !inflater.finished()) {
+                int inflated = inflater.inflate(raw, read, raw.length - read);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Block ends early");
+                }
+                read += inflated;
+            }
+        } catch (DataFormatException e) {
+            throw new UncheckedIOException(new IOException("Corrupt block in " + path, e));
+        } finally {
+            inflater.end();
+        }
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(raw))) {
+            int count = in.readInt();
+            List<FeedbackResponse> rows = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                rows.add(readRow(in));
+            }
+            return rows;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean isBefore(FeedbackResponse row, Instant submittedAt, UUID id) {
+        int byTime = row.submittedAt().compareTo(submittedAt);
+        return byTime < 0 || (byTime == 0 && id != null && compare(row.id(), id) < 0);
+    }
+
+    /* Postgres orders uuids by their bytes, i.e. unsigned; UUID.compareTo is signed */
+    static int compare(UUID a, UUID b) {
+        return compare(a.getMostSignificantBits(), a.getLeastSignificantBits(), b);
+    }
+
+    private static int compare(long msb, long lsb, UUID b) {
+        int byMsb = Long.compareUnsigned(msb, b.getMostSignificantBits());
+        return byMsb != 0 ? byMsb : Long.compareUnsigned(lsb, b.getLeastSignificantBits());
+    }
+
+    private static void writeRow(DataOutputStream out, FeedbackResponse row) throws IOException {
+        out.writeLong(row.id().getMostSignificantBits());
+        out.writeLong(row.id().getLeastSignificantBits());
+        out.writeUTF(row.memberId());
+        out.writeUTF(row.providerName());
+        out.writeByte(row.rating());
+        out.writeBoolean(row.comment() != null);
+        if (row.comment() != null) {
+            out.writeUTF(row.comment());
+        }
+        out.writeLong(row.submittedAt().getEpochSecond());
+        out.writeInt(row.submittedAt().getNano());
+    }
+
+    private static FeedbackResponse readRow(DataInputStream in) throws IOException {
+        UUID id = new UUID(in.readLong(), in.readLong());
+        String memberId = in.readUTF();
+        String providerName = in.readUTF();
+        int rating = in.readByte();
+        String comment = in.readBoolean() ? in.readUTF() : null;
+        Instant submittedAt = Instant.ofEpochSecond(in.readLong(), in.readInt());
+        return new FeedbackResponse(id, memberId, providerName, rating, comment, submittedAt);
+    }
+
+    private static long hash(UUID id) {
+        return mix(id.getMostSignificantBits() ^ mix(id.getLeastSignificantBits()));
+    }
+
+    private static long hash(byte[] key) {
+        long h = 0xcbf29ce484222325L; // FNV-1a
+        for (byte b : key) {
+            h = (h ^ (b & 0xff)) * 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    private static long mix(long h) {
+        h = (h ^ (h >>> 33)) * 0xff51afd7ed558ccdL;
+        h = (h ^ (h >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return h ^ (h >>> 33);
+    }
+
+    /* Bit set of BLOOM_HASHES positions per key (double hashing), read in place from the mapping */
+    private record Bloom(ByteBuffer buffer, int offset, int words) {
+        boolean mightContain(long hash) {
+            long bits = (long) words * 64;
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < BLOOM_HASHES; i++) {
+                long bit = Math.floorMod(h1 + (long) i * h2, bits);
+                if ((buffer.getLong(offset + (int) (bit >>> 6) * 8) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        static long[] build(long[] hashes, int count) {
+            long[] set = new long[Math.max(1, (int) ((long) count * BLOOM_BITS_PER_KEY / 64) + 1)];
+            long bits = (long) set.length * 64;
+            for (int k = 0; k < count; k++) {
+                int h1 = (int) hashes[k];
+                int h2 = (int) (hashes[k] >>> 32);
+                for (int i = 0; i < BLOOM_HASHES; i++) {
+                    long bit = Math.floorMod(h1 + (long) i * h2, bits);
+                    set[(int) (bit >>> 6)] |= 1L << bit;
+                }
+            }
+            return set;
+        }
+    }
+
+    /* Writes a segment in two passes: every row by ascending id, then every row again in member order */
+    static final class Writer implements Closeable {
+        private final Path path;
+        private final FileChannel channel;
+        private final DataOutputStream out;
+        private final int rowsPerBlock;
+        private final Deflater deflater = new Deflater();
+        private final ByteArrayOutputStream blockBytes = new ByteArrayOutputStream();
+        private final DataOutputStream block = new DataOutputStream(blockBytes);
+        private final List<FeedbackResponse> pending = new ArrayList<>();
+        private final ByteArrayOutputStream idIndex = new ByteArrayOutputStream();
+        private final ByteArrayOutputStream memberIndex = new ByteArrayOutputStream();
+        private long position;
+        private int idBlocks;
+        private int memberBlocks;
+        private long rows;
+        private UUID lastId;
+        private byte[] lastMember;
+        private long[] idHashes = new long[1024];
+        private int idCount;
+        private long[] memberHashes = new long[1024];
+        private int memberCount;
+        private boolean memberPass;
+
+        Writer(Path path, int rowsPerBlock) throws IOException {
+            this.path = path;
+            this.rowsPerBlock = rowsPerBlock;
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+            this.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            out.writeLong(MAGIC);
+            position = HEADER_SIZE;
+        }
+
+        void addById(FeedbackResponse row) throws IOException {
+            if (memberPass) {
+                throw new IllegalStateException("Rows by id must all be added before rows by member");
+            }
+            if (lastId != null && compare(lastId, row.id()) >= 0) {
+                throw new IllegalStateException("Rows by id must be added in ascending unsigned id order: " + row.id());
+            }
+            lastId = row.id();
+            idHashes = append(idHashes, idCount++, hash(row.id()));
+            rows++;
+            pending.add(row);
+            if (pending.size() == rowsPerBlock) {
+                flushIdBlock();
+            }
+        }
+
+        void addByMember(FeedbackResponse row) throws IOException {
+            if (!memberPass) {
+                flushIdBlock();
+                memberPass = true;
+            }
+            byte[] key = row.memberId().getBytes(StandardCharsets.UTF_8);
+            int order = lastMember == null ? -1 : Arrays.compareUnsigned(lastMember, key);
+            if (order > 0) {
+                throw new IllegalStateException("Rows by member must be added in member byte order: " + row.memberId());
+            }
+            if (order != 0) {
+                memberHashes = append(memberHashes, memberCount++, hash(key));
+            }
+            lastMember = key;
+            pending.add(row);
+            if (pending.size() == rowsPerBlock) {
+                flushMemberBlock();
+            }
+        }
+
+        long rows() {
+            return rows;
+        }
+
+        /* Writes the indexes, bloom filters and footer, and forces the file to disk */
+        void finish() throws IOException {
+            if (!memberPass) {
+                flushIdBlock();
+            }
+            flushMemberBlock();
+
+            long idIndexOffset = position;
+            write(idIndex.toByteArray());
+            long memberIndexOffset = position;
+            write(memberIndex.toByteArray());
+            long[] ids = Bloom.build(idHashes, idCount);
+            long idBloomOffset = position;
+            writeWords(ids);
+            long[] members = Bloom.build(memberHashes, memberCount);
+            long memberBloomOffset = position;
+            writeWords(members);
+
+            out.writeLong(idIndexOffset);
+            out.writeInt(idBlocks);
+            out.writeLong(memberIndexOffset);
+            out.writeInt(memberBlocks);
+            out.writeLong(idBloomOffset);
+            out.writeInt(ids.length);
+            out.writeLong(memberBloomOffset);
+            out.writeInt(members.length);
+            out.writeLong(rows);
+            out.writeLong(MAGIC);
+            position += FOOTER_SIZE;
+            if (position > Integer.MAX_VALUE) {
+                throw new IOException("Feedback archive segment larger than 2 GiB: " + path);
+            }
+            out.flush();
+            channel.force(true);
+        }
+
+        @Override
+        public void close() throws IOException {
+            deflater.end();
+            out.close();
+        }
+
+        private void flushIdBlock() throws IOException {
+            if (pending.isEmpty()) {
+                return;
+            }
+            UUID first = pending.get(0).id();
+            long offset = position;
+            int length = writeBlock();
+            DataOutputStream index = new DataOutputStream(idIndex);
+            index.writeLong(first.getMostSignificantBits());
+            index.writeLong(first.getLeastSignificantBits());
+            index.writeLong(offset);
+            index.writeInt(length);
+            idBlocks++;
+        }
+
+        private void flushMemberBlock() throws IOException {
+            if (pending.isEmpty()) {
+                return;
+            }
+            byte[] first = pending.get(0).memberId().getBytes(StandardCharsets.UTF_8);
+            long offset = position;
+            int length = writeBlock();
+            DataOutputStream index = new DataOutputStream(memberIndex);
+            index.writeLong(offset);
+            index.writeInt(length);
+            index.writeShort(first.length);
+            index.write(first);
+            memberBlocks++;
+        }
+
+        private int writeBlock() throws IOException {
+            blockBytes.reset();
+            block.writeInt(pending.size());
+            for (FeedbackResponse row : pending) {
+                writeRow(block, row);
+            }
+            pending.clear();
+            byte[] raw = blockBytes.toByteArray();
+
+            deflater.reset();
+            deflater.setInput(raw);
+            deflater.finish();
+            byte[] compressed = new byte[Math.max(64, raw.length + raw.length / 100 + 64)];
+            int length = 0;
+            while (!deflater.finished()) {
+                if (length == compressed.length) {
+                    compressed = Arrays.copyOf(compressed, compressed.length * 2);
+                }
+                length += deflater.deflate(compressed, length, compressed.length - length);
+            }
+            out.writeInt(raw.length);
+            position += 4;
+            write(Arrays.copyOf(compressed, length));
+            return 4 + length;
+        }
+
+        private void write(byte[] bytes) throws IOException {
+            out.write(bytes);
+            position += bytes.length;
+        }
+
+        private void writeWords(long[] words) throws IOException {
+            for (long word : words) {
+                out.writeLong(word);
+            }
+            position += (long) words.length * 8;
+        }
+
+        private static long[] append(long[] array, int index, long value) {
+            long[] target = index < array.length ? array : Arrays.copyOf(array, array.length * 2);
+            target[index] = value;
+            return target;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package net.yorksolutions.tsgfeedbackapi.services;
+
+import net.yorksolutions.tsgfeedbackapi.dtos.ErrorResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+/* Keyset position of the last row on a page: (submittedAt, id) */
+/* Encoded as URL-safe base64 so clients treat it as an opaque token */
+record FeedbackCursor(Instant submittedAt, UUID id) {
+
+    private static final char SEPARATOR = '|';
+
+    String encode() {
+        String raw = submittedAt.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static FeedbackCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            return new FeedbackCursor(
+                Instant.parse(raw.substring(0, separator)),
+                UUID.fromString(raw.substring(separator + 1))
+            );
+        } catch (RuntimeException e) {
+            throw new ValidationException(List.of(new ErrorResponse.FieldError("cursor", "Cursor is invalid")));
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package net.yorksolutions.tsgfeedbackapi.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import net.yorksolutions.tsgfeedbackapi.dtos.ErrorResponse;
+import net.yorksolutions.tsgfeedbackapi.dtos.FeedbackResponse;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/* FeedbackExportService */
+/* Streams feedback matching the export filters as NDJSON, one FeedbackResponse per line */
+/* Rows are read through a server-side cursor (fetch size) inside a read-only transaction and selected as */
+/* DTO projections, so nothing accumulates in the persistence context and heap use does not grow with the export */
+/* Each export holds a pooled connection for its whole duration, so at most max-concurrent run at once */
+/* Rows are not flushed one by one: the generator and the servlet buffer fill up and are written out in blocks */
+/* Only the database is exported: months moved to FeedbackArchive segments are not included */
+@Service
+public class FeedbackExportService {
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter rowWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final Semaphore permits;
+    private final int fetchSize;
+    private final Duration timeout;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public FeedbackExportService(ObjectMapper objectMapper,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${feedback.export.max-concurrent:2}") int maxConcurrent,
+                                 @Value("${feedback.export.fetch-size:1000}") int fetchSize,
+                                 @Value("${feedback.export.timeout-ms:3600000}") long timeoutMs) {
+        this.objectMapper = objectMapper;
+        // ObjectMapper flushes the generator after every value by default, one socket write per row
+        this.rowWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.permits = new Semaphore(maxConcurrent);
+        this.fetchSize = fetchSize;
+        this.timeout = Duration.ofMillis(timeoutMs);
+    }
+
+    /* Checks the filters and reserves an export slot; the returned Export must be written or closed */
+    public Export prepare(String providerName, String memberId, Instant from, Instant to) {
+        if (providerName == null && memberId == null && from == null && to == null) {
+            throw new ValidationException(List.of(new ErrorResponse.FieldError(
+                "filter", "At least one of providerName, memberId, from or to is required")));
+        }
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new ValidationException(List.of(new ErrorResponse.FieldError("from", "from must be before to")));
+        }
+        if (!permits.tryAcquire()) {
+            throw new ExportCapacityException();
+        }
+        return new Export(providerName, memberId, from, to);
+    }
+
+    public final class Export implements AutoCloseable {
+        private final String providerName;
+        private final String memberId;
+        private final Instant from;
+        private final Instant to;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Export(String providerName, String memberId, Instant from, Instant to) {
+            this.providerName = providerName;
+            this.memberId = memberId;
+            this.from = from;
+            this.to = to;
+        }
+
+        /* Writes every matching row, oldest first, and releases the export slot */
+        public void writeTo(OutputStream out) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> stream(out));
+            } finally {
+                close();
+            }
+        }
+
+        /* How long the request may stream before it is timed out (feedback.export.timeout-ms) */
+        public Duration timeout() {
+            return timeout;
+        }
+
+        /* Releases the export slot; for requests that end before or without writeTo, safe to call more than once */
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+
+        private void stream(OutputStream out) {
+            try (Stream<FeedbackResponse> rows = query().getResultStream();
+                 JsonGenerator generator = objectMapper.createGenerator(out)) {
+                // One JSON document per line; the response stream stays open for the servlet container to close
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(null);
+                rows.forEach(row -> write(generator, row));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private TypedQuery<FeedbackResponse> query() {
+            // Only the filters that were supplied become predicates, so Postgres plans against the matching index
+            StringBuilder jpql = new StringBuilder("""
+                select new net.yorksolutions.tsgfeedbackapi.dtos.FeedbackResponse(
+                    f.id, f.memberId, f.providerName, f.rating, f.comment, f.submittedAt)
+                from FeedbackEntity f where 1 = 1""");
+            Map<String, Object> parameters = new LinkedHashMap<>();
+            if (providerName != null) {
+                jpql.append(" and f.providerName = :providerName");
+                parameters.put("providerName", providerName);
+            }
+            if (memberId != null) {
+                jpql.append(" and f.memberId = :memberId");
+                parameters.put("memberId", memberId);
+            }
+            if (from != null) {
+                jpql.append(" and f.submittedAt >= :from");
+                parameters.put("from", from);
+            }
+            if (to != null) {
+                jpql.append(" and f.submittedAt < :to");
+                parameters.put("to", to);
+            }
+            // Read in this order from idx_feedback_submitted, or the member/provider index, so no sort delays the first row
+            jpql.append(" order by f.submittedAt, f.id");
+
+            TypedQuery<FeedbackResponse> query = entityManager.createQuery(jpql.toString(), FeedbackResponse.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true);
+            parameters.forEach(query::setParameter);
+            return query;
+        }
+
+        private void write(JsonGenerator generator, FeedbackResponse row) {
+            try {
+                rowWriter.writeValue(generator, row);
+                generator.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
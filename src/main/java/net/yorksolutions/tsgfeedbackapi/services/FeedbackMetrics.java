@@ -0,0 +1,71 @@
+package net.yorksolutions.tsgfeedbackapi.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/* FeedbackMetrics */
+/* Per-phase latency timers for createFeedback, published as feedback.create.phase{phase=...} */
+/* Timers are registered once up front so recording is a nanoTime read and a lock-free histogram update */
+@Component
+public class FeedbackMetrics {
+
+    public enum Phase {
+        VALIDATE("validate"),
+        PERSIST("persist"),
+        OUTBOX("outbox"),
+        COMMIT("commit");
+
+        private final String tag;
+
+        Phase(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private final Map<Phase, Timer> phaseTimers = new EnumMap<>(Phase.class);
+
+    public FeedbackMetrics(MeterRegistry meterRegistry) {
+        for (Phase phase : Phase.values()) {
+            phaseTimers.put(phase, Timer.builder("feedback.create.phase")
+                .description("Time spent in each phase of a single feedback submission")
+                .tag("phase", phase.tag)
+                .register(meterRegistry));
+        }
+    }
+
+    /* Times the surrounding transaction's commit (COMMIT round trip and WAL fsync) as COMMIT, from beforeCommit to */
+    /* afterCommit; nothing is recorded without a transaction or when it rolls back */
+    /* Register before other afterCommit work, which runs in registration order and would otherwise be counted */
+    public void recordCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private long startNanos;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                startNanos = System.nanoTime();
+            }
+
+            @Override
+            public void afterCommit() {
+                record(Phase.COMMIT, startNanos);
+            }
+        });
+    }
+
+    /* Records the time since startNanos against the phase and returns now, to use as the next phase's start */
+    public long record(Phase phase, long startNanos) {
+        long now = System.nanoTime();
+        phaseTimers.get(phase).record(now - startNanos, TimeUnit.NANOSECONDS);
+        return now;
+    }
+}
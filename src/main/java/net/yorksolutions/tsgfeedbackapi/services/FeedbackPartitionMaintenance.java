@@ -0,0 +1,189 @@
+package net.yorksolutions.tsgfeedbackapi.services;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/* FeedbackPartitionMaintenance */
+/* feedback is range-partitioned by submitted_at month (UTC), one table per month named feedback_yyyy_mm */
+/* Keeps premake-months of empty partitions ahead of the current month, so an insert never finds no partition */
+/* Partitions older than retention-months are detached CONCURRENTLY, which blocks neither reads nor writes on */
+/* feedback, and then dropped; with action detach they are left as plain tables to be archived and dropped later */
+/* With action archive each expired month is first written to a FeedbackArchive segment, oldest month first; */
+/* a month that cannot be archived stays in the database, and so do all later ones until the next run */
+/* Action archive needs feedback.archive.dir; without it the application does not start */
+/* Every step is idempotent, so instances may run it concurrently and a run interrupted midway is finished by the next */
+@Slf4j
+@Service
+public class FeedbackPartitionMaintenance {
+    private static final Pattern PARTITION_NAME = Pattern.compile("feedback_(\\d{4})_(\\d{2})");
+    // CREATE ... PARTITION OF briefly locks feedback exclusively; give up rather than queue every query behind it
+    private static final String LOCK_TIMEOUT = "5s";
+
+    enum RetentionAction { DETACH, DROP, ARCHIVE }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final FeedbackArchive archive;
+    private final int premakeMonths;
+    private final int retentionMonths;
+    private final RetentionAction retentionAction;
+    private final Clock clock;
+    private final AtomicLong monthsAhead = new AtomicLong();
+
+    @Autowired
+    public FeedbackPartitionMaintenance(JdbcTemplate jdbcTemplate,
+                                        FeedbackArchive archive,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${feedback.partitions.premake-months:3}") int premakeMonths,
+                                        @Value("${feedback.partitions.retention.months:0}") int retentionMonths,
+                                        @Value("${feedback.partitions.retention.action:drop}") String retentionAction) {
+        this(jdbcTemplate, archive, meterRegistry, premakeMonths, retentionMonths,
+            RetentionAction.valueOf(retentionAction.toUpperCase(Locale.ROOT)), Clock.systemUTC());
+    }
+
+    FeedbackPartitionMaintenance(JdbcTemplate jdbcTemplate, FeedbackArchive archive, MeterRegistry meterRegistry,
+                                 int premakeMonths, int retentionMonths, RetentionAction retentionAction, Clock clock) {
+        if (retentionAction == RetentionAction.ARCHIVE && !archive.isConfigured()) {
+            // A default local directory would leave one instance's disk as the only copy of every archived month
+            throw new IllegalStateException(
+                "feedback.partitions.retention.action=archive requires feedback.archive.dir on durable shared storage");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.archive = archive;
+        this.premakeMonths = premakeMonths;
+        this.retentionMonths = retentionMonths;
+        this.retentionAction = retentionAction;
+        this.clock = clock;
+
+        Gauge.builder("feedback.partitions.months-ahead", monthsAhead, AtomicLong::get)
+            .description("Monthly feedback partitions that exist after the current month; inserts fail once none are left")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${feedback.partitions.maintenance-interval-ms:3600000}")
+    public void maintain() {
+        try {
+            YearMonth current = YearMonth.now(clock.withZone(ZoneOffset.UTC));
+            Map<YearMonth, Partition> partitions = partitions();
+            createAhead(current, partitions);
+            if (retentionMonths > 0) {
+                expire(current.minusMonths(retentionMonths), partitions);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Feedback partition maintenance did not finish, will retry", e);
+        }
+    }
+
+    private void createAhead(YearMonth current, Map<YearMonth, Partition> partitions) {
+        for (int i = 0; i <= premakeMonths; i++) {
+            YearMonth month = current.plusMonths(i);
+            if (!partitions.containsKey(month)) {
+                execute(true, "CREATE TABLE IF NOT EXISTS " + name(month) + " PARTITION OF feedback FOR VALUES FROM ('"
+                    + month.atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant() + "') TO ('"
+                    + month.plusMonths(1).atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant() + "')");
+                log.info("Created feedback partition {}", name(month));
+            }
+            monthsAhead.set(i);
+        }
+    }
+
+    /* Partitions wholly before the cutoff month; rows are therefore kept at least retention-months */
+    private void expire(YearMonth cutoff, Map<YearMonth, Partition> partitions) {
+        for (Partition partition : partitions.values()) {
+            YearMonth month = partition.month();
+            if (!month.isBefore(cutoff)) {
+                return;
+            }
+            if (retentionAction == RetentionAction.ARCHIVE && !archived(month)) {
+                // Later months wait, so every archived month stays older than every month left in feedback
+                return;
+            }
+            if (partition.attached()) {
+                // FINALIZE completes a concurrent detach that was interrupted (it cannot simply be repeated)
+                execute(false, "ALTER TABLE feedback DETACH PARTITION " + name(month)
+                    + (partition.detachPending() ? " FINALIZE" : " CONCURRENTLY"));
+                log.info("Detached expired feedback partition {}", name(month));
+            }
+            if (retentionAction != RetentionAction.DETACH) {
+                execute(false, "DROP TABLE IF EXISTS " + name(month));
+                log.info("Dropped expired feedback partition {}", name(month));
+            }
+        }
+    }
+
+    /* The month's rows are in an archive segment, written now from the table unless it already was */
+    private boolean archived(YearMonth month) {
+        try {
+            archive.archive(month);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not archive feedback partition {}, it stays in the database", name(month), e);
+            return false;
+        }
+    }
+
+    /* Monthly tables, attached to feedback or detached from it earlier; DETACH CONCURRENTLY needs autocommit */
+    private Map<YearMonth, Partition> partitions() {
+        List<Partition> found = jdbcTemplate.query("""
+                SELECT c.relname, c.relispartition, coalesce(i.inhdetachpending, false) AS detach_pending
+                FROM pg_class c
+                LEFT JOIN pg_inherits i ON i.inhrelid = c.oid AND i.inhparent = 'feedback'::regclass
+                WHERE c.relkind = 'r'
+                  AND c.relnamespace = (SELECT relnamespace FROM pg_class WHERE oid = 'feedback'::regclass)
+                  AND c.relname ~ '^feedback_[0-9]{4}_[0-9]{2}$'
+                """, (rs, rowNum) -> {
+                Matcher matcher = PARTITION_NAME.matcher(rs.getString("relname"));
+                matcher.matches();
+                return new Partition(YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))),
+                    rs.getBoolean("relispartition"), rs.getBoolean("detach_pending"));
+            });
+        Map<YearMonth, Partition> byMonth = new TreeMap<>();
+        found.forEach(partition -> byMonth.put(partition.month(), partition));
+        return byMonth;
+    }
+
+    private void execute(boolean withLockTimeout, String ddl) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                if (!withLockTimeout) {
+                    statement.execute(ddl);
+                    return null;
+                }
+                statement.execute("SET lock_timeout = '" + LOCK_TIMEOUT + "'");
+                try {
+                    statement.execute(ddl);
+                } finally {
+                    statement.execute("RESET lock_timeout");
+                }
+            }
+            return null;
+        });
+    }
+
+    static String name(YearMonth month) {
+        return String.format("feedback_%04d_%02d", month.getYear(), month.getMonthValue());
+    }
+
+    private record Partition(YearMonth month, boolean attached, boolean detachPending) {
+    }
+}
@@ -0,0 +1,61 @@
+package net.yorksolutions.tsgfeedbackapi.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import net.yorksolutions.tsgfeedbackapi.dtos.FeedbackResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/* FeedbackReadCache */
+/* Size-bounded Caffeine caches (W-TinyLFU eviction) in front of getFeedbackById */
+/* Feedback is immutable once created, so entries never need invalidating, only bounding */
+/* Not-found ids are cached separately with a short TTL so 404 floods stay off the database */
+@Component
+public class FeedbackReadCache {
+    private final Cache<UUID, FeedbackResponse> found;
+    private final Cache<UUID, Boolean> missing;
+
+    public FeedbackReadCache(MeterRegistry meterRegistry,
+                             @Value("${feedback.cache.max-size:100000}") long maxSize,
+                             @Value("${feedback.cache.ttl-ms:3600000}") long ttlMs,
+                             @Value("${feedback.cache.negative-max-size:10000}") long negativeMaxSize,
+                             @Value("${feedback.cache.negative-ttl-ms:30000}") long negativeTtlMs) {
+        this.found = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofMillis(ttlMs))
+            .recordStats()
+            .build();
+        this.missing = Caffeine.newBuilder()
+            .maximumSize(negativeMaxSize)
+            .expireAfterWrite(Duration.ofMillis(negativeTtlMs))
+            .recordStats()
+            .build();
+
+        // Publishes cache.gets{result=hit|miss}, cache.evictions and cache.size per cache
+        CaffeineCacheMetrics.monitor(meterRegistry, found, "feedback.byId");
+        CaffeineCacheMetrics.monitor(meterRegistry, missing, "feedback.byId.notFound");
+    }
+
+    /* Cached response, or null on a miss */
+    public FeedbackResponse get(UUID id) {
+        return found.getIfPresent(id);
+    }
+
+    public boolean isKnownMissing(UUID id) {
+        return missing.getIfPresent(id) != null;
+    }
+
+    public void put(FeedbackResponse response) {
+        found.put(response.id(), response);
+        missing.invalidate(response.id());
+    }
+
+    public void putMissing(UUID id) {
+        missing.put(id, Boolean.TRUE);
+    }
+}
@@ -0,0 +1,79 @@
+package net.yorksolutions.tsgfeedbackapi.services;
+
+import net.yorksolutions.tsgfeedbackapi.dtos.ErrorResponse;
+import net.yorksolutions.tsgfeedbackapi.dtos.FeedbackRequest;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/* FeedbackRequestValidator */
+/* The single set of FeedbackRequest rules, checked with plain comparisons instead of Bean Validation */
+/* A valid request allocates nothing; error entries are shared constants and only the list holding them is new */
+final class FeedbackRequestValidator {
+
+    static final int MEMBER_ID_MAX_LENGTH = 36;
+    static final int PROVIDER_NAME_MAX_LENGTH = 80;
+    static final int COMMENT_MAX_LENGTH = 200;
+    static final int RATING_MIN = 1;
+    static final int RATING_MAX = 5;
+
+    private static final ErrorResponse.FieldError MEMBER_ID_REQUIRED =
+        new ErrorResponse.FieldError("memberId", "Member ID is required");
+    private static final ErrorResponse.FieldError MEMBER_ID_TOO_LONG =
+        new ErrorResponse.FieldError("memberId", "Member ID must be less than 36 characters");
+    private static final ErrorResponse.FieldError PROVIDER_NAME_REQUIRED =
+        new ErrorResponse.FieldError("providerName", "Provider name is required");
+    private static final ErrorResponse.FieldError PROVIDER_NAME_TOO_LONG =
+        new ErrorResponse.FieldError("providerName", "Provider name must be less than 80 characters");
+    private static final ErrorResponse.FieldError RATING_OUT_OF_RANGE =
+        new ErrorResponse.FieldError("rating", "Rating must be between 1 and 5");
+    private static final ErrorResponse.FieldError COMMENT_TOO_LONG =
+        new ErrorResponse.FieldError("comment", "Comment must be less than 200 characters");
+
+    private FeedbackRequestValidator() {
+    }
+
+    /* Immutable list of errors in field order; the shared empty list when the request is valid */
+    static List<ErrorResponse.FieldError> validate(FeedbackRequest request) {
+        ErrorResponse.FieldError memberId = checkMemberId(request.memberId());
+        ErrorResponse.FieldError providerName = checkProviderName(request.providerName());
+        ErrorResponse.FieldError rating = checkRating(request.rating());
+        ErrorResponse.FieldError comment = checkComment(request.comment());
+
+        if (memberId == null && providerName == null && rating == null && comment == null) {
+            return List.of();
+        }
+        return collect(memberId, providerName, rating, comment);
+    }
+
+    // memberId: required, non-blank, length <= 36
+    private static ErrorResponse.FieldError checkMemberId(String memberId) {
+        if (memberId == null || memberId.isBlank()) {
+            return MEMBER_ID_REQUIRED;
+        }
+        return memberId.length() > MEMBER_ID_MAX_LENGTH ? MEMBER_ID_TOO_LONG : null;
+    }
+
+    // providerName: required, non-blank, length <= 80
+    private static ErrorResponse.FieldError checkProviderName(String providerName) {
+        if (providerName == null || providerName.isBlank()) {
+            return PROVIDER_NAME_REQUIRED;
+        }
+        return providerName.length() > PROVIDER_NAME_MAX_LENGTH ? PROVIDER_NAME_TOO_LONG : null;
+    }
+
+    // rating: required, integer 1-5
+    private static ErrorResponse.FieldError checkRating(Integer rating) {
+        return rating == null || rating < RATING_MIN || rating > RATING_MAX ? RATING_OUT_OF_RANGE : null;
+    }
+
+    // comment: optional, length <= 200
+    private static ErrorResponse.FieldError checkComment(String comment) {
+        return comment != null && comment.length() > COMMENT_MAX_LENGTH ? COMMENT_TOO_LONG : null;
+    }
+
+    private static List<ErrorResponse.FieldError> collect(ErrorResponse.FieldError... candidates) {
+        return Arrays.stream(candidates).filter(Objects::nonNull).toList();
+    }
+}
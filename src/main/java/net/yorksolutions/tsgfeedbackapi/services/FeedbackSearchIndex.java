@@ -0,0 +1,447 @@
+package net.yorksolutions.tsgfeedbackapi.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import net.yorksolutions.tsgfeedbackapi.dtos.ErrorResponse;
+import net.yorksolutions.tsgfeedbackapi.dtos.FeedbackResponse;
+import net.yorksolutions.tsgfeedbackapi.dtos.FeedbackSearchPage;
+import net.yorksolutions.tsgfeedbackapi.repositories.FeedbackRepository;
+import net.yorksolutions.tsgfeedbackapi.repositories.PrimaryReads;
+import net.yorksolutions.tsgfeedbackapi.repositories.entities.UuidV7Generator;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.en.EnglishAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TotalHits;
+import org.apache.lucene.store.AlreadyClosedException;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/* FeedbackSearchIndex */
+/* Lucene inverted index over feedback comments, kept as segment files under feedback.search.index-dir */
+/* Each feedback committed by this instance is added after its transaction commits; searches see it after the next refresh */
+/* Feedback committed by other instances is picked up by tail(), which re-reads the v7 id range from the previous */
+/* run (minus feedback.search.tail-margin-ms, for inserts that committed late) in primary key order */
+/* Only ids are stored in the index; hits are ranked by BM25 and loaded through the read cache and one id query, */
+/* then the archive for months moved out of the database; hits gone from both are removed from the index */
+/* Catch-up: each Lucene commit records how far the index is known to be complete (by v7 id time). On start the */
+/* v7 id range from that point, minus a safety margin, is re-read from the database in primary key order; */
+/* the range is bounded above because older random (v4) ids sort among and after it */
+/* An empty index is backfilled from the whole table the same way, in the background */
+@Slf4j
+@Service
+public class FeedbackSearchIndex implements SmartLifecycle {
+    static final int MAX_PAGE_SIZE = 100;
+    static final int MAX_OFFSET = 1000;
+
+    private static final String ID = "id";
+    private static final String PROVIDER = "provider";
+    private static final String COMMENT = "comment";
+    // Commit metadata: index complete for ids generated before this time / id range of a walk still to resume
+    private static final String INDEXED_THROUGH = "indexed-through-ms";
+    private static final String BACKFILL_AFTER = "backfill-after";
+    private static final String BACKFILL_BEFORE = "backfill-before";
+    private static final UUID SMALLEST_ID = new UUID(0, 0);
+    private static final UUID LARGEST_ID = new UUID(-1, -1);
+    // Upper end of a catch-up range: beyond any id this or another instance can have generated by now
+    private static final Duration CATCH_UP_HORIZON = Duration.ofDays(1);
+
+    private final FeedbackRepository feedbackRepository;
+    private final FeedbackReadCache readCache;
+    private final FeedbackArchive archive;
+    private final PrimaryReads primaryReads;
+    private final Path indexDir;
+    private final Duration catchUpMargin;
+    private final Duration tailMargin;
+    private final int backfillBatchSize;
+    private final Analyzer analyzer = new EnglishAnalyzer();
+    private final AtomicLong indexedThroughMillis = new AtomicLong();
+    private final Timer searchTimer;
+    // Ids indexed within the tail margin, so re-reading the margin does not rewrite their documents
+    private final Cache<UUID, Boolean> recentlyIndexed;
+    private volatile long tailFromMillis;
+
+    private volatile IndexWriter writer;
+    private volatile SearcherManager searcherManager;
+    private volatile UUID backfillAfter;
+    private volatile UUID backfillBefore;
+    private volatile boolean running;
+    private Thread backfillThread;
+
+    public FeedbackSearchIndex(FeedbackRepository feedbackRepository,
+                               FeedbackReadCache readCache,
+                               FeedbackArchive archive,
+                               PrimaryReads primaryReads,
+                               MeterRegistry meterRegistry,
+                               @Value("${feedback.search.index-dir:data/search-index}") Path indexDir,
+                               @Value("${feedback.search.catch-up-margin-ms:60000}") long catchUpMarginMs,
+                               @Value("${feedback.search.tail-margin-ms:10000}") long tailMarginMs,
+                               @Value("${feedback.search.backfill-batch-size:5000}") int backfillBatchSize) {
+        this.feedbackRepository = feedbackRepository;
+        this.readCache = readCache;
+        this.archive = archive;
+        this.primaryReads = primaryReads;
+        this.indexDir = indexDir;
+        this.catchUpMargin = Duration.ofMillis(catchUpMarginMs);
+        this.tailMargin = Duration.ofMillis(tailMarginMs);
+        this.backfillBatchSize = backfillBatchSize;
+        this.recentlyIndexed = Caffeine.newBuilder()
+            .expireAfterWrite(tailMargin.multipliedBy(2))
+            .maximumSize(1_000_000)
+            .build();
+
+        this.searchTimer = Timer.builder("feedback.search")
+            .description("Time to rank and load one page of comment search results")
+            .register(meterRegistry);
+        Gauge.builder("feedback.search.documents", this, index -> index.writer == null ? 0 : index.writer.getDocStats().numDocs)
+            .description("Feedback comments in the search index")
+            .register(meterRegistry);
+        Gauge.builder("feedback.search.backfill.pending", this, index -> index.backfillAfter == null ? 0 : 1)
+            .description("1 while rows are still being read from the database into the search index")
+            .register(meterRegistry);
+    }
+
+    /* Called after the feedback's transaction committed; a failure here never fails the submission */
+    public void index(FeedbackResponse feedback) {
+        IndexWriter current = writer;
+        if (current == null || feedback.comment() == null || feedback.comment().isBlank()) {
+            return;
+        }
+        try {
+            // Keyed by id, so indexing the same feedback again (catch-up overlap) replaces it
+            current.updateDocument(new Term(ID, feedback.id().toString()), toDocument(feedback));
+            recentlyIndexed.put(feedback.id(), Boolean.TRUE);
+        } catch (IOException | AlreadyClosedException e) {
+            log.warn("Could not index feedback {}", feedback.id(), e);
+        }
+    }
+
+    public FeedbackSearchPage search(String q, String provider, int limit, int offset) {
+        List<ErrorResponse.FieldError> errors = new ArrayList<>();
+        if (q == null || q.isBlank()) {
+            errors.add(new ErrorResponse.FieldError("q", "Search text is required"));
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            errors.add(new ErrorResponse.FieldError("limit", "Limit must be between 1 and " + MAX_PAGE_SIZE));
+        }
+        if (offset < 0 || offset > MAX_OFFSET) {
+            errors.add(new ErrorResponse.FieldError("offset", "Offset must be between 0 and " + MAX_OFFSET));
+        }
+        if (!errors.isEmpty()) {
+            throw new ValidationException(errors);
+        }
+        return searchTimer.record(() -> rankAndLoad(q, provider, limit, offset));
+    }
+
+    private FeedbackSearchPage rankAndLoad(String q, String provider, int limit, int offset) {
+        SearcherManager manager = searcherManager;
+        Query query = parse(q, provider);
+        if (manager == null || query == null) {
+            // Not started yet, or nothing searchable left after analysis (e.g. only stop words)
+            return new FeedbackSearchPage(List.of(), 0, null);
+        }
+
+        List<UUID> ids = new ArrayList<>(limit);
+        TotalHits totalHits;
+        try {
+            IndexSearcher searcher = manager.acquire();
+            try {
+                TopDocs top = searcher.search(query, offset + limit);
+                totalHits = top.totalHits;
+                StoredFields storedFields = searcher.storedFields();
+                for (int i = offset; i < top.scoreDocs.length; i++) {
+                    ScoreDoc hit = top.scoreDocs[i];
+                    ids.add(UUID.fromString(storedFields.document(hit.doc, Set.of(ID)).get(ID)));
+                }
+            } finally {
+                manager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        int next = offset + limit;
+        Integer nextOffset = next < totalHits.value() && next <= MAX_OFFSET ? next : null;
+        return new FeedbackSearchPage(load(ids), totalHits.value(), nextOffset);
+    }
+
+    private Query parse(String q, String provider) {
+        SimpleQueryParser parser = new SimpleQueryParser(analyzer, COMMENT);
+        // "wait time" finds comments with both words; quote it for the phrase, | for either word
+        parser.setDefaultOperator(BooleanClause.Occur.MUST);
+        Query text = parser.parse(q);
+        if (text == null) {
+            return null;
+        }
+        if (provider == null || provider.isBlank()) {
+            return text;
+        }
+        return new BooleanQuery.Builder()
+            .add(text, BooleanClause.Occur.MUST)
+            .add(new TermQuery(new Term(PROVIDER, provider)), BooleanClause.Occur.FILTER)
+            .build();
+    }
+
+    /* Responses in rank order; cache first, then one query for the rest, then the archive */
+    /* A hit found nowhere, even on the primary, belongs to a month dropped or detached by retention: its document */
+    /* is deleted so later searches neither return nor count it */
+    private List<FeedbackResponse> load(List<UUID> ids) {
+        Map<UUID, FeedbackResponse> found = new HashMap<>();
+        List<UUID> misses = new ArrayList<>();
+        for (UUID id : ids) {
+            FeedbackResponse cached = readCache.get(id);
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                misses.add(id);
+            }
+        }
+        if (!misses.isEmpty()) {
+            found.putAll(feedbackRepository.findResponsesByIdIn(misses).stream()
+                .collect(Collectors.toMap(FeedbackResponse::id, Function.identity())));
+        }
+        List<UUID> gone = new ArrayList<>();
+        for (UUID id : misses) {
+            if (!found.containsKey(id)) {
+                Optional<FeedbackResponse> archived = archive.find(id);
+                if (archived.isPresent()) {
+                    found.put(id, archived.get());
+                } else {
+                    gone.add(id);
+                }
+            }
+        }
+        if (!gone.isEmpty()) {
+            forget(gone, found);
+        }
+        List<FeedbackResponse> ranked = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            FeedbackResponse response = found.get(id);
+            if (response != null) {
+                ranked.add(response);
+            }
+        }
+        return ranked;
+    }
+
+    private void forget(List<UUID> gone, Map<UUID, FeedbackResponse> found) {
+        if (primaryReads.hasReplica()) {
+            // The replica may not have replayed a row this instance indexed right after committing it
+            primaryReads.read(() -> feedbackRepository.findResponsesByIdIn(gone))
+                .forEach(response -> found.put(response.id(), response));
+        }
+        IndexWriter current = writer;
+        if (current == null || !archive.isRunning()) {
+            // Before the archive has opened its segments an archived row looks gone too
+            return;
+        }
+        try {
+            for (UUID id : gone) {
+                if (!found.containsKey(id)) {
+                    current.deleteDocuments(new Term(ID, id.toString()));
+                }
+            }
+        } catch (IOException | AlreadyClosedException e) {
+            log.warn("Could not remove {} dropped feedback from the search index", gone.size(), e);
+        }
+    }
+
+    /* Reads feedback committed since the previous run, including other instances' writes, into the index */
+    @Scheduled(fixedDelayString = "${feedback.search.tail-interval-ms:2000}")
+    public void tail() {
+        if (writer == null || tailFromMillis == 0) {
+            return;
+        }
+        long runStart = System.currentTimeMillis();
+        UUID after = UuidV7Generator.lowerBound(Instant.ofEpochMilli(tailFromMillis).minus(tailMargin));
+        UUID end = UuidV7Generator.lowerBound(Instant.ofEpochMilli(runStart).plus(CATCH_UP_HORIZON));
+        while (true) {
+            List<FeedbackResponse> batch = feedbackRepository.findResponsesBetween(after, end, Limit.of(backfillBatchSize));
+            for (FeedbackResponse feedback : batch) {
+                if (recentlyIndexed.getIfPresent(feedback.id()) == null) {
+                    index(feedback);
+                }
+            }
+            if (batch.size() < backfillBatchSize) {
+                break;
+            }
+            after = batch.get(batch.size() - 1).id();
+        }
+        tailFromMillis = runStart;
+        indexedThroughMillis.accumulateAndGet(runStart - tailMargin.toMillis(), Math::max);
+    }
+
+    @Scheduled(fixedDelayString = "${feedback.search.refresh-interval-ms:1000}")
+    public void refresh() throws IOException {
+        SearcherManager manager = searcherManager;
+        if (manager != null) {
+            // Blocking: maybeRefresh() skips if the backfill thread is mid-refresh, leaving recent writes unseen
+            manager.maybeRefreshBlocking();
+        }
+    }
+
+    /* Durable point for crash recovery; segments written since the last commit are redone by catch-up */
+    @Scheduled(fixedDelayString = "${feedback.search.commit-interval-ms:30000}")
+    public synchronized void commit() throws IOException {
+        IndexWriter current = writer;
+        if (current == null || !current.isOpen()) {
+            return;
+        }
+        Map<String, String> commitData = new HashMap<>();
+        commitData.put(INDEXED_THROUGH, Long.toString(indexedThroughMillis.get()));
+        UUID resumeAfter = backfillAfter;
+        if (resumeAfter != null) {
+            commitData.put(BACKFILL_AFTER, resumeAfter.toString());
+            commitData.put(BACKFILL_BEFORE, backfillBefore.toString());
+        }
+        current.setLiveCommitData(commitData.entrySet());
+        current.commit();
+    }
+
+    @Override
+    public synchronized void start() {
+        try {
+            writer = new IndexWriter(FSDirectory.open(indexDir),
+                new IndexWriterConfig(analyzer).setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+            searcherManager = new SearcherManager(writer, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open search index at " + indexDir.toAbsolutePath(), e);
+        }
+
+        Map<String, String> committed = new HashMap<>();
+        Iterable<Map.Entry<String, String>> commitData = writer.getLiveCommitData();
+        if (commitData != null) {
+            commitData.forEach(entry -> committed.put(entry.getKey(), entry.getValue()));
+        }
+        if (committed.containsKey(INDEXED_THROUGH)) {
+            indexedThroughMillis.set(Long.parseLong(committed.get(INDEXED_THROUGH)));
+        }
+        UUID start;
+        UUID end;
+        if (committed.containsKey(BACKFILL_AFTER)) {
+            start = UUID.fromString(committed.get(BACKFILL_AFTER));
+            end = UUID.fromString(committed.get(BACKFILL_BEFORE));
+        } else if (committed.containsKey(INDEXED_THROUGH)) {
+            start = UuidV7Generator.lowerBound(Instant.ofEpochMilli(indexedThroughMillis.get()).minus(catchUpMargin));
+            end = UuidV7Generator.lowerBound(Instant.now().plus(CATCH_UP_HORIZON));
+        } else {
+            start = SMALLEST_ID;
+            end = LARGEST_ID;
+        }
+
+        running = true;
+        // The catch-up walk below covers everything up to now; tail() continues from here
+        tailFromMillis = System.currentTimeMillis();
+        backfillAfter = start;
+        backfillBefore = end;
+        backfillThread = Thread.ofPlatform().name("search-backfill").daemon().start(() -> backfill(start, end));
+    }
+
+    /* Reads rows between the two ids into the index, in primary key order, committing progress as it goes */
+    private void backfill(UUID start, UUID end) {
+        long startedAt = System.currentTimeMillis();
+        long rows = 0;
+        UUID after = start;
+        try {
+            while (running) {
+                List<FeedbackResponse> batch = feedbackRepository.findResponsesBetween(after, end, Limit.of(backfillBatchSize));
+                batch.forEach(this::index);
+                rows += batch.size();
+                if (batch.size() < backfillBatchSize) {
+                    break;
+                }
+                after = batch.get(batch.size() - 1).id();
+                backfillAfter = after;
+            }
+            if (!running) {
+                return;
+            }
+            // Everything committed before the walk began has been read; later rows arrived through index()
+            indexedThroughMillis.accumulateAndGet(startedAt, Math::max);
+            backfillAfter = null;
+            commit();
+            searcherManager.maybeRefreshBlocking();
+            log.info("Search index caught up: {} rows read from the database in {} ms",
+                rows, System.currentTimeMillis() - startedAt);
+        } catch (IOException | RuntimeException e) {
+            // backfillAfter still holds the resume point; the next start continues from there
+            log.error("Search index backfill stopped after {} rows", rows, e);
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (writer == null) {
+            return;
+        }
+        try {
+            if (backfillThread != null) {
+                backfillThread.join(Duration.ofSeconds(30));
+            }
+            commit();
+            searcherManager.close();
+            writer.close();
+            writer.getDirectory().close();
+        } catch (IOException e) {
+            log.warn("Search index did not close cleanly; it will catch up on the next start", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            writer = null;
+            searcherManager = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private static Document toDocument(FeedbackResponse feedback) {
+        Document document = new Document();
+        document.add(new StringField(ID, feedback.id().toString(), Field.Store.YES));
+        document.add(new StringField(PROVIDER, feedback.providerName(), Field.Store.NO));
+        document.add(new TextField(COMMENT, feedback.comment(), Field.Store.NO));
+        return document;
+    }
+}
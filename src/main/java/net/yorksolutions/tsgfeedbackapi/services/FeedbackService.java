@@ -1,61 +1,77 @@
 package net.yorksolutions.tsgfeedbackapi.services;
 
+import net.yorksolutions.tsgfeedbackapi.dtos.BatchFeedbackResponse;
 import net.yorksolutions.tsgfeedbackapi.dtos.ErrorResponse;
+import net.yorksolutions.tsgfeedbackapi.dtos.FeedbackPage;
 import net.yorksolutions.tsgfeedbackapi.dtos.FeedbackRequest;
 import net.yorksolutions.tsgfeedbackapi.dtos.FeedbackResponse;
 import net.yorksolutions.tsgfeedbackapi.dtos.contracts.FeedbackSubmittedEvent;
 import net.yorksolutions.tsgfeedbackapi.messaging.FeedbackEventPublisher;
+import net.yorksolutions.tsgfeedbackapi.repositories.FeedbackIdempotencyKeyRepository;
 import net.yorksolutions.tsgfeedbackapi.repositories.FeedbackRepository;
+import net.yorksolutions.tsgfeedbackapi.repositories.PrimaryReads;
 import net.yorksolutions.tsgfeedbackapi.repositories.entities.FeedbackEntity;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class FeedbackService {
     
     private static final int SCHEMA_VERSION = 1;
+    static final int MAX_PAGE_SIZE = 200;
     private final FeedbackRepository feedbackRepository;
     private final FeedbackEventPublisher eventPublisher;
+    private final FeedbackReadCache readCache;
+    private final ProviderStatsService providerStats;
+    private final FeedbackMetrics metrics;
+    private final FeedbackIdempotencyKeyRepository idempotencyKeyRepository;
+    private final FeedbackSearchIndex searchIndex;
+    private final FeedbackArchive archive;
+    private final PrimaryReads primaryReads;
 
     public FeedbackService(FeedbackRepository feedbackRepository,
-                            FeedbackEventPublisher eventPublisher) {
+                            FeedbackEventPublisher eventPublisher,
+                            FeedbackReadCache readCache,
+                            ProviderStatsService providerStats,
+                            FeedbackMetrics metrics,
+                            FeedbackIdempotencyKeyRepository idempotencyKeyRepository,
+                            FeedbackSearchIndex searchIndex,
+                            FeedbackArchive archive,
+                            PrimaryReads primaryReads) {
         this.feedbackRepository = feedbackRepository;
         this.eventPublisher = eventPublisher;
+        this.readCache = readCache;
+        this.providerStats = providerStats;
+        this.metrics = metrics;
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.searchIndex = searchIndex;
+        this.archive = archive;
+        this.primaryReads = primaryReads;
     }
 
     public FeedbackResponse createFeedback(FeedbackRequest request) {
-        // Service-layer validation per spec
-        List<ErrorResponse.FieldError> errors = new ArrayList<>();
-
-        // Validate memberId: required, non-empty, length <= 36
-        if (request.memberId() == null || request.memberId().isBlank()) {
-            errors.add(new ErrorResponse.FieldError("memberId", "Member ID is required"));
-        } else if (request.memberId().length() > 36) {
-            errors.add(new ErrorResponse.FieldError("memberId", "Member ID must be less than 36 characters"));
-        }
-
-        // Validate providerName: required, non-empty, length <= 80
-        if(request.providerName() == null || request.providerName().isBlank()) {
-            errors.add(new ErrorResponse.FieldError("providerName", "Provider name is required"));
-        } else if (request.providerName().length() > 80) {
-            errors.add(new ErrorResponse.FieldError("providerName", "Provider name must be less than 80 characters"));
-        }
+        return createFeedback(request, null);
+    }
 
-        // Validate rating: required, integer 1-5
-        if(request.rating() == null || request.rating() < 1 || request.rating() > 5) {
-            errors.add(new ErrorResponse.FieldError("rating", "Rating must be between 1 and 5"));
-        }
+    /* With a non-null idempotencyKey the key is claimed in the same transaction as the insert */
+    /* If the member already used the key, DuplicateIdempotencyKeyException rolls the insert back before any event is recorded */
+    public FeedbackResponse createFeedback(FeedbackRequest request, String idempotencyKey) {
+        long phaseStart = System.nanoTime();
 
-        // Validate comment: optional, length <= 200
-        if(request.comment() != null && request.comment().length() > 200) {
-            errors.add(new ErrorResponse.FieldError("comment", "Comment must be less than 200 characters"));
-        }
+        // Service-layer validation per spec
+        List<ErrorResponse.FieldError> errors = FeedbackRequestValidator.validate(request);
+        phaseStart = metrics.record(FeedbackMetrics.Phase.VALIDATE, phaseStart);
 
         // If errors, return 400 with error response
         if(!errors.isEmpty()) {
@@ -67,34 +83,193 @@ public class FeedbackService {
         
         // Save entity (submittedAt will be set automatically by @CreationTimestamp)
         FeedbackEntity savedEntity = feedbackRepository.saveAndFlush(entity);
+        if (idempotencyKey != null
+                && idempotencyKeyRepository.claim(request.memberId(), idempotencyKey, savedEntity.getId()) == 0) {
+            throw new DuplicateIdempotencyKeyException();
+        }
+        phaseStart = metrics.record(FeedbackMetrics.Phase.PERSIST, phaseStart);
         
         // Map to response
         FeedbackResponse response = mapToResponse(savedEntity);
         
-        // Publish event
+        // Record event in the outbox, FeedbackOutboxRelay publishes it to Kafka after commit
         FeedbackSubmittedEvent event = mapToEvent(savedEntity);
         eventPublisher.publishFeedbackSubmitted(event);
+        // The outbox id is assigned in Java, so Hibernate would otherwise defer its INSERT to the commit flush
+        feedbackRepository.flush();
+        metrics.record(FeedbackMetrics.Phase.OUTBOX, phaseStart);
+        metrics.recordCommit();
+
+        // Warm the read cache and count the rating once the row is visible to other transactions
+        AfterCommit.run(() -> onCommitted(response));
         
         return response;
     }
 
-    @Transactional(readOnly = true)
+    /* Validates every item, then persists the valid ones in one JDBC batch and one outbox batch */
+    /* Invalid items are reported per index and do not prevent the valid ones from being saved */
+    public BatchFeedbackResponse createFeedbackBatch(List<FeedbackRequest> requests) {
+        BatchFeedbackResponse.ItemResult[] results = new BatchFeedbackResponse.ItemResult[requests.size()];
+        List<FeedbackEntity> entities = new ArrayList<>(requests.size());
+        List<Integer> entityIndexes = new ArrayList<>(requests.size());
+
+        for (int i = 0; i < requests.size(); i++) {
+            FeedbackRequest request = requests.get(i);
+            List<ErrorResponse.FieldError> errors = request == null
+                ? List.of(new ErrorResponse.FieldError("request", "Feedback item is required"))
+                : FeedbackRequestValidator.validate(request);
+            if (errors.isEmpty()) {
+                entities.add(mapToEntity(request));
+                entityIndexes.add(i);
+            } else {
+                results[i] = BatchFeedbackResponse.ItemResult.rejected(i, errors);
+            }
+        }
+
+        if (!entities.isEmpty()) {
+            // saveAll + a single flush lets Hibernate group the inserts into JDBC batches
+            List<FeedbackEntity> savedEntities = feedbackRepository.saveAll(entities);
+            feedbackRepository.flush();
+
+            List<FeedbackSubmittedEvent> events = new ArrayList<>(savedEntities.size());
+            List<FeedbackResponse> responses = new ArrayList<>(savedEntities.size());
+            for (int i = 0; i < savedEntities.size(); i++) {
+                FeedbackEntity savedEntity = savedEntities.get(i);
+                int index = entityIndexes.get(i);
+                FeedbackResponse response = mapToResponse(savedEntity);
+                results[index] = BatchFeedbackResponse.ItemResult.accepted(index, response);
+                responses.add(response);
+                events.add(mapToEvent(savedEntity));
+            }
+            eventPublisher.publishFeedbackSubmittedBatch(events);
+            AfterCommit.run(() -> responses.forEach(this::onCommitted));
+        }
+
+        return new BatchFeedbackResponse(entities.size(), requests.size() - entities.size(), List.of(results));
+    }
+
+    /* Stores rows whose id and submittedAt AsyncFeedbackSubmissions assigned before its first attempt, so retrying */
+    /* a batch whose outcome was lost (e.g. the connection dropped during commit) cannot store a row twice */
+    /* Rows an earlier attempt committed are skipped, together with their event and stats delta; returns the rows */
+    /* this call inserted */
+    public List<FeedbackResponse> createAssignedFeedback(List<FeedbackResponse> rows) {
+        int size = rows.size();
+        UUID[] ids = new UUID[size];
+        String[] memberIds = new String[size];
+        String[] providerNames = new String[size];
+        Integer[] ratings = new Integer[size];
+        String[] comments = new String[size];
+        Instant[] submittedAts = new Instant[size];
+        for (int i = 0; i < size; i++) {
+            FeedbackResponse row = rows.get(i);
+            ids[i] = row.id();
+            memberIds[i] = row.memberId();
+            providerNames[i] = row.providerName();
+            ratings[i] = row.rating();
+            comments[i] = row.comment();
+            submittedAts[i] = row.submittedAt();
+        }
+
+        Set<UUID> inserted = new HashSet<>(
+            feedbackRepository.insertAbsent(ids, memberIds, providerNames, ratings, comments, submittedAts));
+        List<FeedbackResponse> stored = rows.stream().filter(row -> inserted.contains(row.id())).toList();
+        if (!stored.isEmpty()) {
+            eventPublisher.publishFeedbackSubmittedBatch(stored.stream().map(this::mapToEvent).toList());
+            AfterCommit.run(() -> stored.forEach(this::onCommitted));
+        }
+        return stored;
+    }
+
+    /* SUPPORTS: a cache hit must not open a transaction or borrow a pooled connection */
+    /* findResponseById still runs in its own read-only repository transaction on a miss */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public FeedbackResponse getFeedbackById(UUID id) {
-        FeedbackEntity entity = feedbackRepository.findById(id)
-            .orElseThrow(() -> new FeedbackNotFoundException(id));
-        return mapToResponse(entity);
+        FeedbackResponse cached = readCache.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        if (readCache.isKnownMissing(id)) {
+            throw new FeedbackNotFoundException(id);
+        }
+
+        Optional<FeedbackResponse> response = feedbackRepository.findResponseById(id);
+        if (response.isEmpty() && primaryReads.hasReplica()) {
+            // The replica may not have replayed the row yet; only the primary can confirm a 404 worth caching
+            response = primaryReads.read(() -> feedbackRepository.findResponseById(id));
+        }
+        if (response.isEmpty()) {
+            // Months past retention may have been moved to the archive
+            response = archive.find(id);
+        }
+        if (response.isEmpty()) {
+            readCache.putMissing(id);
+            throw new FeedbackNotFoundException(id);
+        }
+
+        readCache.put(response.get());
+        return response.get();
     }
 
+    /* Keyset pagination on (submittedAt, id), newest first; cost per page does not grow with page depth */
     @Transactional(readOnly = true)
-    public List<FeedbackResponse> getFeedbackByMemberId(String memberId) {
-        List<FeedbackEntity> entities = feedbackRepository.findByMemberId(memberId);
-        return entities.stream()
-            .map(this::mapToResponse)
-            .collect(Collectors.toList());
+    public FeedbackPage getFeedbackByMemberId(String memberId, int limit, String cursor) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ValidationException(List.of(
+                new ErrorResponse.FieldError("limit", "Limit must be between 1 and " + MAX_PAGE_SIZE)));
+        }
+
+        // Fetch one extra row to learn whether another page exists without a count query
+        Limit pageLimit = Limit.of(limit + 1);
+        FeedbackCursor after = cursor == null || cursor.isBlank() ? null : FeedbackCursor.decode(cursor);
+        List<FeedbackResponse> rows;
+        if (after == null) {
+            rows = feedbackRepository.findPageByMemberId(memberId, pageLimit);
+        } else {
+            rows = feedbackRepository.findPageByMemberIdBefore(memberId, after.submittedAt(), after.id(), pageLimit);
+        }
+        if (rows.size() <= limit) {
+            // The database ran out; archived months are all older than it, so the page continues there
+            FeedbackResponse oldest = rows.isEmpty() ? null : rows.get(rows.size() - 1);
+            Instant beforeAt = oldest != null ? oldest.submittedAt() : after != null ? after.submittedAt() : null;
+            UUID beforeId = oldest != null ? oldest.id() : after != null ? after.id() : null;
+            List<FeedbackResponse> archived = archive.findByMember(memberId, beforeAt, beforeId, limit + 1 - rows.size());
+            if (!archived.isEmpty()) {
+                rows = new ArrayList<>(rows);
+                rows.addAll(archived);
+            }
+        }
+
+        // Rows are already projected into responses; only the look-ahead row is dropped
+        boolean hasMore = rows.size() > limit;
+        List<FeedbackResponse> items = hasMore ? rows.subList(0, limit) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            FeedbackResponse last = items.get(items.size() - 1);
+            nextCursor = new FeedbackCursor(last.submittedAt(), last.id()).encode();
+        }
+        return new FeedbackPage(items, nextCursor);
     }
 
-    // Helper methods for mapping
-    private FeedbackEntity mapToEntity(FeedbackRequest request) {
+    /* Version of the member's feedback list: it only changes when the member submits something new */
+    @Transactional(readOnly = true)
+    public Optional<Instant> getLatestSubmittedAt(String memberId) {
+        Optional<Instant> latest = feedbackRepository.findLatestSubmittedAt(memberId);
+        if (latest.isPresent()) {
+            return latest;
+        }
+        return archive.findByMember(memberId, null, null, 1).stream().map(FeedbackResponse::submittedAt).findFirst();
+    }
+
+    private void onCommitted(FeedbackResponse response) {
+        readCache.put(response);
+        providerStats.record(response.providerName(), response.rating(), response.submittedAt());
+        searchIndex.index(response);
+    }
+
+
+    // Helper methods for mapping (package-private so FeedbackServiceBenchmark can measure them)
+    FeedbackEntity mapToEntity(FeedbackRequest request) {
         FeedbackEntity entity = new FeedbackEntity();
         entity.setMemberId(request.memberId());
         entity.setProviderName(request.providerName());
@@ -104,7 +279,7 @@ public class FeedbackService {
         return entity;
     }
     
-    private FeedbackResponse mapToResponse(FeedbackEntity entity) {
+    FeedbackResponse mapToResponse(FeedbackEntity entity) {
         return new FeedbackResponse(
             entity.getId(),
             entity.getMemberId(),
@@ -115,7 +290,7 @@ public class FeedbackService {
         );
     }
     
-    private FeedbackSubmittedEvent mapToEvent(FeedbackEntity entity) {
+    FeedbackSubmittedEvent mapToEvent(FeedbackEntity entity) {
         return new FeedbackSubmittedEvent(
             entity.getId().toString(),
             entity.getMemberId(),
@@ -126,4 +301,16 @@ public class FeedbackService {
             SCHEMA_VERSION
         );
     }
+
+    FeedbackSubmittedEvent mapToEvent(FeedbackResponse response) {
+        return new FeedbackSubmittedEvent(
+            response.id().toString(),
+            response.memberId(),
+            response.providerName(),
+            response.rating(),
+            response.comment(),
+            response.submittedAt(),
+            SCHEMA_VERSION
+        );
+    }
 }
\ No newline at end of file
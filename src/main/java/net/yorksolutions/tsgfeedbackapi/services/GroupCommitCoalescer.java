@@ -0,0 +1,215 @@
+package net.yorksolutions.tsgfeedbackapi.services;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import net.yorksolutions.tsgfeedbackapi.dtos.BatchFeedbackResponse;
+import net.yorksolutions.tsgfeedbackapi.dtos.ErrorResponse;
+import net.yorksolutions.tsgfeedbackapi.dtos.FeedbackRequest;
+import net.yorksolutions.tsgfeedbackapi.dtos.FeedbackResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/* GroupCommitCoalescer */
+/* Opt-in group commit for POST /api/v1/feedback (feedback.group-commit.enabled) */
+/* Concurrent submissions arriving within window-ms (or until max-rows) share one createFeedbackBatch call, */
+/* so N callers pay for one multi-row insert and one commit; each caller still blocks for its own response */
+/* Validation runs on the caller's thread, so a 400 never waits on the window */
+/* Stops after the web server, so requests still finishing during graceful shutdown are committed by the flushers */
+@Slf4j
+@Service
+public class GroupCommitCoalescer implements SmartLifecycle {
+    // The web server stops one step below its graceful shutdown phase; lower phases stop later
+    private static final int PHASE = WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 2048;
+
+    private final FeedbackService feedbackService;
+    private final boolean enabled;
+    private final long windowNanos;
+    private final int maxRows;
+    private final int flusherCount;
+    private final boolean virtualThreads;
+    private final BlockingQueue<PendingWrite> queue;
+    private final DistributionSummary groupSize;
+    private final List<Thread> flushers = new ArrayList<>();
+    private volatile boolean running;
+
+    public GroupCommitCoalescer(FeedbackService feedbackService,
+                                MeterRegistry meterRegistry,
+                                @Value("${feedback.group-commit.enabled:false}") boolean enabled,
+                                @Value("${feedback.group-commit.window-ms:2}") long windowMs,
+                                @Value("${feedback.group-commit.max-rows:100}") int maxRows,
+                                @Value("${feedback.group-commit.flushers:2}") int flusherCount,
+                                @Value("${feedback.group-commit.capacity:10000}") int capacity,
+                                @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.feedbackService = feedbackService;
+        this.enabled = enabled;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMs);
+        this.maxRows = maxRows;
+        this.flusherCount = flusherCount;
+        this.virtualThreads = virtualThreads;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.groupSize = DistributionSummary.builder("feedback.group-commit.size")
+            .description("Submissions persisted per group commit")
+            .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /* Same contract as FeedbackService.createFeedback; falls back to it when not running or the queue is full */
+    public FeedbackResponse submit(FeedbackRequest request) {
+        // Called directly rather than through the transactional FeedbackService proxy, so no connection is borrowed
+        List<ErrorResponse.FieldError> errors = FeedbackRequestValidator.validate(request);
+        if (!errors.isEmpty()) {
+            throw new ValidationException(errors);
+        }
+
+        PendingWrite write = new PendingWrite(request, new CompletableFuture<>());
+        if (!running || !queue.offer(write)) {
+            return feedbackService.createFeedback(request);
+        }
+        // stop() may have run between the check and the offer, with flushers that already drained the queue and exited
+        if (!running && queue.remove(write)) {
+            return feedbackService.createFeedback(request);
+        }
+        return await(write.result());
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        if (!enabled) {
+            return;
+        }
+        Thread.Builder builder = virtualThreads
+            ? Thread.ofVirtual().name("feedback-group-commit-", 0)
+            : Thread.ofPlatform().daemon().name("feedback-group-commit-", 0);
+        for (int i = 0; i < flusherCount; i++) {
+            flushers.add(builder.start(this::drain));
+        }
+    }
+
+    /* Flushers commit whatever callers are still waiting on before the datasource shuts down */
+    @Override
+    public void stop() {
+        running = false;
+        for (Thread flusher : flushers) {
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        flushers.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    private void drain() {
+        List<PendingWrite> group = new ArrayList<>(maxRows);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                collect(group);
+                commit(group);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failAll(group, new IllegalStateException("Group commit interrupted", e));
+                return;
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    /* Waits up to the window for more writes to join the group, stopping early once it is full */
+    private void collect(List<PendingWrite> group) throws InterruptedException {
+        long deadline = System.nanoTime() + windowNanos;
+        while (group.size() < maxRows) {
+            queue.drainTo(group, maxRows - group.size());
+            long remaining = deadline - System.nanoTime();
+            if (group.size() >= maxRows || remaining <= 0) {
+                return;
+            }
+            PendingWrite next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            group.add(next);
+        }
+    }
+
+    void commit(List<PendingWrite> group) {
+        List<FeedbackRequest> requests = new ArrayList<>(group.size());
+        for (PendingWrite write : group) {
+            requests.add(write.request());
+        }
+
+        BatchFeedbackResponse response;
+        try {
+            response = feedbackService.createFeedbackBatch(requests);
+        } catch (RuntimeException e) {
+            // The whole group shares one transaction, so every caller sees the same failure (e.g. 503)
+            log.debug("Group commit of {} failed", group.size(), e);
+            failAll(group, e);
+            return;
+        }
+
+        groupSize.record(group.size());
+        for (BatchFeedbackResponse.ItemResult result : response.results()) {
+            CompletableFuture<FeedbackResponse> future = group.get(result.index()).result();
+            if (result.feedback() != null) {
+                future.complete(result.feedback());
+            } else {
+                future.completeExceptionally(new ValidationException(result.errors()));
+            }
+        }
+    }
+
+    private static void failAll(List<PendingWrite> group, RuntimeException e) {
+        for (PendingWrite write : group) {
+            write.result().completeExceptionally(e);
+        }
+    }
+
+    private static FeedbackResponse await(CompletableFuture<FeedbackResponse> result) {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for group commit", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Group commit failed", e.getCause());
+        }
+    }
+
+    record PendingWrite(FeedbackRequest request, CompletableFuture<FeedbackResponse> result) {
+    }
+}
@@ -0,0 +1,7 @@
+package net.yorksolutions.tsgfeedbackapi.services;
+
+public class IdempotencyKeyReusedException extends RuntimeException {
+    public IdempotencyKeyReusedException(String idempotencyKey) {
+        super("Idempotency-Key " + idempotencyKey + " was already used for a different feedback submission");
+    }
+}
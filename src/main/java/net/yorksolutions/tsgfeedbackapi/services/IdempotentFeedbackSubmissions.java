@@ -0,0 +1,121 @@
+package net.yorksolutions.tsgfeedbackapi.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import net.yorksolutions.tsgfeedbackapi.dtos.ErrorResponse;
+import net.yorksolutions.tsgfeedbackapi.dtos.FeedbackRequest;
+import net.yorksolutions.tsgfeedbackapi.dtos.FeedbackResponse;
+import net.yorksolutions.tsgfeedbackapi.repositories.FeedbackIdempotencyKeyRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/* IdempotentFeedbackSubmissions */
+/* Backs POST /api/v1/feedback with an Idempotency-Key header: a retried submission gets the original response back */
+/* Recently used keys are answered from a size-bounded Caffeine cache without touching the database */
+/* Otherwise the insert is attempted optimistically and the key is claimed in the same transaction; a key that */
+/* was already claimed rolls that insert back and the original feedback is replayed instead */
+/* Keys are scoped to the member and forgotten after feedback.idempotency.ttl-ms */
+@Slf4j
+@Service
+public class IdempotentFeedbackSubmissions {
+    static final int MAX_KEY_LENGTH = 100;
+
+    private final FeedbackService feedbackService;
+    private final FeedbackIdempotencyKeyRepository keyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache<String, FeedbackResponse> recent;
+    private final Duration ttl;
+
+    public IdempotentFeedbackSubmissions(FeedbackService feedbackService,
+                                         FeedbackIdempotencyKeyRepository keyRepository,
+                                         PlatformTransactionManager transactionManager,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${feedback.idempotency.max-keys:100000}") long maxKeys,
+                                         @Value("${feedback.idempotency.ttl-ms:86400000}") long ttlMs) {
+        this.feedbackService = feedbackService;
+        this.keyRepository = keyRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttl = Duration.ofMillis(ttlMs);
+        this.recent = Caffeine.newBuilder()
+            .maximumSize(maxKeys)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, recent, "feedback.idempotency");
+    }
+
+    public Result submit(FeedbackRequest request, String idempotencyKey) {
+        validateKey(idempotencyKey);
+        List<ErrorResponse.FieldError> errors = FeedbackRequestValidator.validate(request);
+        if (!errors.isEmpty()) {
+            throw new ValidationException(errors);
+        }
+
+        String scopedKey = request.memberId() + '\u0000' + idempotencyKey;
+        FeedbackResponse remembered = recent.getIfPresent(scopedKey);
+        if (remembered != null) {
+            return replay(request, idempotencyKey, remembered);
+        }
+
+        try {
+            FeedbackResponse created = feedbackService.createFeedback(request, idempotencyKey);
+            recent.put(scopedKey, created);
+            return new Result(created, false);
+        } catch (DuplicateIdempotencyKeyException e) {
+            // The claim was only just committed on the primary and a read-only lookup may go to a replica that has
+            // not replayed it yet, so the key and its feedback are read in a read-write transaction
+            FeedbackResponse original = transactionTemplate.execute(status -> {
+                UUID feedbackId = keyRepository.findFeedbackId(request.memberId(), idempotencyKey)
+                    .orElseThrow(() -> new IllegalStateException("Idempotency key vanished after conflict"));
+                return feedbackService.getFeedbackById(feedbackId);
+            });
+            recent.put(scopedKey, original);
+            return replay(request, idempotencyKey, original);
+        }
+    }
+
+    /* Database rows outlive the cache only up to the same TTL */
+    @Scheduled(fixedDelayString = "${feedback.idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        Integer deleted = transactionTemplate.execute(status ->
+            keyRepository.deleteCreatedBefore(Instant.now().minus(ttl)));
+        if (deleted != null && deleted > 0) {
+            log.debug("Purged {} expired idempotency keys", deleted);
+        }
+    }
+
+    /* A key may only be replayed for the same submission; reusing it for different content is a client bug */
+    private static Result replay(FeedbackRequest request, String idempotencyKey, FeedbackResponse original) {
+        boolean sameSubmission = original.memberId().equals(request.memberId())
+            && original.providerName().equals(request.providerName())
+            && original.rating() == request.rating()
+            && Objects.equals(original.comment(), request.comment());
+        if (!sameSubmission) {
+            throw new IdempotencyKeyReusedException(idempotencyKey);
+        }
+        return new Result(original, true);
+    }
+
+    private static void validateKey(String idempotencyKey) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new ValidationException(List.of(new ErrorResponse.FieldError(
+                "Idempotency-Key", "Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters")));
+        }
+    }
+
+    public record Result(FeedbackResponse feedback, boolean replayed) {
+    }
+}
@@ -0,0 +1,7 @@
+package net.yorksolutions.tsgfeedbackapi.services;
+
+public class ProviderNotFoundException extends RuntimeException {
+    public ProviderNotFoundException(String providerName) {
+        super("No feedback found for provider: " + providerName);
+    }
+}
@@ -0,0 +1,327 @@
+package net.yorksolutions.tsgfeedbackapi.services;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import net.yorksolutions.tsgfeedbackapi.dtos.ErrorResponse;
+import net.yorksolutions.tsgfeedbackapi.dtos.ProviderStatsResponse;
+import net.yorksolutions.tsgfeedbackapi.dtos.ProviderTrendResponse;
+import net.yorksolutions.tsgfeedbackapi.repositories.FeedbackRepository;
+import net.yorksolutions.tsgfeedbackapi.repositories.ProviderRatingRollupRepository;
+import net.yorksolutions.tsgfeedbackapi.repositories.ProviderRatingStatsRepository;
+import net.yorksolutions.tsgfeedbackapi.repositories.entities.ProviderRatingRollupEntity;
+import net.yorksolutions.tsgfeedbackapi.repositories.entities.ProviderRatingStatsEntity;
+import net.yorksolutions.tsgfeedbackapi.repositories.entities.UuidV7Generator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/* ProviderStatsService */
+/* Maintains per-provider rating aggregates without ever scanning the feedback table */
+/* Committed ratings are bucketed by UTC hour and flushed as additive upserts, in one transaction, to the hour and */
+/* day rows of provider_rating_rollup and to the totals in provider_rating_stats */
+/* Reads are a primary key lookup plus this instance's not-yet-flushed delta, kept in striped LongAdders */
+/* Deltas recorded since the last flush are lost if the JVM dies without a clean shutdown */
+/* Once an hour has settled it is recounted exactly from feedback (catch-up), which also repairs lost deltas */
+/* and picks up late commits; after that the hour takes no more deltas (see provider_rating_rollup_state) */
+/* Catch-up moves the totals by what each recount changed, so they stay the sum of the provider's hour rows */
+/* Recounts find an hour's rows by v7 id range, so rows inserted with other ids (e.g. by hand) are not counted */
+@Slf4j
+@Service
+public class ProviderStatsService {
+    static final int MAX_TREND_BUCKETS = 1000;
+    private static final Duration DEFAULT_TREND_RANGE = Duration.ofDays(7);
+    // Bounds the work (and the pause in delta flushes) of one catch-up run after a long outage
+    private static final Duration MAX_CATCH_UP_PER_RUN = Duration.ofDays(1);
+    // Rollup rows are upserted in this order by every instance, so concurrent flushes cannot deadlock
+    private static final Comparator<RollupKey> LOCK_ORDER = Comparator.comparing(RollupKey::providerName)
+        .thenComparing(RollupKey::bucket)
+        .thenComparing(RollupKey::bucketStart);
+
+    private final ProviderRatingStatsRepository statsRepository;
+    private final ProviderRatingRollupRepository rollupRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration settleDelay;
+    private final Duration lateWindow;
+    private final Clock clock;
+    private final ConcurrentHashMap<String, PendingDelta> pending = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<RollupKey, RollupDelta> pendingHours = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ProviderStatsService(ProviderRatingStatsRepository statsRepository,
+                                ProviderRatingRollupRepository rollupRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${feedback.stats.rollup.settle-ms:600000}") long settleMs,
+                                @Value("${feedback.stats.rollup.late-window-ms:3600000}") long lateWindowMs) {
+        this(statsRepository, rollupRepository, transactionManager, settleMs, lateWindowMs, Clock.systemUTC());
+    }
+
+    ProviderStatsService(ProviderRatingStatsRepository statsRepository,
+                         ProviderRatingRollupRepository rollupRepository,
+                         PlatformTransactionManager transactionManager,
+                         long settleMs, long lateWindowMs, Clock clock) {
+        this.statsRepository = statsRepository;
+        this.rollupRepository = rollupRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.settleDelay = Duration.ofMillis(settleMs);
+        this.lateWindow = Duration.ofMillis(lateWindowMs);
+        this.clock = clock;
+    }
+
+    /* Call only for committed feedback; contended providers spread the increments across LongAdder cells */
+    public void record(String providerName, int rating, Instant submittedAt) {
+        pending.computeIfAbsent(providerName, name -> new PendingDelta()).add(rating);
+        // Added under the map's bin lock, so a flush removing the entry sees every increment or none of this one
+        pendingHours.compute(new RollupKey(providerName, ProviderRatingRollupEntity.HOUR,
+                submittedAt.truncatedTo(ChronoUnit.HOURS)),
+            (key, delta) -> (delta == null ? new RollupDelta() : delta).add(rating));
+    }
+
+    @Transactional(readOnly = true)
+    public ProviderStatsResponse getStats(String providerName) {
+        long[] histogram = new long[5];
+        long count = 0;
+        long sum = 0;
+
+        ProviderRatingStatsEntity stored = statsRepository.findById(providerName).orElse(null);
+        if (stored != null) {
+            count = stored.getRatingCount();
+            sum = stored.getRatingSum();
+            histogram[0] = stored.getRating1();
+            histogram[1] = stored.getRating2();
+            histogram[2] = stored.getRating3();
+            histogram[3] = stored.getRating4();
+            histogram[4] = stored.getRating5();
+        }
+
+        PendingDelta delta = pending.get(providerName);
+        if (delta != null) {
+            count += delta.count.sum();
+            sum += delta.sum.sum();
+            for (int i = 0; i < histogram.length; i++) {
+                histogram[i] += delta.histogram[i].sum();
+            }
+        }
+
+        if (count == 0) {
+            throw new ProviderNotFoundException(providerName);
+        }
+
+        Map<Integer, Long> byRating = new LinkedHashMap<>();
+        for (int i = 0; i < histogram.length; i++) {
+            byRating.put(i + 1, histogram[i]);
+        }
+        return new ProviderStatsResponse(providerName, count, (double) sum / count, byRating);
+    }
+
+    /* Reads one stored row per bucket; deltas still pending on any instance show up within a flush interval */
+    @Transactional(readOnly = true)
+    public ProviderTrendResponse getTrend(String providerName, Instant from, Instant to, String bucket) {
+        List<ErrorResponse.FieldError> errors = new ArrayList<>();
+        ChronoUnit unit = null;
+        if (ProviderRatingRollupEntity.HOUR.equals(bucket)) {
+            unit = ChronoUnit.HOURS;
+        } else if (ProviderRatingRollupEntity.DAY.equals(bucket)) {
+            unit = ChronoUnit.DAYS;
+        } else {
+            errors.add(new ErrorResponse.FieldError("bucket", "bucket must be hour or day"));
+        }
+        Instant end = to != null ? to : clock.instant();
+        Instant start = from != null ? from : end.minus(DEFAULT_TREND_RANGE);
+        if (!start.isBefore(end)) {
+            errors.add(new ErrorResponse.FieldError("from", "from must be before to"));
+        } else if (unit != null && Duration.between(start, end).dividedBy(unit.getDuration()) >= MAX_TREND_BUCKETS) {
+            errors.add(new ErrorResponse.FieldError("from", "At most " + MAX_TREND_BUCKETS + " buckets per request"));
+        }
+        if (!errors.isEmpty()) {
+            throw new ValidationException(errors);
+        }
+
+        start = start.truncatedTo(unit);
+        end = ceil(end, unit);
+        List<ProviderTrendResponse.Point> points = rollupRepository.findRange(providerName, bucket, start, end).stream()
+            .map(ProviderStatsService::toPoint)
+            .toList();
+        return new ProviderTrendResponse(providerName, bucket, start, end, points);
+    }
+
+    @Scheduled(fixedDelayString = "${feedback.stats.flush-interval-ms:1000}")
+    public void flush() {
+        // The adders only serve getStats; what is written comes from the hour deltas, so a rating lands in the
+        // totals exactly when it lands in its hour row. A rating recorded mid-drain may be missing from (or
+        // counted twice in) this instance's reads until the next flush, never in the stored rows
+        Map<String, Snapshot> drainedTotals = new HashMap<>();
+        pending.forEach((providerName, delta) -> {
+            Snapshot snapshot = delta.drain();
+            if (snapshot.count() != 0) {
+                drainedTotals.put(providerName, snapshot);
+            }
+        });
+        Map<RollupKey, RollupDelta> drained = new TreeMap<>(LOCK_ORDER);
+        for (RollupKey key : pendingHours.keySet()) {
+            RollupDelta delta = pendingHours.remove(key);
+            if (delta != null) {
+                drained.put(key, delta);
+            }
+        }
+        if (drained.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // Held until commit: the catch-up cannot recount an hour between this check and the upserts below
+                Instant reconciledThrough = rollupRepository.lockReconciledThroughForShare();
+                Map<RollupKey, RollupDelta> writes = new TreeMap<>(LOCK_ORDER);
+                Map<String, RollupDelta> totals = new TreeMap<>();
+                drained.forEach((hour, delta) -> {
+                    if (hour.bucketStart().isBefore(reconciledThrough)) {
+                        // Already recounted from feedback, which includes these ratings if they had committed by then
+                        return;
+                    }
+                    writes.merge(hour, delta, RollupDelta::add);
+                    writes.merge(new RollupKey(hour.providerName(), ProviderRatingRollupEntity.DAY,
+                        hour.bucketStart().truncatedTo(ChronoUnit.DAYS)), new RollupDelta().add(delta), RollupDelta::add);
+                    totals.merge(hour.providerName(), new RollupDelta().add(delta), RollupDelta::add);
+                });
+                // Stats rows before rollup rows, each in key order, on every instance
+                totals.forEach((providerName, delta) -> statsRepository.addDelta(providerName, delta.count, delta.sum,
+                    delta.histogram[0], delta.histogram[1], delta.histogram[2], delta.histogram[3], delta.histogram[4]));
+                writes.forEach((key, delta) -> rollupRepository.addDelta(key.providerName(), key.bucket(),
+                    key.bucketStart(), delta.count, delta.sum,
+                    delta.histogram[0], delta.histogram[1], delta.histogram[2], delta.histogram[3], delta.histogram[4]));
+            });
+        } catch (RuntimeException e) {
+            // Put the deltas back so the next flush retries them
+            drained.forEach((key, delta) -> pendingHours.merge(key, delta, RollupDelta::add));
+            drainedTotals.forEach((providerName, snapshot) ->
+                pending.computeIfAbsent(providerName, name -> new PendingDelta()).restore(snapshot));
+            log.warn("Could not flush rating stats and rollups, will retry", e);
+        }
+    }
+
+    /* Recounts settled hours from feedback, re-derives their days and reconciles the totals; late commits within */
+    /* late-window-ms are picked up by recounting that far behind the watermark again on every run */
+    @Scheduled(fixedDelayString = "${feedback.stats.rollup.catch-up-interval-ms:300000}")
+    public void catchUpRollups() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Instant reconciledThrough = rollupRepository.lockReconciledThroughForUpdate();
+                Instant settled = clock.instant().minus(settleDelay).truncatedTo(ChronoUnit.HOURS);
+                Instant limit = reconciledThrough.plus(MAX_CATCH_UP_PER_RUN);
+                Instant to = settled.isAfter(limit) ? limit : settled.isAfter(reconciledThrough) ? settled : reconciledThrough;
+                Instant from = reconciledThrough.minus(lateWindow).truncatedTo(ChronoUnit.HOURS);
+
+                // The totals include these hour rows as they stand; swap them for the recounted ones
+                statsRepository.subtractHours(from, to);
+                int hours = rollupRepository.recountHours(from, to,
+                    UuidV7Generator.lowerBound(from.minus(FeedbackRepository.ID_TIME_MARGIN)),
+                    UuidV7Generator.lowerBound(to.plus(FeedbackRepository.ID_TIME_MARGIN)));
+                statsRepository.addHours(from, to);
+                // Whole days, so each day row is the sum of all its hour rows, recounted or not
+                rollupRepository.rollUpDays(from.truncatedTo(ChronoUnit.DAYS), ceil(to, ChronoUnit.DAYS));
+                rollupRepository.setReconciledThrough(to);
+                log.debug("Recounted {} provider hours in [{}, {})", hours, from, to);
+            });
+        } catch (RuntimeException e) {
+            log.warn("Could not recount rating rollups, will retry", e);
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    private static Instant ceil(Instant instant, ChronoUnit unit) {
+        Instant floor = instant.truncatedTo(unit);
+        return floor.equals(instant) ? floor : floor.plus(1, unit);
+    }
+
+    private static ProviderTrendResponse.Point toPoint(ProviderRatingRollupEntity row) {
+        Map<Integer, Long> byRating = new LinkedHashMap<>();
+        byRating.put(1, row.getRating1());
+        byRating.put(2, row.getRating2());
+        byRating.put(3, row.getRating3());
+        byRating.put(4, row.getRating4());
+        byRating.put(5, row.getRating5());
+        return new ProviderTrendResponse.Point(row.getBucketStart(), row.getRatingCount(),
+            (double) row.getRatingSum() / row.getRatingCount(), byRating);
+    }
+
+    private record Snapshot(long count, long sum, long[] histogram) {
+    }
+
+    private record RollupKey(String providerName, String bucket, Instant bucketStart) {
+    }
+
+    /* Only touched inside ConcurrentHashMap compute/merge or after removal from the map, so plain fields suffice */
+    private static final class RollupDelta {
+        private long count;
+        private long sum;
+        private final long[] histogram = new long[5];
+
+        RollupDelta add(int rating) {
+            histogram[rating - 1]++;
+            sum += rating;
+            count++;
+            return this;
+        }
+
+        RollupDelta add(RollupDelta other) {
+            count += other.count;
+            sum += other.sum;
+            for (int i = 0; i < histogram.length; i++) {
+                histogram[i] += other.histogram[i];
+            }
+            return this;
+        }
+    }
+
+    private static final class PendingDelta {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final LongAdder[] histogram = {
+            new LongAdder(), new LongAdder(), new LongAdder(), new LongAdder(), new LongAdder()
+        };
+
+        void add(int rating) {
+            histogram[rating - 1].increment();
+            sum.add(rating);
+            count.increment();
+        }
+
+        /* Each adder is swapped to zero atomically, so concurrent increments land in this flush or the next */
+        Snapshot drain() {
+            long[] counts = new long[histogram.length];
+            for (int i = 0; i < histogram.length; i++) {
+                counts[i] = histogram[i].sumThenReset();
+            }
+            return new Snapshot(count.sumThenReset(), sum.sumThenReset(), counts);
+        }
+
+        void restore(Snapshot snapshot) {
+            count.add(snapshot.count());
+            sum.add(snapshot.sum());
+            for (int i = 0; i < histogram.length; i++) {
+                histogram[i].add(snapshot.histogram()[i]);
+            }
+        }
+    }
+}
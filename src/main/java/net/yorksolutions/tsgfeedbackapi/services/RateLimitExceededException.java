@@ -0,0 +1,23 @@
+package net.yorksolutions.tsgfeedbackapi.services;
+
+import java.time.Duration;
+
+public class RateLimitExceededException extends RuntimeException {
+    private final String field;
+    private final Duration retryAfter;
+
+    public RateLimitExceededException(String field, String message, Duration retryAfter) {
+        // Thrown on the hot path of a misbehaving client; the stack trace is never logged
+        super(message, null, false, false);
+        this.field = field;
+        this.retryAfter = retryAfter;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,9 @@
+package net.yorksolutions.tsgfeedbackapi.services;
+
+import java.util.UUID;
+
+public class SubmissionNotFoundException extends RuntimeException {
+    public SubmissionNotFoundException(UUID trackingId) {
+        super("Submission not found with tracking id: " + trackingId);
+    }
+}
@@ -0,0 +1,7 @@
+package net.yorksolutions.tsgfeedbackapi.services;
+
+public class SubmissionQueueFullException extends RuntimeException {
+    public SubmissionQueueFullException() {
+        super("Submission queue is full, please retry");
+    }
+}
@@ -0,0 +1,213 @@
+package net.yorksolutions.tsgfeedbackapi.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import net.yorksolutions.tsgfeedbackapi.dtos.ErrorResponse;
+import net.yorksolutions.tsgfeedbackapi.dtos.FeedbackRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/* SubmissionRateLimiter */
+/* Per-member and global limits on feedback submissions, checked before any database work */
+/* Each bucket is a GCRA (virtual scheduling) token bucket: a single AtomicLong holding the theoretical arrival */
+/* time, advanced with one CAS per accepted request - no locks and no refill thread */
+/* Member buckets live in a size-bounded Caffeine cache; an idle bucket is full again after its burst window, */
+/* so expiring it after that loses nothing */
+/* The global limit is one bucket too: a CAS per submission is cheap next to the insert it guards, and a single word */
+/* keeps the limit exact and lets a batch use the whole burst */
+/* A batch that costs more than a full bucket could ever hold is refused with 400, not a 429 that can never succeed */
+/* Runs before validation, so a member id validation would reject gets no bucket: otherwise any client-supplied */
+/* string could be pinned in the cache; such requests still count against the global limit */
+@Service
+public class SubmissionRateLimiter {
+    static final String MEMBER_FIELD = "memberId";
+    static final String GLOBAL_FIELD = "service";
+
+    private final boolean enabled;
+    private final LongSupplier nanoClock;
+    private final long memberInterval;
+    private final long memberTolerance;
+    private final int memberBurst;
+    private final Cache<String, AtomicLong> memberBuckets;
+    private final long globalInterval;
+    private final long globalTolerance;
+    private final int globalBurst;
+    private final AtomicLong globalBucket = new AtomicLong(Long.MIN_VALUE);
+    private final Counter memberRejections;
+    private final Counter globalRejections;
+
+    @Autowired
+    public SubmissionRateLimiter(MeterRegistry meterRegistry,
+                                 @Value("${feedback.rate-limit.enabled:true}") boolean enabled,
+                                 @Value("${feedback.rate-limit.member.per-second:5}") double memberPerSecond,
+                                 @Value("${feedback.rate-limit.member.burst:20}") int memberBurst,
+                                 @Value("${feedback.rate-limit.member.max-members:100000}") long maxMembers,
+                                 @Value("${feedback.rate-limit.global.per-second:5000}") double globalPerSecond,
+                                 @Value("${feedback.rate-limit.global.burst:10000}") int globalBurst) {
+        this(meterRegistry, enabled, memberPerSecond, memberBurst, maxMembers, globalPerSecond, globalBurst, System::nanoTime);
+    }
+
+    SubmissionRateLimiter(MeterRegistry meterRegistry, boolean enabled,
+                          double memberPerSecond, int memberBurst, long maxMembers,
+                          double globalPerSecond, int globalBurst, LongSupplier nanoClock) {
+        this.enabled = enabled;
+        this.nanoClock = nanoClock;
+
+        this.memberInterval = intervalNanos(memberPerSecond);
+        this.memberTolerance = memberInterval * memberBurst;
+        this.memberBurst = memberBurst;
+        this.memberBuckets = Caffeine.newBuilder()
+            .maximumSize(maxMembers)
+            .expireAfterAccess(Duration.ofNanos(Math.max(memberTolerance, TimeUnit.SECONDS.toNanos(1))))
+            .recordStats()
+            .build();
+
+        this.globalInterval = intervalNanos(globalPerSecond);
+        this.globalTolerance = globalInterval * globalBurst;
+        this.globalBurst = globalBurst;
+
+        CaffeineCacheMetrics.monitor(meterRegistry, memberBuckets, "feedback.rate-limit.members");
+        this.memberRejections = Counter.builder("feedback.rate-limit.rejected")
+            .description("Submissions refused with 429")
+            .tag("scope", "member")
+            .register(meterRegistry);
+        this.globalRejections = Counter.builder("feedback.rate-limit.rejected")
+            .description("Submissions refused with 429")
+            .tag("scope", "global")
+            .register(meterRegistry);
+    }
+
+    /* Takes one permit for the member and one from the global limit, or throws RateLimitExceededException */
+    public void acquire(String memberId) {
+        if (!enabled) {
+            return;
+        }
+        acquireMember(memberId, 1);
+        acquireGlobal(memberId, 1);
+    }
+
+    /* Batch submissions are charged one permit per item, against each item's member */
+    /* A batch larger than a full bucket is a ValidationException: waiting would never let it through */
+    public void acquire(List<FeedbackRequest> requests) {
+        if (!enabled || requests.isEmpty()) {
+            return;
+        }
+        Map<String, Integer> perMember = new HashMap<>();
+        for (FeedbackRequest request : requests) {
+            if (request != null && hasBucket(request.memberId())) {
+                perMember.merge(request.memberId(), 1, Integer::sum);
+            }
+        }
+        checkBatchFits(requests.size(), perMember);
+        Map<String, Integer> charged = new HashMap<>();
+        try {
+            perMember.forEach((memberId, permits) -> {
+                acquireMember(memberId, permits);
+                charged.put(memberId, permits);
+            });
+            acquireGlobal(null, requests.size());
+        } catch (RateLimitExceededException e) {
+            charged.forEach(this::refundMember);
+            throw e;
+        }
+    }
+
+    private void checkBatchFits(int items, Map<String, Integer> perMember) {
+        List<ErrorResponse.FieldError> errors = new ArrayList<>();
+        if (globalInterval != 0 && items > globalBurst) {
+            errors.add(new ErrorResponse.FieldError("requests",
+                "Batch has " + items + " items; at most " + globalBurst + " can be accepted at once"));
+        }
+        if (memberInterval != 0) {
+            perMember.forEach((memberId, permits) -> {
+                if (permits > memberBurst) {
+                    errors.add(new ErrorResponse.FieldError(MEMBER_FIELD, "Batch has " + permits + " items for member "
+                        + memberId + "; at most " + memberBurst + " per member can be accepted at once"));
+                }
+            });
+        }
+        if (!errors.isEmpty()) {
+            throw new ValidationException(errors);
+        }
+    }
+
+    private void acquireMember(String memberId, int permits) {
+        if (!hasBucket(memberId) || memberInterval == 0) {
+            // Rejected by validation afterwards; still counted against the global limit
+            return;
+        }
+        AtomicLong bucket = memberBuckets.get(memberId, key -> new AtomicLong(Long.MIN_VALUE));
+        long wait = tryTake(bucket, memberInterval, memberTolerance, permits);
+        if (wait > 0) {
+            memberRejections.increment();
+            throw new RateLimitExceededException(MEMBER_FIELD,
+                "Too many submissions for this member, please retry later", Duration.ofNanos(wait));
+        }
+    }
+
+    private void acquireGlobal(String memberId, int permits) {
+        if (globalInterval == 0) {
+            return;
+        }
+        long wait = tryTake(globalBucket, globalInterval, globalTolerance, permits);
+        if (wait > 0) {
+            // The member's permit was spent on a request that is not going to run
+            refundMember(memberId, 1);
+            globalRejections.increment();
+            throw new RateLimitExceededException(GLOBAL_FIELD,
+                "Service is receiving too many submissions, please retry later", Duration.ofNanos(wait));
+        }
+    }
+
+    private void refundMember(String memberId, int permits) {
+        if (!hasBucket(memberId) || memberInterval == 0) {
+            return;
+        }
+        AtomicLong bucket = memberBuckets.getIfPresent(memberId);
+        if (bucket != null) {
+            bucket.addAndGet(-memberInterval * permits);
+        }
+    }
+
+    /* Only ids FeedbackRequestValidator would accept */
+    private static boolean hasBucket(String memberId) {
+        return memberId != null && !memberId.isBlank()
+            && memberId.length() <= FeedbackRequestValidator.MEMBER_ID_MAX_LENGTH;
+    }
+
+    /* GCRA: admit when the new theoretical arrival time is within tolerance of now; returns 0 or the wait in nanos */
+    private long tryTake(AtomicLong tat, long interval, long tolerance, int permits) {
+        long cost = interval * permits;
+        while (true) {
+            // Read the bucket before the clock: a thread descheduled in between then sees a fresh clock
+            // against an older bucket (at worst a failed CAS), never a stale clock against a newer bucket
+            long current = tat.get();
+            long now = nanoClock.getAsLong();
+            long next = Math.max(current, now) + cost;
+            long excess = next - now - tolerance;
+            if (excess > 0) {
+                return excess;
+            }
+            if (tat.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    private static long intervalNanos(double perSecond) {
+        return perSecond <= 0 ? 0 : Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / perSecond));
+    }
+}
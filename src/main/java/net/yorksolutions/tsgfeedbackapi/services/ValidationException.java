@@ -3,11 +3,12 @@ package net.yorksolutions.tsgfeedbackapi.services;
 import net.yorksolutions.tsgfeedbackapi.dtos.ErrorResponse;
 import java.util.List;
 
+/* Stackless: it only ever becomes a 400 body, so filling in a stack trace per bad request is wasted work */
 public class ValidationException extends RuntimeException {    
     private final List<ErrorResponse.FieldError> fieldErrors;
 
     public ValidationException(List<ErrorResponse.FieldError> fieldErrors) {
-        super("Validation failed");
+        super("Validation failed", null, false, false);
         this.fieldErrors = fieldErrors;
     }
 
@@ -0,0 +1,26 @@
+-- Feedback submitted by members about providers
+CREATE TABLE feedback (
+    id            uuid         PRIMARY KEY,
+    member_id     varchar(36)  NOT NULL,
+    provider_name varchar(80)  NOT NULL,
+    rating        integer      NOT NULL,
+    comment       varchar(200),
+    submitted_at  timestamptz  NOT NULL
+);
+
+-- Member listing: keyset pages ordered by (submitted_at, id) newest first
+CREATE INDEX idx_feedback_member_submitted ON feedback (member_id, submitted_at DESC, id DESC);
+
+-- Provider reporting over a time range
+CREATE INDEX idx_feedback_provider_submitted ON feedback (provider_name, submitted_at);
+
+-- Transactional outbox drained by FeedbackOutboxRelay
+CREATE TABLE feedback_outbox (
+    id           uuid          PRIMARY KEY,
+    aggregate_id varchar(36)   NOT NULL,
+    topic        varchar(120)  NOT NULL,
+    payload      text          NOT NULL,
+    created_at   timestamptz   NOT NULL
+);
+
+CREATE INDEX idx_feedback_outbox_created ON feedback_outbox (created_at, id);
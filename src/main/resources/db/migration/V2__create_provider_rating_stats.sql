@@ -0,0 +1,27 @@
+-- Running rating aggregates per provider, maintained incrementally by ProviderStatsService
+CREATE TABLE provider_rating_stats (
+    provider_name varchar(80)  PRIMARY KEY,
+    rating_count  bigint       NOT NULL,
+    rating_sum    bigint       NOT NULL,
+    rating_1      bigint       NOT NULL,
+    rating_2      bigint       NOT NULL,
+    rating_3      bigint       NOT NULL,
+    rating_4      bigint       NOT NULL,
+    rating_5      bigint       NOT NULL,
+    updated_at    timestamptz  NOT NULL
+);
+
+-- One-time backfill from feedback written before the aggregates existed
+INSERT INTO provider_rating_stats (provider_name, rating_count, rating_sum,
+                                   rating_1, rating_2, rating_3, rating_4, rating_5, updated_at)
+SELECT provider_name,
+       count(*),
+       sum(rating),
+       count(*) FILTER (WHERE rating = 1),
+       count(*) FILTER (WHERE rating = 2),
+       count(*) FILTER (WHERE rating = 3),
+       count(*) FILTER (WHERE rating = 4),
+       count(*) FILTER (WHERE rating = 5),
+       now()
+FROM feedback
+GROUP BY provider_name;
@@ -0,0 +1,12 @@
+-- Idempotency-Key values seen on POST /api/v1/feedback, scoped to the submitting member
+-- The primary key is the duplicate detector of last resort behind the in-memory cache
+CREATE TABLE feedback_idempotency_key (
+    member_id        varchar(36)  NOT NULL,
+    idempotency_key  varchar(100) NOT NULL,
+    feedback_id      uuid         NOT NULL,
+    created_at       timestamptz  NOT NULL,
+    PRIMARY KEY (member_id, idempotency_key)
+);
+
+-- Expired keys are purged oldest first
+CREATE INDEX idx_feedback_idempotency_key_created ON feedback_idempotency_key (created_at);
@@ -0,0 +1,56 @@
+-- Per-provider rating rollups by UTC hour and day, behind GET /api/v1/providers/{providerName}/trend
+-- Maintained by ProviderStatsService: additive deltas as feedback commits, exact recounts once an hour has settled
+CREATE TABLE provider_rating_rollup (
+    provider_name varchar(80)  NOT NULL,
+    bucket        varchar(4)   NOT NULL CHECK (bucket IN ('hour', 'day')),
+    bucket_start  timestamptz  NOT NULL,
+    rating_count  bigint       NOT NULL,
+    rating_sum    bigint       NOT NULL,
+    rating_1      bigint       NOT NULL,
+    rating_2      bigint       NOT NULL,
+    rating_3      bigint       NOT NULL,
+    rating_4      bigint       NOT NULL,
+    rating_5      bigint       NOT NULL,
+    updated_at    timestamptz  NOT NULL,
+    PRIMARY KEY (provider_name, bucket, bucket_start)
+);
+
+-- Re-deriving day rows from recently recounted hours, across all providers
+CREATE INDEX idx_provider_rating_rollup_hour ON provider_rating_rollup (bucket_start) WHERE bucket = 'hour';
+
+-- Hours before reconciled_through hold exact recounts and take no more deltas; later hours are still delta-maintained
+-- Deltas take this row FOR SHARE and the recount FOR UPDATE, so a delta is never added to an hour already recounted
+CREATE TABLE provider_rating_rollup_state (
+    id                  smallint     PRIMARY KEY CHECK (id = 1),
+    reconciled_through  timestamptz  NOT NULL
+);
+
+-- One-time backfill from feedback written before the rollups existed
+INSERT INTO provider_rating_rollup (provider_name, bucket, bucket_start, rating_count, rating_sum,
+                                    rating_1, rating_2, rating_3, rating_4, rating_5, updated_at)
+SELECT provider_name,
+       'hour',
+       date_trunc('hour', submitted_at, 'UTC'),
+       count(*),
+       sum(rating),
+       count(*) FILTER (WHERE rating = 1),
+       count(*) FILTER (WHERE rating = 2),
+       count(*) FILTER (WHERE rating = 3),
+       count(*) FILTER (WHERE rating = 4),
+       count(*) FILTER (WHERE rating = 5),
+       now()
+FROM feedback
+GROUP BY provider_name, date_trunc('hour', submitted_at, 'UTC');
+
+INSERT INTO provider_rating_rollup (provider_name, bucket, bucket_start, rating_count, rating_sum,
+                                    rating_1, rating_2, rating_3, rating_4, rating_5, updated_at)
+SELECT provider_name, 'day', date_trunc('day', bucket_start, 'UTC'),
+       sum(rating_count), sum(rating_sum),
+       sum(rating_1), sum(rating_2), sum(rating_3), sum(rating_4), sum(rating_5),
+       now()
+FROM provider_rating_rollup
+WHERE bucket = 'hour'
+GROUP BY provider_name, date_trunc('day', bucket_start, 'UTC');
+
+-- The current hour is recounted by the first catch-up run after it settles
+INSERT INTO provider_rating_rollup_state (id, reconciled_through) VALUES (1, date_trunc('hour', now(), 'UTC'));
@@ -0,0 +1,45 @@
+-- Range-partition feedback by submitted_at month (UTC), one table per month named feedback_yyyy_mm
+-- Retention detaches and drops whole partitions instead of DELETEing rows; see FeedbackPartitionMaintenance,
+-- which also keeps partitions created ahead of the current month
+-- The primary key must include the partition key; ids are still unique because they are generated v7 UUIDs
+SET LOCAL TIME ZONE 'UTC';
+
+ALTER TABLE feedback RENAME TO feedback_unpartitioned;
+ALTER INDEX feedback_pkey RENAME TO feedback_unpartitioned_pkey;
+ALTER INDEX idx_feedback_member_submitted RENAME TO idx_feedback_unpartitioned_member_submitted;
+ALTER INDEX idx_feedback_provider_submitted RENAME TO idx_feedback_unpartitioned_provider_submitted;
+
+CREATE TABLE feedback (
+    id            uuid         NOT NULL,
+    member_id     varchar(36)  NOT NULL,
+    provider_name varchar(80)  NOT NULL,
+    rating        integer      NOT NULL,
+    comment       varchar(200),
+    submitted_at  timestamptz  NOT NULL,
+    PRIMARY KEY (id, submitted_at)
+) PARTITION BY RANGE (submitted_at);
+
+-- Created on every partition, current and future
+CREATE INDEX idx_feedback_member_submitted ON feedback (member_id, submitted_at DESC, id DESC);
+CREATE INDEX idx_feedback_provider_submitted ON feedback (provider_name, submitted_at);
+
+-- From the oldest existing row (at least last month) through three months ahead
+DO $$
+DECLARE
+    month timestamptz := date_trunc('month', least((SELECT min(submitted_at) FROM feedback_unpartitioned),
+                                                   now() - interval '1 month'));
+BEGIN
+    WHILE month <= date_trunc('month', now()) + interval '3 months' LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF feedback FOR VALUES FROM (%L) TO (%L)',
+                       'feedback_' || to_char(month, 'YYYY_MM'), month, month + interval '1 month');
+        month := month + interval '1 month';
+    END LOOP;
+END $$;
+
+INSERT INTO feedback (id, member_id, provider_name, rating, comment, submitted_at)
+SELECT id, member_id, provider_name, rating, comment, submitted_at
+FROM feedback_unpartitioned;
+
+DROP TABLE feedback_unpartitioned;
+
+ANALYZE feedback;
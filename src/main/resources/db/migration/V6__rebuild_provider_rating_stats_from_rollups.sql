@@ -0,0 +1,20 @@
+-- From here on ProviderStatsService keeps each provider's totals equal to the sum of its hour rollup rows
+-- (the same deltas go to both in one transaction, and catch-up moves the totals by what each recount changed)
+-- One-time rebuild from the day rows, each the sum of its hours, to start from that state
+INSERT INTO provider_rating_stats AS s (provider_name, rating_count, rating_sum,
+                                        rating_1, rating_2, rating_3, rating_4, rating_5, updated_at)
+SELECT provider_name, sum(rating_count), sum(rating_sum),
+       sum(rating_1), sum(rating_2), sum(rating_3), sum(rating_4), sum(rating_5),
+       now()
+FROM provider_rating_rollup
+WHERE bucket = 'day'
+GROUP BY provider_name
+ON CONFLICT (provider_name) DO UPDATE SET
+    rating_count = EXCLUDED.rating_count,
+    rating_sum   = EXCLUDED.rating_sum,
+    rating_1     = EXCLUDED.rating_1,
+    rating_2     = EXCLUDED.rating_2,
+    rating_3     = EXCLUDED.rating_3,
+    rating_4     = EXCLUDED.rating_4,
+    rating_5     = EXCLUDED.rating_5,
+    updated_at   = now();
@@ -0,0 +1,3 @@
+-- FeedbackOutboxRelay claims a batch in one short transaction, sends it with no transaction open, and deletes
+-- it in another; until claimed_until passes, other relays skip the batch. NULL means unclaimed
+ALTER TABLE feedback_outbox ADD COLUMN claimed_until timestamptz;
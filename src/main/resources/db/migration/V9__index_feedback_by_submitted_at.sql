@@ -0,0 +1,4 @@
+-- Serves exports filtered only by time (or not at all) in their oldest-first order, so the cursor streams rows
+-- from the first fetch instead of after a sort of the whole range; also cascades to partitions created later
+-- Building it blocks writes to feedback (about 2s per 2M rows)
+CREATE INDEX idx_feedback_submitted ON feedback (submitted_at, id);
@@ -0,0 +1,163 @@
+package net.yorksolutions.tsgfeedbackapi.benchmarks;
+
+import com.sun.management.ThreadMXBean;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import net.yorksolutions.tsgfeedbackapi.dtos.FeedbackResponse;
+import net.yorksolutions.tsgfeedbackapi.repositories.FeedbackRepository;
+import net.yorksolutions.tsgfeedbackapi.repositories.entities.FeedbackEntity;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ * Read benchmark: one 1,000-row member read as managed entities + mapToResponse vs the FeedbackResponse
+ * constructor projection now used by FeedbackRepository
+ * Both run in a read-only transaction, as getFeedbackByMemberId does; reports latency and bytes allocated per read
+ *
+ * Opt-in, it needs a real database:
+ *   mvn test -Dtest=MemberReadProjectionBenchmarkTest -Dbenchmarks=true [-Dbenchmark.iterations=2000]
+ * Uses a Testcontainers Postgres unless -Dbenchmark.jdbc-url (plus .user/.password) points at a real one
+*/
+@Slf4j
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+public class MemberReadProjectionBenchmarkTest {
+
+    private static final String MEMBER = "bench-projection-member";
+    private static final int ROWS = 1_000;
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 2_000);
+
+    private static PostgreSQLContainer<?> postgres;
+
+    @Autowired
+    private FeedbackRepository feedbackRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        String url = System.getProperty("benchmark.jdbc-url");
+        if (url == null) {
+            postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+            postgres.start();
+            registry.add("spring.datasource.url", postgres::getJdbcUrl);
+            registry.add("spring.datasource.username", postgres::getUsername);
+            registry.add("spring.datasource.password", postgres::getPassword);
+        } else {
+            registry.add("spring.datasource.url", () -> url);
+            registry.add("spring.datasource.username", () -> System.getProperty("benchmark.user", "postgres"));
+            registry.add("spring.datasource.password", () -> System.getProperty("benchmark.password", "postgres"));
+        }
+    }
+
+    @AfterAll
+    static void stopContainer() {
+        if (postgres != null) {
+            postgres.stop();
+        }
+    }
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("DELETE FROM feedback WHERE member_id = ?", MEMBER);
+        jdbcTemplate.update("""
+            INSERT INTO feedback (id, member_id, provider_name, rating, comment, submitted_at)
+            SELECT gen_random_uuid(), ?, 'provider-' || (n % 50), 1 + (n % 5), 'Benchmark comment ' || n,
+                   now() - (n || ' seconds')::interval
+            FROM generate_series(1, ?) AS n
+            """, MEMBER, ROWS);
+        jdbcTemplate.execute("ANALYZE feedback");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM feedback WHERE member_id = ?", MEMBER);
+    }
+
+    @Test
+    void compareEntityAndProjectionReads() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        // The previous read path: hydrate managed entities, then copy each into a response
+        Supplier<List<FeedbackResponse>> entities = () -> readOnly.execute(status -> entityManager.createQuery("""
+                select f from FeedbackEntity f
+                where f.memberId = :memberId
+                order by f.submittedAt desc, f.id desc
+                """, FeedbackEntity.class)
+            .setParameter("memberId", MEMBER)
+            .setMaxResults(ROWS)
+            .getResultList()
+            .stream()
+            .map(FeedbackResponse::fromEntity)
+            .toList());
+        Supplier<List<FeedbackResponse>> projection = () -> readOnly.execute(status ->
+            feedbackRepository.findPageByMemberId(MEMBER, Limit.of(ROWS)));
+
+        assertEquals(entities.get(), projection.get());
+
+        // Alternate the two so neither benefits from a warmer JIT, pool or buffer cache
+        Result entityResult = null;
+        Result projectionResult = null;
+        for (int round = 0; round < 2; round++) {
+            entityResult = run(entities);
+            projectionResult = run(projection);
+        }
+
+        log.info(String.format("%n%-12s %18s %22s%n%-12s %18.0f %22.0f%n%-12s %18.0f %22.0f",
+            "1,000 rows", "latency (us/read)", "allocated (KB/read)",
+            "entities", entityResult.micros(), entityResult.bytes() / 1024.0,
+            "projection", projectionResult.micros(), projectionResult.bytes() / 1024.0));
+
+        assertTrue(projectionResult.bytes() < entityResult.bytes(),
+            "Projection should allocate less per read than entity hydration");
+    }
+
+    private Result run(Supplier<List<FeedbackResponse>> read) {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        int rows = 0;
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            rows += read.get().size();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        assertEquals(ITERATIONS * ROWS, rows);
+        return new Result(elapsed / 1_000.0 / ITERATIONS, (double) allocated / ITERATIONS);
+    }
+
+    private record Result(double micros, double bytes) {
+    }
+}
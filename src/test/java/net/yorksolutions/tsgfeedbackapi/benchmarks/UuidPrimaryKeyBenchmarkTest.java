@@ -0,0 +1,116 @@
+package net.yorksolutions.tsgfeedbackapi.benchmarks;
+
+import lombok.extern.slf4j.Slf4j;
+import net.yorksolutions.tsgfeedbackapi.repositories.entities.UuidV7Generator;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ * Insert benchmark: random v4 vs time-ordered v7 primary keys on the feedback table shape
+ * Reports rows/second and primary key index size for each id strategy
+ *
+ * Opt-in, it is far too slow for the regular build:
+ *   mvn test -Dtest=UuidPrimaryKeyBenchmarkTest -Dbenchmarks=true [-Dbenchmark.rows=10000000]
+ * Uses a Testcontainers Postgres unless -Dbenchmark.jdbc-url (plus .user/.password) points at a real one
+*/
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+public class UuidPrimaryKeyBenchmarkTest {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 10_000_000);
+    private static final int BATCH_SIZE = 1_000;
+
+    private static PostgreSQLContainer<?> postgres;
+    private static Connection connection;
+
+    @BeforeAll
+    static void connect() throws SQLException {
+        String url = System.getProperty("benchmark.jdbc-url");
+        String user = System.getProperty("benchmark.user", "postgres");
+        String password = System.getProperty("benchmark.password", "postgres");
+        if (url == null) {
+            postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+            postgres.start();
+            url = postgres.getJdbcUrl();
+            user = postgres.getUsername();
+            password = postgres.getPassword();
+        }
+        connection = DriverManager.getConnection(url + (url.contains("?") ? "&" : "?") + "reWriteBatchedInserts=true",
+            user, password);
+    }
+
+    @AfterAll
+    static void disconnect() throws SQLException {
+        connection.close();
+        if (postgres != null) {
+            postgres.stop();
+        }
+    }
+
+    @Test
+    void compareInsertThroughputAndIndexSize() throws SQLException {
+        Result v4 = run("bench_feedback_v4", UUID::randomUUID);
+        Result v7 = run("bench_feedback_v7", UuidV7Generator::next);
+
+        log.info(String.format("%n%-10s %15s %18s%n%-10s %15.0f %18.1f%n%-10s %15.0f %18.1f",
+            "ids", "rows/s", "pkey index (MB)",
+            "uuid v4", v4.rowsPerSecond(), v4.indexBytes() / 1_048_576.0,
+            "uuid v7", v7.rowsPerSecond(), v7.indexBytes() / 1_048_576.0));
+
+        // Appending to the right edge of the btree should never produce a bigger index than random inserts
+        assertTrue(v7.indexBytes() <= v4.indexBytes());
+    }
+
+    private Result run(String table, Supplier<UUID> ids) throws SQLException {
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("DROP TABLE IF EXISTS " + table);
+            ddl.execute("CREATE TABLE " + table + " (id uuid PRIMARY KEY, member_id varchar(36) NOT NULL, "
+                + "provider_name varchar(80) NOT NULL, rating integer NOT NULL, comment varchar(200), "
+                + "submitted_at timestamptz NOT NULL)");
+        }
+
+        long start = System.nanoTime();
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO " + table
+                + " (id, member_id, provider_name, rating, comment, submitted_at) VALUES (?, ?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < ROWS; i++) {
+                insert.setObject(1, ids.get());
+                insert.setString(2, "m-" + (i % 100_000));
+                insert.setString(3, "provider-" + (i % 500));
+                insert.setInt(4, 1 + i % 5);
+                insert.setString(5, "Benchmark comment");
+                insert.setTimestamp(6, Timestamp.from(Instant.now()));
+                insert.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        try (Statement query = connection.createStatement();
+             ResultSet size = query.executeQuery("SELECT pg_relation_size('" + table + "_pkey')")) {
+            size.next();
+            return new Result(ROWS / seconds, size.getLong(1));
+        }
+    }
+
+    private record Result(double rowsPerSecond, long indexBytes) {
+    }
+}
@@ -2,9 +2,20 @@ package net.yorksolutions.tsgfeedbackapi.controllers;
 
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import net.yorksolutions.tsgfeedbackapi.dtos.BatchFeedbackResponse;
+import net.yorksolutions.tsgfeedbackapi.dtos.FeedbackPage;
+import net.yorksolutions.tsgfeedbackapi.dtos.FeedbackSearchPage;
 import net.yorksolutions.tsgfeedbackapi.dtos.FeedbackRequest;
 import net.yorksolutions.tsgfeedbackapi.dtos.FeedbackResponse;
+import net.yorksolutions.tsgfeedbackapi.services.AsyncFeedbackSubmissions;
+import net.yorksolutions.tsgfeedbackapi.services.FeedbackExportService;
+import net.yorksolutions.tsgfeedbackapi.services.FeedbackSearchIndex;
 import net.yorksolutions.tsgfeedbackapi.services.FeedbackService;
+import net.yorksolutions.tsgfeedbackapi.services.GroupCommitCoalescer;
+import net.yorksolutions.tsgfeedbackapi.services.IdempotentFeedbackSubmissions;
+import net.yorksolutions.tsgfeedbackapi.services.RateLimitExceededException;
+import net.yorksolutions.tsgfeedbackapi.services.SubmissionQueueFullException;
+import net.yorksolutions.tsgfeedbackapi.services.SubmissionRateLimiter;
 import org.junit.jupiter.api.Test;
 
 
@@ -14,16 +25,26 @@ import org.springframework.http.MediaType;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.transaction.CannotCreateTransactionException;
 
 
+import java.io.OutputStream;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -40,6 +61,24 @@ public class FeedbackControllerTest {
     @MockitoBean
     private FeedbackService feedbackService;
 
+    @MockitoBean
+    private AsyncFeedbackSubmissions asyncSubmissions;
+
+    @MockitoBean
+    private GroupCommitCoalescer groupCommit;
+
+    @MockitoBean
+    private IdempotentFeedbackSubmissions idempotentSubmissions;
+
+    @MockitoBean
+    private FeedbackExportService exportService;
+
+    @MockitoBean
+    private SubmissionRateLimiter rateLimiter;
+
+    @MockitoBean
+    private FeedbackSearchIndex searchIndex;
+
     @Test
     void submitFeedback_happyPath_ResponseEntityCreated() throws Exception {
         //Arrange
@@ -63,6 +102,66 @@ public class FeedbackControllerTest {
         verify(feedbackService).createFeedback(any(FeedbackRequest.class));
     }
 
+    @Test
+    void submitFeedback_groupCommitEnabled_UsesCoalescer() throws Exception {
+        //Arrange
+        FeedbackRequest request = new FeedbackRequest("m-101", "Dr. Phill", 4, "Cool guy.");
+        FeedbackResponse response = new FeedbackResponse(UUID.randomUUID(), "m-101", "Dr. Phill", 4, "Cool guy.", Instant.now());
+
+        when(groupCommit.isEnabled()).thenReturn(true);
+        when(groupCommit.submit(any(FeedbackRequest.class))).thenReturn(response);
+        //Act
+        ResultActions resultActions = mockMvc.perform(post("/api/v1/feedback")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)));
+        //Assert
+        resultActions.andExpect(status().isCreated())
+                .andExpect(MockMvcResultMatchers.content().json(objectMapper.writeValueAsString(response)));
+
+        verify(feedbackService, never()).createFeedback(any(FeedbackRequest.class));
+    }
+
+    @Test
+    void submitFeedback_idempotencyKeyReplay_ReturnsOriginalWithReplayedHeader() throws Exception {
+        //Arrange
+        FeedbackRequest request = new FeedbackRequest("m-101", "Dr. Phill", 4, "Cool guy.");
+        FeedbackResponse original = new FeedbackResponse(UUID.randomUUID(), "m-101", "Dr. Phill", 4, "Cool guy.", Instant.now());
+
+        when(idempotentSubmissions.submit(any(FeedbackRequest.class), eq("retry-1")))
+                .thenReturn(new IdempotentFeedbackSubmissions.Result(original, true));
+        //Act
+        ResultActions resultActions = mockMvc.perform(post("/api/v1/feedback")
+            .header("Idempotency-Key", "retry-1")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)));
+        //Assert
+        resultActions.andExpect(status().isCreated())
+                .andExpect(MockMvcResultMatchers.header().string("Idempotent-Replayed", "true"))
+                .andExpect(MockMvcResultMatchers.content().json(objectMapper.writeValueAsString(original)));
+
+        verifyNoInteractions(feedbackService);
+    }
+
+    @Test
+    void submitFeedback_rateLimited_Returns429WithRetryAfter() throws Exception {
+        //Arrange
+        FeedbackRequest request = new FeedbackRequest("m-101", "Dr. Phill", 4, "Cool guy.");
+
+        doThrow(new RateLimitExceededException("memberId", "Too many submissions for this member, please retry later",
+                Duration.ofMillis(1200)))
+                .when(rateLimiter).acquire("m-101");
+        //Act
+        ResultActions resultActions = mockMvc.perform(post("/api/v1/feedback")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)));
+        //Assert
+        resultActions.andExpect(status().isTooManyRequests())
+                .andExpect(MockMvcResultMatchers.header().string("Retry-After", "2"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.errors[0].field").value("memberId"));
+
+        verifyNoInteractions(feedbackService);
+    }
+
     @Test
     void submitFeedback_invalidBody_HttpMessageNotReadableExceptionThrown() throws Exception {
         String badJson = """
@@ -91,4 +190,166 @@ public class FeedbackControllerTest {
         verifyNoInteractions(feedbackService);
     }
 
+    @Test
+    void submitFeedbackBatch_happyPath_ReturnsPerItemResults() throws Exception {
+        FeedbackRequest request = new FeedbackRequest("m-101", "Dr. Phill", 4, "Cool guy.");
+        FeedbackResponse created = new FeedbackResponse(UUID.randomUUID(), "m-101", "Dr. Phill", 4, "Cool guy.", Instant.now());
+        BatchFeedbackResponse response = new BatchFeedbackResponse(1, 0,
+                List.of(BatchFeedbackResponse.ItemResult.accepted(0, created)));
+
+        when(feedbackService.createFeedbackBatch(anyList())).thenReturn(response);
+
+        mockMvc.perform(post("/api/v1/feedback/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(request))))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.content().json(objectMapper.writeValueAsString(response)));
+
+        verify(feedbackService).createFeedbackBatch(anyList());
+    }
+
+    @Test
+    void submitFeedbackBatch_emptyBatch_BadRequest() throws Exception {
+        mockMvc.perform(post("/api/v1/feedback/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.errors[0].field").value("requests"));
+
+        verifyNoInteractions(feedbackService);
+    }
+
+    @Test
+    void submitFeedback_connectionPoolExhausted_ServiceUnavailable() throws Exception {
+        FeedbackRequest request = new FeedbackRequest("m-101", "Dr. Phill", 4, "Cool guy.");
+
+        when(feedbackService.createFeedback(any(FeedbackRequest.class)))
+                .thenThrow(new CannotCreateTransactionException("Connection is not available, request timed out"));
+
+        mockMvc.perform(post("/api/v1/feedback")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(MockMvcResultMatchers.header().string("Retry-After", "1"));
+    }
+
+    @Test
+    void submitFeedbackAsync_happyPath_Accepted() throws Exception {
+        FeedbackRequest request = new FeedbackRequest("m-101", "Dr. Phill", 4, "Cool guy.");
+        UUID trackingId = UUID.randomUUID();
+
+        when(asyncSubmissions.submit(any(FeedbackRequest.class))).thenReturn(trackingId);
+
+        mockMvc.perform(post("/api/v1/feedback")
+                        .param("mode", "async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isAccepted())
+                .andExpect(MockMvcResultMatchers.header().string("Location", "/api/v1/feedback/submissions/" + trackingId))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.status").value("PENDING"));
+
+        verifyNoInteractions(feedbackService);
+    }
+
+    @Test
+    void submitFeedbackAsync_queueFull_ServiceUnavailable() throws Exception {
+        FeedbackRequest request = new FeedbackRequest("m-101", "Dr. Phill", 4, "Cool guy.");
+
+        when(asyncSubmissions.submit(any(FeedbackRequest.class))).thenThrow(new SubmissionQueueFullException());
+
+        mockMvc.perform(post("/api/v1/feedback")
+                        .param("mode", "async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(MockMvcResultMatchers.header().exists("Retry-After"));
+    }
+
+
+    @Test
+    void exportFeedback_happyPath_StreamsNdjson() throws Exception {
+        //Arrange
+        FeedbackExportService.Export export = mock(FeedbackExportService.Export.class);
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(0).write("{\"rating\":4}\n".getBytes());
+            return null;
+        }).when(export).writeTo(any());
+        when(export.timeout()).thenReturn(Duration.ofMinutes(90));
+        when(exportService.prepare("Dr. Phill", null, null, null)).thenReturn(export);
+        //Act
+        MvcResult started = mockMvc.perform(get("/api/v1/feedback/export").param("providerName", "Dr. Phill"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+        //Assert: the export's own timeout, not the application-wide async timeout
+        assertEquals(Duration.ofMinutes(90).toMillis(), started.getRequest().getAsyncContext().getTimeout());
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(MockMvcResultMatchers.content().string("{\"rating\":4}\n"));
+        verify(export).close();
+    }
+
+    @Test
+    void getFeedback_happyPath_ImmutableWithETag() throws Exception {
+        //Arrange
+        UUID id = UUID.randomUUID();
+        FeedbackResponse response = new FeedbackResponse(id, "m-101", "Dr. Phill", 4, "Cool guy.", Instant.now());
+        when(feedbackService.getFeedbackById(id)).thenReturn(response);
+        //Act & Assert
+        mockMvc.perform(get("/api/v1/feedback/" + id))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", "\"" + id + "\""))
+                .andExpect(MockMvcResultMatchers.header().string("Cache-Control", "max-age=31536000, public, immutable"))
+                .andExpect(MockMvcResultMatchers.content().json(objectMapper.writeValueAsString(response)));
+    }
+
+    @Test
+    void getFeedback_ifNoneMatch_NotModifiedWithoutLookup() throws Exception {
+        //Arrange
+        UUID id = UUID.randomUUID();
+        //Act & Assert
+        mockMvc.perform(get("/api/v1/feedback/" + id).header("If-None-Match", "\"" + id + "\""))
+                .andExpect(status().isNotModified())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", "\"" + id + "\""))
+                .andExpect(MockMvcResultMatchers.header().string("Cache-Control", "max-age=31536000, public, immutable"))
+                .andExpect(MockMvcResultMatchers.content().string(""));
+
+        verifyNoInteractions(feedbackService);
+    }
+
+    @Test
+    void byMember_validators_NotModifiedUntilMemberSubmitsAgain() throws Exception {
+        //Arrange
+        Instant latest = Instant.parse("2025-11-14T12:00:00.123456Z");
+        FeedbackResponse response = new FeedbackResponse(UUID.randomUUID(), "m-101", "Dr. Phill", 4, "Cool guy.", latest);
+        when(feedbackService.getLatestSubmittedAt("m-101")).thenReturn(Optional.of(latest));
+        when(feedbackService.getFeedbackByMemberId("m-101", 50, null)).thenReturn(new FeedbackPage(List.of(response), null));
+        //Act
+        MvcResult first = mockMvc.perform(get("/api/v1/feedback").param("memberId", "m-101"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("Last-Modified", "Fri, 14 Nov 2025 12:00:00 GMT"))
+                .andReturn();
+        String etag = first.getResponse().getHeader("ETag");
+        //Assert
+        mockMvc.perform(get("/api/v1/feedback").param("memberId", "m-101").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(MockMvcResultMatchers.content().string(""));
+        verify(feedbackService, times(1)).getFeedbackByMemberId("m-101", 50, null);
+
+        when(feedbackService.getLatestSubmittedAt("m-101")).thenReturn(Optional.of(latest.plusNanos(1_000)));
+        mockMvc.perform(get("/api/v1/feedback").param("memberId", "m-101").header("If-None-Match", etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void search_happyPath_ReturnsRankedPage() throws Exception {
+        //Arrange
+        FeedbackResponse hit = new FeedbackResponse(UUID.randomUUID(), "m-101", "Dr. Phill", 2, "Billing was wrong", Instant.now());
+        FeedbackSearchPage page = new FeedbackSearchPage(List.of(hit), 21, 20);
+        when(searchIndex.search("billing", "Dr. Phill", 20, 0)).thenReturn(page);
+        //Act & Assert
+        mockMvc.perform(get("/api/v1/feedback/search").param("q", "billing").param("provider", "Dr. Phill"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.content().json(objectMapper.writeValueAsString(page)));
+    }
 }
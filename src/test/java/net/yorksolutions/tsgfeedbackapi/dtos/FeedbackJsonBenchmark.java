@@ -0,0 +1,50 @@
+package net.yorksolutions.tsgfeedbackapi.dtos;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.yorksolutions.tsgfeedbackapi.dtos.contracts.FeedbackSubmittedEvent;
+import net.yorksolutions.tsgfeedbackapi.repositories.entities.UuidV7Generator;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * JMH: Jackson serialization of the API response and the Kafka event payload
+ * The ObjectMapper is built the same way Spring Boot builds the application one
+ * Run with: mvn -Pjmh test -Djmh.args="FeedbackJsonBenchmark"
+*/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FeedbackJsonBenchmark {
+
+    private ObjectMapper objectMapper;
+    private FeedbackResponse response;
+    private FeedbackSubmittedEvent event;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        String id = UuidV7Generator.next().toString();
+        Instant submittedAt = Instant.now();
+        response = new FeedbackResponse(UuidV7Generator.next(), "908908908", "Jerold Calloway Offices", 4,
+            "Great experience", submittedAt);
+        event = new FeedbackSubmittedEvent(id, "908908908", "Jerold Calloway Offices", 4,
+            "Great experience", submittedAt, 1);
+    }
+
+    @Benchmark
+    public byte[] serializeResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] serializeEvent() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(event);
+    }
+}
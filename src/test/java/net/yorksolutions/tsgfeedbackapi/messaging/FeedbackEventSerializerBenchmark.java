@@ -0,0 +1,66 @@
+package net.yorksolutions.tsgfeedbackapi.messaging;
+
+import lombok.extern.slf4j.Slf4j;
+import net.yorksolutions.tsgfeedbackapi.dtos.contracts.FeedbackSubmittedEvent;
+import net.yorksolutions.tsgfeedbackapi.repositories.entities.UuidV7Generator;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * JMH: the Kafka value serializer/deserializer for the feedback-submitted topic, per encoding
+ * Headers are created per call, as the producer does for every record
+ * The encoded message size for each encoding is logged during setup
+ * Run with: mvn -Pjmh test -Djmh.args="FeedbackEventSerializerBenchmark"
+*/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+@Slf4j
+public class FeedbackEventSerializerBenchmark {
+
+    @Param({"json", "binary"})
+    private String encoding;
+
+    private FeedbackEventSerializer serializer;
+    private FeedbackEventDeserializer deserializer;
+    private FeedbackSubmittedEvent event;
+    private Headers encodedHeaders;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() {
+        serializer = new FeedbackEventSerializer();
+        serializer.configure(Map.of(FeedbackEventEncoding.CONFIG, encoding), false);
+        deserializer = new FeedbackEventDeserializer();
+        event = new FeedbackSubmittedEvent(UuidV7Generator.next().toString(), "908908908",
+            "Jerold Calloway Offices", 4, "Great experience", Instant.now(), 1);
+
+        encodedHeaders = new RecordHeaders();
+        encoded = serializer.serialize(FeedbackEventPublisher.TOPIC, encodedHeaders, event);
+        log.info("Encoded {} message size: {} bytes", encoding, encoded.length);
+    }
+
+    @TearDown
+    public void tearDown() {
+        serializer.close();
+        deserializer.close();
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(FeedbackEventPublisher.TOPIC, new RecordHeaders(), event);
+    }
+
+    @Benchmark
+    public FeedbackSubmittedEvent deserialize() {
+        return deserializer.deserialize(FeedbackEventPublisher.TOPIC, encodedHeaders, encoded);
+    }
+}
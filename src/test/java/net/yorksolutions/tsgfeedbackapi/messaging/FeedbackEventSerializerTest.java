@@ -0,0 +1,83 @@
+package net.yorksolutions.tsgfeedbackapi.messaging;
+
+import net.yorksolutions.tsgfeedbackapi.dtos.contracts.FeedbackSubmittedEvent;
+import net.yorksolutions.tsgfeedbackapi.repositories.entities.UuidV7Generator;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ * Unit Tests for FeedbackEventSerializer, FeedbackEventDeserializer and FeedbackEventBinaryCodec
+ * Both encodings round-trip and are named in the feedback-encoding header
+ * Records without the header are read as JSON
+ * Binary is smaller than JSON; unknown schema versions are rejected
+*/
+public class FeedbackEventSerializerTest {
+
+    private static final String TOPIC = FeedbackEventPublisher.TOPIC;
+
+    private final FeedbackEventDeserializer deserializer = new FeedbackEventDeserializer();
+
+    @Test
+    void serialize_WithBinaryEncoding_RoundTripsAndSetsHeader() {
+        FeedbackEventSerializer serializer = configured("binary");
+        FeedbackSubmittedEvent event = event("Great experience");
+        Headers headers = new RecordHeaders();
+
+        byte[] bytes = serializer.serialize(TOPIC, headers, event);
+
+        assertEquals("binary", new String(headers.lastHeader(FeedbackEventEncoding.HEADER).value(), StandardCharsets.US_ASCII));
+        assertEquals(event, deserializer.deserialize(TOPIC, headers, bytes));
+    }
+
+    @Test
+    void serialize_WithJsonEncoding_RoundTripsAndSetsHeader() {
+        FeedbackEventSerializer serializer = configured("json");
+        FeedbackSubmittedEvent event = event(null);
+        Headers headers = new RecordHeaders();
+
+        byte[] bytes = serializer.serialize(TOPIC, headers, event);
+
+        assertEquals("json", new String(headers.lastHeader(FeedbackEventEncoding.HEADER).value(), StandardCharsets.US_ASCII));
+        assertEquals(event, deserializer.deserialize(TOPIC, headers, bytes));
+        // Pre-header records are JSON too
+        assertEquals(event, deserializer.deserialize(TOPIC, new RecordHeaders(), bytes));
+    }
+
+    @Test
+    void encode_IsSmallerThanJson() {
+        FeedbackSubmittedEvent event = event("Great experience");
+
+        byte[] binary = configured("binary").serialize(TOPIC, new RecordHeaders(), event);
+        byte[] json = configured("json").serialize(TOPIC, new RecordHeaders(), event);
+
+        assertTrue(binary.length * 2 < json.length, binary.length + " bytes vs " + json.length + " bytes");
+    }
+
+    @Test
+    void serialize_WithUnknownSchemaVersion_Throws() {
+        FeedbackSubmittedEvent event = new FeedbackSubmittedEvent(UuidV7Generator.next().toString(), "908908908",
+            "Jerold Calloway Offices", 4, null, Instant.now(), 2);
+
+        assertThrows(SerializationException.class,
+            () -> configured("binary").serialize(TOPIC, new RecordHeaders(), event));
+    }
+
+    private static FeedbackEventSerializer configured(String encoding) {
+        FeedbackEventSerializer serializer = new FeedbackEventSerializer();
+        serializer.configure(Map.of(FeedbackEventEncoding.CONFIG, encoding), false);
+        return serializer;
+    }
+
+    private static FeedbackSubmittedEvent event(String comment) {
+        return new FeedbackSubmittedEvent(UuidV7Generator.next().toString(), "908908908",
+            "Jerold Calloway Offices", 4, comment, Instant.parse("2025-03-01T12:30:45.123456Z"), 1);
+    }
+}
@@ -0,0 +1,154 @@
+package net.yorksolutions.tsgfeedbackapi.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.yorksolutions.tsgfeedbackapi.dtos.contracts.FeedbackSubmittedEvent;
+import net.yorksolutions.tsgfeedbackapi.repositories.FeedbackOutboxRepository;
+import net.yorksolutions.tsgfeedbackapi.repositories.entities.FeedbackOutboxEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/*
+ * Unit Tests for FeedbackOutboxRelay
+ * Acknowledged batches are deleted from the outbox, records keyed by the key strategy
+ * Batches are claimed in one transaction and sent after it has committed
+ * Failed sends release the claim and leave the batch in place for the next poll
+ * The pending count runs on its own schedule, not after every poll
+ * Send-ack latency and failures are recorded per record
+*/
+public class FeedbackOutboxRelayTest {
+
+    @Mock
+    private FeedbackOutboxRepository outboxRepository;
+
+    @Mock
+    private KafkaTemplate<String, FeedbackSubmittedEvent> kafkaTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private SimpleMeterRegistry meterRegistry;
+    private FeedbackOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        relay = new FeedbackOutboxRelay(outboxRepository, kafkaTemplate, objectMapper,
+            new NoOpTransactionManager(), meterRegistry, 10, 1000, 5000, FeedbackEventKeyStrategy.MEMBER_ID);
+    }
+
+    @Test
+    void relayPending_WithAcknowledgedSends_DeletesBatch() throws Exception {
+        // Arrange
+        FeedbackOutboxEntity row = outboxRow();
+        when(outboxRepository.claimNextBatch(10, 5000)).thenReturn(List.of(row));
+        when(kafkaTemplate.send(eq("feedback-submitted"), eq("908908908"), any(FeedbackSubmittedEvent.class)))
+            .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+
+        // Act
+        relay.relayPending();
+
+        // Assert
+        verify(outboxRepository).deleteAllInBatch(List.of(row));
+        assertEquals(1.0, meterRegistry.get("feedback.outbox.relayed").counter().count());
+        assertEquals(1, meterRegistry.get("feedback.kafka.send").tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    void relayPending_WithFailedSend_KeepsBatchForRetry() throws Exception {
+        // Arrange
+        FeedbackOutboxEntity row = outboxRow();
+        when(outboxRepository.claimNextBatch(10, 5000)).thenReturn(List.of(row));
+        when(kafkaTemplate.send(anyString(), anyString(), any(FeedbackSubmittedEvent.class)))
+            .thenReturn(CompletableFuture.failedFuture(new RuntimeException("broker down")));
+
+        // Act
+        relay.relayPending();
+
+        // Assert
+        verify(outboxRepository, never()).deleteAllInBatch(any());
+        verify(outboxRepository).releaseClaims(List.of(row.getId()));
+        assertEquals(1.0, meterRegistry.get("feedback.outbox.relay.failures").counter().count());
+        assertEquals(1, meterRegistry.get("feedback.kafka.send").tag("outcome", "failure").timer().count());
+        assertEquals(1.0, meterRegistry.get("feedback.kafka.send.failures")
+            .tag("exception", "RuntimeException").counter().count());
+    }
+
+    @Test
+    void relayPending_SendsAfterClaimCommitted_WithoutCountingTheTable() throws Exception {
+        // Arrange
+        FeedbackOutboxEntity row = outboxRow();
+        when(outboxRepository.claimNextBatch(10, 5000)).thenReturn(List.of(row));
+        when(kafkaTemplate.send(anyString(), anyString(), any(FeedbackSubmittedEvent.class))).thenAnswer(invocation -> {
+            // No transaction, so no row lock or pooled connection, is held while the broker acknowledges
+            assertFalse(TransactionSynchronizationManager.isActualTransactionActive());
+            return CompletableFuture.completedFuture(mock(SendResult.class));
+        });
+
+        // Act
+        relay.relayPending();
+
+        // Assert
+        verify(outboxRepository).deleteAllInBatch(List.of(row));
+        verify(outboxRepository).findOldestCreatedAt();
+        verify(outboxRepository, never()).count();
+        assertEquals(1.0, meterRegistry.get("feedback.outbox.relayed").counter().count());
+    }
+
+    @Test
+    void constructor_WithClaimTimeoutNotAboveSendTimeout_ThrowsIllegalStateException() {
+        assertThrows(IllegalStateException.class, () -> new FeedbackOutboxRelay(outboxRepository, kafkaTemplate,
+            objectMapper, new NoOpTransactionManager(), meterRegistry, 10, 1000, 1000, FeedbackEventKeyStrategy.MEMBER_ID));
+    }
+
+    private FeedbackOutboxEntity outboxRow() throws Exception {
+        String id = UUID.randomUUID().toString();
+        FeedbackSubmittedEvent event = new FeedbackSubmittedEvent(
+            id, "908908908", "Jerold Calloway Offices", 4, "Great experience", Instant.now(), 1);
+
+        FeedbackOutboxEntity row = new FeedbackOutboxEntity();
+        row.setId(UUID.randomUUID());
+        row.setAggregateId(id);
+        row.setTopic("feedback-submitted");
+        row.setPayload(objectMapper.writeValueAsString(event));
+        row.setCreatedAt(Instant.now());
+        return row;
+    }
+
+    /* Runs the relay callback inline without a database */
+    private static class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
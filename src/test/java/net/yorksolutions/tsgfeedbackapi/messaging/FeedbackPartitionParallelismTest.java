@@ -0,0 +1,174 @@
+package net.yorksolutions.tsgfeedbackapi.messaging;
+
+import lombok.extern.slf4j.Slf4j;
+import net.yorksolutions.tsgfeedbackapi.dtos.contracts.FeedbackSubmittedEvent;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.MessageListener;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.ContainerTestUtils;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ * Tests for feedback-submitted partitioning on an embedded Kafka broker
+ * Consumers with concurrency 4 only run in parallel when the topic has enough partitions
+ * Keying by memberId keeps each member's events in order across partitions
+ * The throughput comparison depends on the machine, so it only runs as a benchmark:
+ *   mvn test -Dtest=FeedbackPartitionParallelismTest -Dbenchmarks=true
+*/
+@Slf4j
+@EmbeddedKafka(kraft = true, partitions = 1)
+public class FeedbackPartitionParallelismTest {
+
+    private static final int EVENTS = 800;
+    private static final int MEMBERS = 40;
+    private static final int CONSUMERS = 4;
+    // Simulated per-record work on the consumer side
+    private static final long PROCESSING_MILLIS = 2;
+
+    @Test
+    void consumerParallelism_OneConsumerPerPartition_KeepsMemberOrder(EmbeddedKafkaBroker broker) throws Exception {
+        broker.addTopics(new NewTopic("feedback-submitted-order-p1", 1, (short) 1),
+            new NewTopic("feedback-submitted-order-p4", CONSUMERS, (short) 1));
+
+        RunResult single = produceAndConsume(broker, "feedback-submitted-order-p1", 1);
+        RunResult partitioned = produceAndConsume(broker, "feedback-submitted-order-p4", CONSUMERS);
+
+        assertEquals(1, single.consumerThreads());
+        assertEquals(CONSUMERS, partitioned.consumerThreads());
+        assertTrue(single.inOrder() && partitioned.inOrder(), "Events for a member were consumed out of order");
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+    void consumerThroughput_ScalesWithPartitions(EmbeddedKafkaBroker broker) throws Exception {
+        broker.addTopics(new NewTopic("feedback-submitted-p1", 1, (short) 1),
+            new NewTopic("feedback-submitted-p4", CONSUMERS, (short) 1));
+
+        RunResult single = produceAndConsume(broker, "feedback-submitted-p1", 1);
+        RunResult partitioned = produceAndConsume(broker, "feedback-submitted-p4", CONSUMERS);
+
+        log.info(String.format("1 partition: %.0f events/s on %d consumer(s); %d partitions: %.0f events/s on %d consumer(s)",
+            single.eventsPerSecond(), single.consumerThreads(),
+            CONSUMERS, partitioned.eventsPerSecond(), partitioned.consumerThreads()));
+
+        assertTrue(partitioned.eventsPerSecond() > single.eventsPerSecond() * 1.5,
+            "Expected 4 partitions to raise consumer throughput well above 1 partition");
+    }
+
+    private RunResult produceAndConsume(EmbeddedKafkaBroker broker, String topic, int partitions) throws Exception {
+        CountDownLatch received = new CountDownLatch(EVENTS);
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        Map<String, Integer> lastSequenceByMember = new ConcurrentHashMap<>();
+        AtomicLong firstReceivedAt = new AtomicLong();
+        AtomicLong outOfOrder = new AtomicLong();
+
+        ContainerProperties containerProperties = new ContainerProperties(topic);
+        containerProperties.setMessageListener((MessageListener<String, FeedbackSubmittedEvent>) record -> {
+            firstReceivedAt.compareAndSet(0, System.nanoTime());
+            threads.add(Thread.currentThread().getName());
+            int sequence = Integer.parseInt(record.value().comment());
+            Integer previous = lastSequenceByMember.put(record.key(), sequence);
+            if (previous != null && previous >= sequence) {
+                outOfOrder.incrementAndGet();
+            }
+            sleep(PROCESSING_MILLIS);
+            received.countDown();
+        });
+
+        ConcurrentMessageListenerContainer<String, FeedbackSubmittedEvent> container =
+            new ConcurrentMessageListenerContainer<>(consumerFactory(broker, topic), containerProperties);
+        container.setConcurrency(CONSUMERS);
+        container.start();
+        try {
+            // Produce only once the group has settled, so one early consumer cannot drain every partition
+            ContainerTestUtils.waitForAssignment(container, partitions);
+            waitForBalancedAssignment(container, partitions);
+            produce(broker, topic);
+
+            assertTrue(received.await(60, TimeUnit.SECONDS), "Timed out consuming " + topic);
+            double seconds = (System.nanoTime() - firstReceivedAt.get()) / 1e9;
+            return new RunResult(EVENTS / seconds, threads.size(), outOfOrder.get() == 0);
+        } finally {
+            container.stop();
+        }
+    }
+
+    private void produce(EmbeddedKafkaBroker broker, String topic) {
+        Map<String, Object> props = Map.of(
+            ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString(),
+            ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class,
+            ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, FeedbackEventSerializer.class,
+            FeedbackEventEncoding.CONFIG, "binary");
+        DefaultKafkaProducerFactory<String, FeedbackSubmittedEvent> producerFactory = new DefaultKafkaProducerFactory<>(props);
+        try {
+            KafkaTemplate<String, FeedbackSubmittedEvent> template = new KafkaTemplate<>(producerFactory);
+            for (int i = 0; i < EVENTS; i++) {
+                FeedbackSubmittedEvent event = new FeedbackSubmittedEvent(UUID.randomUUID().toString(),
+                    "member-" + (i % MEMBERS), "Jerold Calloway Offices", 4, Integer.toString(i), Instant.now(), 1);
+                template.send(topic, FeedbackEventKeyStrategy.MEMBER_ID.keyOf(event), event);
+            }
+            template.flush();
+        } finally {
+            producerFactory.destroy();
+        }
+    }
+
+    private DefaultKafkaConsumerFactory<String, FeedbackSubmittedEvent> consumerFactory(EmbeddedKafkaBroker broker, String topic) {
+        return new DefaultKafkaConsumerFactory<>(Map.of(
+            ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString(),
+            ConsumerConfig.GROUP_ID_CONFIG, topic + "-consumers",
+            ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest",
+            ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 50,
+            ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class,
+            ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, FeedbackEventDeserializer.class));
+    }
+
+    /* waitForAssignment only counts partitions, which the first consumer to join can briefly hold all of */
+    private static void waitForBalancedAssignment(ConcurrentMessageListenerContainer<?, ?> container, int partitions) {
+        int perConsumer = (partitions + CONSUMERS - 1) / CONSUMERS;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (System.nanoTime() < deadline) {
+            boolean balanced = container.getContainers().stream()
+                .allMatch(child -> child.getAssignedPartitions() != null
+                    && child.getAssignedPartitions().size() <= perConsumer);
+            if (balanced) {
+                return;
+            }
+            sleep(50);
+        }
+        fail("Consumer group did not spread " + partitions + " partition(s) over its consumers");
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record RunResult(double eventsPerSecond, int consumerThreads, boolean inOrder) {
+    }
+}
@@ -0,0 +1,193 @@
+package net.yorksolutions.tsgfeedbackapi.repositories;
+
+import net.yorksolutions.tsgfeedbackapi.dtos.FeedbackResponse;
+import net.yorksolutions.tsgfeedbackapi.repositories.entities.UuidV7Generator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ * Integration Tests for the Flyway schema against a throwaway Postgres
+ * Migrations apply and Hibernate validates the entities against them
+ * Plans are taken for the SQL Hibernate generates for the repository methods, captured with a
+ * StatementInspector and EXPLAINed with the same parameters the call bound
+ * Member pages, first and following, are served by idx_feedback_member_submitted, not a sequential scan
+ * A following page's cursor is an Index Cond, so the scan starts at the cursor rather than filtering newer rows
+ * feedback is partitioned by month, and a lookup by v7 id reads a single partition
+ * Rows whose v7 id is further from submitted_at than that lookup searches are rejected
+ * Skipped when Docker is not available
+*/
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+    + "net.yorksolutions.tsgfeedbackapi.repositories.FeedbackRepositoryIndexTest$CapturedSql")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+public class FeedbackRepositoryIndexTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private FeedbackRepository feedbackRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        // 2,000 members x 10 rows each, so the planner has real statistics to choose from
+        jdbcTemplate.update("""
+            INSERT INTO feedback (id, member_id, provider_name, rating, comment, submitted_at)
+            SELECT gen_random_uuid(), 'm-' || (n % 2000), 'provider-' || (n % 50), 1 + (n % 5), 'seed',
+                   now() - (n || ' minutes')::interval
+            FROM generate_series(1, 20000) AS n
+            """);
+        jdbcTemplate.execute("ANALYZE feedback");
+    }
+
+    /* Records every statement Hibernate prepares, unchanged */
+    public static class CapturedSql implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+
+    @Test
+    void findPageByMemberId_UsesMemberIndex() {
+        // Act
+        String sql = captureSelect(() -> feedbackRepository.findPageByMemberId("m-42", Limit.of(51)));
+        String plan = explain(sql, "m-42", 51);
+
+        // Assert
+        assertReadThroughMemberIndex(plan);
+    }
+
+    @Test
+    void findPageByMemberIdBefore_UsesMemberIndex() {
+        // Arrange: a cursor a few rows into the member's feed, so there are newer rows the scan must not read
+        FeedbackResponse cursor = feedbackRepository.findPageByMemberId("m-42", Limit.of(5)).get(4);
+
+        // Act
+        String sql = captureSelect(() -> feedbackRepository.findPageByMemberIdBefore("m-42", cursor.submittedAt(),
+            cursor.id(), Limit.of(51)));
+        String plan = explain(sql, "m-42", at(cursor.submittedAt()), at(cursor.submittedAt()), cursor.id(), 51);
+
+        // Assert
+        assertReadThroughMemberIndex(plan, jdbcTemplate.queryForList(
+            "SELECT DISTINCT tableoid::regclass::text FROM feedback WHERE submitted_at <= ?", String.class,
+            at(cursor.submittedAt())));
+        assertCursorIsIndexCond(plan);
+    }
+
+    @Test
+    void findResponseById_WithV7Id_ReadsOnePartition() {
+        // Arrange
+        UUID id = jdbcTemplate.queryForObject("""
+            INSERT INTO feedback (id, member_id, provider_name, rating, comment, submitted_at)
+            VALUES (?, 'm-v7', 'provider-v7', 4, 'v7', now())
+            RETURNING id
+            """, UUID.class, UuidV7Generator.next());
+        int partitions = jdbcTemplate.queryForObject(
+            "SELECT count(*) FROM pg_inherits WHERE inhparent = 'feedback'::regclass", Integer.class);
+        Instant created = UuidV7Generator.timestampOf(id);
+
+        // Act
+        String sql = captureSelect(() -> assertEquals("v7", feedbackRepository.findResponseById(id).orElseThrow().comment()));
+        String plan = explain(sql, id, at(created.minus(FeedbackRepository.ID_TIME_MARGIN)),
+            at(created.plus(FeedbackRepository.ID_TIME_MARGIN)));
+
+        // Assert
+        assertTrue(partitions > 1, "expected monthly partitions, found " + partitions);
+        assertEquals(1, plan.split("_pkey on feedback_", -1).length - 1, plan);
+    }
+
+    /* Each partition carries its own copy of the partitioned index, named after the partition; empty partitions */
+    /* may be read with a (free) sequential scan, the ones holding the seeded rows must not be */
+    private void assertReadThroughMemberIndex(String plan) {
+        assertReadThroughMemberIndex(plan,
+            jdbcTemplate.queryForList("SELECT DISTINCT tableoid::regclass::text FROM feedback", String.class));
+    }
+
+    private static void assertReadThroughMemberIndex(String plan, List<String> seeded) {
+        assertFalse(seeded.isEmpty());
+        for (String partition : seeded) {
+            assertTrue(plan.contains("Index Scan using " + partition + "_member_id_submitted_at_id_idx on " + partition + " "), partition + "\n" + plan);
+            assertFalse(plan.contains("Seq Scan on " + partition + " "), partition + "\n" + plan);
+        }
+    }
+
+    /* The cursor bounds the index scan itself; as a Filter, every newer row of the member would be read and discarded */
+    private static void assertCursorIsIndexCond(String plan) {
+        List<String> conditions = plan.lines().filter(line -> line.contains("Index Cond:")).toList();
+        assertFalse(conditions.isEmpty(), plan);
+        conditions.forEach(condition -> assertTrue(condition.contains("ROW(submitted_at, id) < ROW("), plan));
+        assertFalse(plan.contains("Filter:"), plan);
+    }
+
+    /* The one select the call sends to the database */
+    private static String captureSelect(Runnable call) {
+        CapturedSql.STATEMENTS.clear();
+        call.run();
+        List<String> selects = CapturedSql.STATEMENTS.stream()
+            .filter(sql -> sql.stripLeading().toLowerCase().startsWith("select"))
+            .toList();
+        assertEquals(1, selects.size(), selects.toString());
+        return selects.get(0);
+    }
+
+    /* Binds the parameters as the call did, so the planner prunes partitions and picks indexes for these values */
+    private String explain(String sql, Object... parameters) {
+        assertEquals(parameters.length, sql.chars().filter(c -> c == '?').count(), sql);
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, parameters));
+    }
+
+    private static OffsetDateTime at(Instant instant) {
+        return instant.atOffset(ZoneOffset.UTC);
+    }
+
+    @Test
+    void insert_WithV7IdFarFromSubmittedAt_IsRejected() {
+        // Arrange
+        UUID id = UuidV7Generator.next();
+
+        // Act & Assert: a lookup by this id would only search 5 minutes either side of now
+        assertThrows(DataIntegrityViolationException.class, () -> jdbcTemplate.update("""
+            INSERT INTO feedback (id, member_id, provider_name, rating, comment, submitted_at)
+            VALUES (?, 'm-v7', 'provider-v7', 4, 'late', now() - interval '1 hour')
+            """, id));
+    }
+
+    @Test
+    void findPageByMemberId_ReturnsNewestFirst() {
+        List<FeedbackResponse> page = feedbackRepository.findPageByMemberId("m-42", Limit.of(5));
+
+        assertEquals(5, page.size());
+        for (int i = 1; i < page.size(); i++) {
+            assertTrue(page.get(i - 1).submittedAt().isAfter(page.get(i).submittedAt()));
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package net.yorksolutions.tsgfeedbackapi.repositories;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.mock.env.MockEnvironment;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/*
+ * Unit Tests for ReadReplicaRoutingDataSource and ReplicaHealthMonitor
+ * Through the application's LazyConnectionDataSourceProxy, read-only connections use the replica, everything else the primary
+ * Reads fall back to the primary when the replica is out of rotation or refuses a connection
+ * An unreachable replica pool refuses within its short connection-timeout, not Hikari's 30 s default
+ * The health check takes a lagging replica out of rotation and puts it back once it catches up
+*/
+public class ReadReplicaRoutingDataSourceTest {
+
+    @Mock
+    private DataSource primary;
+    @Mock
+    private DataSource replica;
+    @Mock
+    private Connection primaryConnection;
+    @Mock
+    private Connection replicaConnection;
+
+    private ReadReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        MockitoAnnotations.openMocks(this);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        routing = new ReadReplicaRoutingDataSource(primary, replica);
+    }
+
+    @Test
+    void dataSource_RoutesByConnectionReadOnlyFlag() throws SQLException {
+        // Arrange
+        DataSource dataSource = new ReadReplicaDataSourceConfig().dataSource(routing);
+
+        // Act: the transaction manager marks the connection before its first statement
+        try (Connection readWrite = dataSource.getConnection()) {
+            readWrite.createStatement();
+        }
+        try (Connection readOnly = dataSource.getConnection()) {
+            readOnly.setReadOnly(true);
+            readOnly.createStatement();
+        }
+
+        // Assert
+        verify(primaryConnection).createStatement();
+        verify(replicaConnection).createStatement();
+        verify(replica, times(1)).getConnection();
+    }
+
+    @Test
+    void getConnection_WithReplicaOutOfRotationOrRefusing_FallsBackToPrimary() throws SQLException {
+        // Arrange
+        routing.markReplicaHealthy(false);
+
+        // Act & Assert
+        assertSame(primaryConnection, routing.getConnection());
+        verify(replica, never()).getConnection();
+
+        routing.markReplicaHealthy(true);
+        when(replica.getConnection()).thenThrow(new SQLException("Connection refused"));
+        assertSame(primaryConnection, routing.getConnection());
+        assertFalse(routing.isReplicaHealthy());
+    }
+
+    @Test
+    void getConnection_WithUnreachableReplicaPool_FallsBackWithinConnectionTimeout() throws Exception {
+        // Arrange: a real replica pool pointed at a port nothing listens on
+        DataSourceProperties properties = new DataSourceProperties();
+        properties.setUrl("jdbc:postgresql://127.0.0.1:1/postgres");
+        MockEnvironment environment = new MockEnvironment()
+            .withProperty("feedback.datasource.replica.url", "jdbc:postgresql://127.0.0.1:1/postgres");
+        ReadReplicaRoutingDataSource configured = new ReadReplicaDataSourceConfig()
+            .readReplicaRoutingDataSource(properties, environment, new SimpleMeterRegistry());
+        HikariDataSource replicaPool = (HikariDataSource) configured.getReplica();
+        ReadReplicaRoutingDataSource unreachable = new ReadReplicaRoutingDataSource(primary, replicaPool);
+
+        try {
+            // Act
+            long started = System.nanoTime();
+            Connection connection = unreachable.getConnection();
+            Duration waited = Duration.ofNanos(System.nanoTime() - started);
+
+            // Assert
+            assertEquals(ReadReplicaDataSourceConfig.REPLICA_CONNECTION_TIMEOUT.toMillis(), replicaPool.getConnectionTimeout());
+            assertSame(primaryConnection, connection);
+            assertFalse(unreachable.isReplicaHealthy());
+            assertTrue(waited.compareTo(Duration.ofSeconds(5)) < 0, "fell back after " + waited);
+        } finally {
+            configured.close();
+        }
+    }
+
+    @Test
+    void check_WithReplicationLag_TogglesReplicaRotation() throws SQLException {
+        // Arrange
+        Statement statement = mock(Statement.class);
+        ResultSet lag = mock(ResultSet.class);
+        when(replicaConnection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenReturn(lag);
+        when(lag.next()).thenReturn(true);
+        when(lag.getDouble(1)).thenReturn(12_000.0, 300.0);
+        ReplicaHealthMonitor monitor = new ReplicaHealthMonitor(routing, Duration.ofSeconds(5), new SimpleMeterRegistry());
+
+        // Act & Assert
+        monitor.check();
+        assertFalse(routing.isReplicaHealthy());
+        assertEquals("primary (fallback)", monitor.health().getDetails().get("reads"));
+
+        monitor.check();
+        assertTrue(routing.isReplicaHealthy());
+        assertEquals("replica", monitor.health().getDetails().get("reads"));
+    }
+}
@@ -0,0 +1,193 @@
+package net.yorksolutions.tsgfeedbackapi.repositories;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.yorksolutions.tsgfeedbackapi.dtos.FeedbackResponse;
+import net.yorksolutions.tsgfeedbackapi.repositories.entities.FeedbackEntity;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ * Integration Tests for read replica routing against two throwaway Postgres instances
+ * The replica is a separate database with the same schema and nothing replicated into it,
+ * so it behaves like a replica that has not replayed anything written during the test
+ * Read-only transactions read the replica, read-write transactions and PrimaryReads the primary
+ * Once the replica stops, reads fall back to the primary within the replica pool's connection-timeout
+ * Skipped when Docker is not available
+*/
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ ReadReplicaDataSourceConfig.class, PrimaryReads.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@Testcontainers(disabledWithoutDocker = true)
+public class ReadReplicaRoutingIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> primary = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Container
+    static PostgreSQLContainer<?> replica = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void datasources(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", primary::getJdbcUrl);
+        registry.add("spring.datasource.username", primary::getUsername);
+        registry.add("spring.datasource.password", primary::getPassword);
+        registry.add("feedback.datasource.replica.url", replica::getJdbcUrl);
+        registry.add("feedback.datasource.replica.username", replica::getUsername);
+        registry.add("feedback.datasource.replica.password", replica::getPassword);
+    }
+
+    @BeforeAll
+    static void migrateReplica() {
+        // The application only migrates the primary; a real replica gets the schema through replication
+        Flyway.configure()
+            .dataSource(replica.getJdbcUrl(), replica.getUsername(), replica.getPassword())
+            .locations("classpath:db/migration")
+            .load()
+            .migrate();
+        direct(replica).update("""
+            INSERT INTO feedback (id, member_id, provider_name, rating, comment, submitted_at)
+            VALUES (gen_random_uuid(), 'replica-only', 'Dr. Jones', 4, 'replica', now())
+            """);
+    }
+
+    @TestConfiguration
+    static class Infrastructure {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        TaskScheduler taskScheduler() {
+            ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+            scheduler.initialize();
+            return scheduler;
+        }
+    }
+
+    @Autowired
+    private FeedbackRepository feedbackRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private PrimaryReads primaryReads;
+
+    @Autowired
+    private ReadReplicaRoutingDataSource routing;
+
+    @Test
+    @Order(1)
+    void readOnlyTransactions_ReadReplica_WritesGoToPrimary() {
+        // Arrange
+        FeedbackEntity entity = new FeedbackEntity();
+        entity.setMemberId("primary-only");
+        entity.setProviderName("Dr. Jones");
+        entity.setRating(5);
+
+        // Act
+        UUID id = new TransactionTemplate(transactionManager).execute(status -> feedbackRepository.saveAndFlush(entity).getId());
+        int replicaRowsRead = readOnly().execute(status -> countMember("replica-only"));
+        int primaryRowsRead = readOnly().execute(status -> countMember("primary-only"));
+        int primaryRowsWritten = new TransactionTemplate(transactionManager).execute(status -> countMember("primary-only"));
+
+        // Assert
+        assertEquals(1, count(direct(primary), id));
+        assertEquals(0, count(direct(replica), id));
+        assertEquals(1, replicaRowsRead);
+        assertEquals(0, primaryRowsRead);
+        assertEquals(1, primaryRowsWritten);
+    }
+
+    @Test
+    @Order(2)
+    void primaryReads_FindRowTheReplicaHasNotReplayed() {
+        // Arrange
+        UUID id = direct(primary).queryForObject("""
+            INSERT INTO feedback (id, member_id, provider_name, rating, comment, submitted_at)
+            VALUES (gen_random_uuid(), 'lagging', 'Dr. Jones', 3, 'not replayed', now())
+            RETURNING id
+            """, UUID.class);
+
+        // Act
+        Optional<FeedbackResponse> fromReplica = readOnly().execute(status -> feedbackRepository.findResponseById(id));
+        Optional<FeedbackResponse> fromPrimary = readOnly().execute(status ->
+            primaryReads.read(() -> feedbackRepository.findResponseById(id)));
+
+        // Assert
+        assertTrue(primaryReads.hasReplica());
+        assertEquals(Optional.empty(), fromReplica);
+        assertEquals(id, fromPrimary.orElseThrow().id());
+    }
+
+    @Test
+    @Order(3)
+    void readOnlyTransactions_WithReplicaStopped_FallBackToPrimary() {
+        // Arrange
+        replica.stop();
+
+        // Act
+        long started = System.nanoTime();
+        int rows = readOnly().execute(status -> countMember("primary-only"));
+        Duration waited = Duration.ofNanos(System.nanoTime() - started);
+
+        // Assert
+        assertEquals(1, rows);
+        assertFalse(routing.isReplicaHealthy());
+        assertTrue(waited.compareTo(Duration.ofSeconds(5)) < 0, "fell back after " + waited);
+    }
+
+    private TransactionTemplate readOnly() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template;
+    }
+
+    private Integer countMember(String memberId) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM feedback WHERE member_id = ?", Integer.class, memberId);
+    }
+
+    private static int count(JdbcTemplate database, UUID id) {
+        return database.queryForObject("SELECT count(*) FROM feedback WHERE id = ?", Integer.class, id);
+    }
+
+    private static JdbcTemplate direct(PostgreSQLContainer<?> database) {
+        return new JdbcTemplate(new DriverManagerDataSource(database.getJdbcUrl(), database.getUsername(), database.getPassword()));
+    }
+}
@@ -0,0 +1,55 @@
+package net.yorksolutions.tsgfeedbackapi.repositories.entities;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ * Unit Tests for UuidV7Generator
+ * Ids carry version 7 and the RFC 4122 variant
+ * Ids are strictly increasing within the JVM
+ * Embedded timestamp round-trips
+*/
+public class UuidV7GeneratorTest {
+
+    @Test
+    void next_SetsVersionAndVariant() {
+        UUID id = UuidV7Generator.next();
+
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        // Must still parse as a regular UUID path variable
+        assertEquals(id, UUID.fromString(id.toString()));
+    }
+
+    @Test
+    void next_IsMonotonicWithinTheSameMillisecond() {
+        UUID previous = UuidV7Generator.next();
+        for (int i = 0; i < 100_000; i++) {
+            UUID current = UuidV7Generator.next();
+            // Compare the time-ordered high bits as unsigned, the way Postgres orders uuid values
+            assertTrue(Long.compareUnsigned(current.getMostSignificantBits(), previous.getMostSignificantBits()) > 0,
+                "Expected " + current + " to sort after " + previous);
+            previous = current;
+        }
+    }
+
+    @Test
+    void timestampOf_ReturnsCreationTime() {
+        Instant before = Instant.now();
+        UUID id = UuidV7Generator.next();
+
+        Instant embedded = UuidV7Generator.timestampOf(id);
+
+        assertTrue(Duration.between(before, embedded).abs().toMillis() < 1_000);
+    }
+
+    @Test
+    void timestampOf_WithRandomUuid_ThrowsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> UuidV7Generator.timestampOf(UUID.randomUUID()));
+    }
+}
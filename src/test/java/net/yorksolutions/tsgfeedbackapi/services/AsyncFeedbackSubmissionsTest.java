@@ -0,0 +1,151 @@
+package net.yorksolutions.tsgfeedbackapi.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.yorksolutions.tsgfeedbackapi.dtos.FeedbackRequest;
+import net.yorksolutions.tsgfeedbackapi.dtos.FeedbackResponse;
+import net.yorksolutions.tsgfeedbackapi.dtos.SubmissionStatusResponse;
+import net.yorksolutions.tsgfeedbackapi.repositories.FeedbackRepository;
+import net.yorksolutions.tsgfeedbackapi.repositories.PrimaryReads;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/*
+ * Unit Tests for AsyncFeedbackSubmissions
+ * Invalid requests are rejected before they are queued
+ * A full buffer rejects instead of blocking
+ * Stored batches complete their tracking statuses with the ids assigned before the first attempt
+ * A failed attempt is retried with the same ids, so rows it may have committed are not stored twice
+ * After the last attempt, rows found on the primary complete and only the rest fail
+*/
+public class AsyncFeedbackSubmissionsTest {
+
+    private static final FeedbackRequest REQUEST = new FeedbackRequest("908908908", "Jerold Calloway Offices", 4, null);
+
+    @Mock
+    private FeedbackService feedbackService;
+
+    @Mock
+    private FeedbackRepository feedbackRepository;
+
+    @Mock
+    private PrimaryReads primaryReads;
+
+    private AsyncFeedbackSubmissions submissions;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(primaryReads.read(any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+        // No workers: the tests drive persistence directly
+        submissions = new AsyncFeedbackSubmissions(feedbackService, feedbackRepository, primaryReads,
+            new SimpleMeterRegistry(),
+            1, 0, 10, 100, 60_000, false);
+        submissions.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        submissions.stop();
+    }
+
+    @Test
+    void submit_WithInvalidRequest_ThrowsValidationException() {
+        FeedbackRequest invalid = new FeedbackRequest("908908908", "Jerold Calloway Offices", 9, null);
+
+        assertThrows(ValidationException.class, () -> submissions.submit(invalid));
+        verifyNoInteractions(feedbackService);
+    }
+
+    @Test
+    void submit_WhenBufferIsFull_ThrowsSubmissionQueueFullException() {
+        UUID first = submissions.submit(REQUEST);
+
+        assertThrows(SubmissionQueueFullException.class, () -> submissions.submit(REQUEST));
+        assertEquals(SubmissionStatusResponse.Status.PENDING, submissions.getStatus(first).status());
+    }
+
+    @Test
+    void persist_RecordsCompletedStatusesWithAssignedIds() throws Exception {
+        // Arrange
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        ArgumentCaptor<List<FeedbackResponse>> rows = ArgumentCaptor.captor();
+
+        // Act
+        submissions.persist(List.of(
+            new AsyncFeedbackSubmissions.PendingSubmission(first, REQUEST),
+            new AsyncFeedbackSubmissions.PendingSubmission(second, REQUEST)));
+
+        // Assert
+        verify(feedbackService).createAssignedFeedback(rows.capture());
+        assertEquals(2, rows.getValue().size());
+        assertEquals(REQUEST.memberId(), rows.getValue().get(0).memberId());
+        assertNotEquals(rows.getValue().get(0).id(), rows.getValue().get(1).id());
+
+        SubmissionStatusResponse completed = submissions.getStatus(first);
+        assertEquals(SubmissionStatusResponse.Status.COMPLETED, completed.status());
+        assertEquals(rows.getValue().get(0).id(), completed.feedbackId());
+        assertEquals(rows.getValue().get(1).id(), submissions.getStatus(second).feedbackId());
+    }
+
+    @Test
+    void persist_WhenAttemptFails_RetriesWithSameIds() throws Exception {
+        // Arrange: the first attempt may have committed before its connection dropped
+        UUID trackingId = UUID.randomUUID();
+        ArgumentCaptor<List<FeedbackResponse>> rows = ArgumentCaptor.captor();
+        when(feedbackService.createAssignedFeedback(anyList()))
+            .thenThrow(new RuntimeException("connection reset during commit"))
+            .thenReturn(List.of());
+
+        // Act
+        submissions.persist(List.of(new AsyncFeedbackSubmissions.PendingSubmission(trackingId, REQUEST)));
+
+        // Assert
+        verify(feedbackService, times(2)).createAssignedFeedback(rows.capture());
+        assertEquals(rows.getAllValues().get(0), rows.getAllValues().get(1));
+        SubmissionStatusResponse status = submissions.getStatus(trackingId);
+        assertEquals(SubmissionStatusResponse.Status.COMPLETED, status.status());
+        assertEquals(rows.getValue().get(0).id(), status.feedbackId());
+    }
+
+    @Test
+    void persist_WhenAttemptsRunOut_CompletesRowsFoundOnPrimary() throws Exception {
+        // Arrange: the first row's attempt committed, but every attempt reported failure
+        UUID stored = UUID.randomUUID();
+        UUID lost = UUID.randomUUID();
+        ArgumentCaptor<List<FeedbackResponse>> rows = ArgumentCaptor.captor();
+        when(feedbackService.createAssignedFeedback(rows.capture()))
+            .thenThrow(new RuntimeException("connection reset during commit"));
+        when(feedbackRepository.findResponsesByIdIn(anyList()))
+            .thenAnswer(invocation -> List.of(rows.getValue().get(0)));
+
+        // Act
+        submissions.persist(List.of(
+            new AsyncFeedbackSubmissions.PendingSubmission(stored, REQUEST),
+            new AsyncFeedbackSubmissions.PendingSubmission(lost, REQUEST)));
+
+        // Assert
+        SubmissionStatusResponse completed = submissions.getStatus(stored);
+        assertEquals(SubmissionStatusResponse.Status.COMPLETED, completed.status());
+        assertEquals(rows.getValue().get(0).id(), completed.feedbackId());
+        assertEquals(SubmissionStatusResponse.Status.FAILED, submissions.getStatus(lost).status());
+        verify(primaryReads).read(any());
+    }
+
+    @Test
+    void getStatus_WithUnknownTrackingId_ThrowsSubmissionNotFoundException() {
+        assertThrows(SubmissionNotFoundException.class, () -> submissions.getStatus(UUID.randomUUID()));
+    }
+}
@@ -0,0 +1,132 @@
+package net.yorksolutions.tsgfeedbackapi.services;
+
+import net.yorksolutions.tsgfeedbackapi.dtos.FeedbackResponse;
+import net.yorksolutions.tsgfeedbackapi.repositories.entities.UuidV7Generator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ * Unit Tests for FeedbackArchiveSegment on a temporary directory
+ * Rows are written in the orders Postgres returns them in, across many small blocks
+ * Every row is found by id, v7 and random alike, and unknown ids are not
+ * A member's rows page newest first through (submittedAt, id) cursors
+ * Rows out of order are rejected while writing
+*/
+public class FeedbackArchiveSegmentTest {
+
+    private static final List<String> MEMBERS = List.of("100", "20", "908908908", "A-7", "a-7", "zoë", "zz");
+    private static final Instant MONTH = Instant.parse("2024-01-01T00:00:00Z");
+
+    @TempDir
+    private Path dir;
+
+    private final List<FeedbackResponse> rows = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Random random = new Random(7);
+        for (int i = 0; i < 500; i++) {
+            // Some rows share a timestamp so the id breaks the tie
+            Instant submittedAt = MONTH.plusSeconds(random.nextInt(400) * 3600L);
+            UUID id = i % 3 == 0 ? UUID.randomUUID() : UuidV7Generator.next();
+            rows.add(new FeedbackResponse(id, MEMBERS.get(random.nextInt(MEMBERS.size())), "Dr. Jones",
+                1 + random.nextInt(5), i % 4 == 0 ? null : "Comment " + i, submittedAt));
+        }
+    }
+
+    @Test
+    void find_ReturnsEveryRowAndMissesUnknownIds() throws Exception {
+        // Arrange
+        FeedbackArchiveSegment segment = write(8);
+
+        // Act & Assert
+        assertEquals(500, segment.rowCount());
+        for (FeedbackResponse row : rows) {
+            assertEquals(Optional.of(row), segment.find(row.id()));
+        }
+        assertEquals(Optional.empty(), segment.find(UUID.randomUUID()));
+        assertEquals(Optional.empty(), segment.find(UuidV7Generator.next()));
+        assertEquals(Optional.empty(), segment.find(new UUID(0, 0)));
+    }
+
+    @Test
+    void findByMember_PagesNewestFirstAcrossBlocks() throws Exception {
+        // Arrange
+        FeedbackArchiveSegment segment = write(8);
+
+        for (String member : MEMBERS) {
+            List<FeedbackResponse> expected = rows.stream()
+                .filter(row -> row.memberId().equals(member))
+                .sorted(BY_MEMBER)
+                .toList();
+
+            // Act: pages of 7, each continuing from the last row of the one before
+            List<FeedbackResponse> paged = new ArrayList<>();
+            List<FeedbackResponse> page = segment.findByMember(member, null, null, 7);
+            while (!page.isEmpty()) {
+                paged.addAll(page);
+                FeedbackResponse last = page.get(page.size() - 1);
+                page = segment.findByMember(member, last.submittedAt(), last.id(), 7);
+            }
+
+            // Assert
+            assertEquals(expected, paged, member);
+        }
+        assertEquals(List.of(), segment.findByMember("908", null, null, 7));
+    }
+
+    @Test
+    void writer_RejectsRowsOutOfOrder() throws Exception {
+        // Arrange
+        UUID low = new UUID(1, 1);
+        UUID high = new UUID(-1, 1); // sorts after low as Postgres compares uuids, before it as UUID.compareTo does
+
+        try (FeedbackArchiveSegment.Writer writer = new FeedbackArchiveSegment.Writer(dir.resolve("bad.seg"), 8)) {
+            writer.addById(new FeedbackResponse(low, "1", "Dr. Jones", 4, null, MONTH));
+            writer.addById(new FeedbackResponse(high, "1", "Dr. Jones", 4, null, MONTH));
+
+            // Act & Assert
+            assertThrows(IllegalStateException.class,
+                () -> writer.addById(new FeedbackResponse(low, "1", "Dr. Jones", 4, null, MONTH)));
+            writer.addByMember(new FeedbackResponse(low, "b", "Dr. Jones", 4, null, MONTH));
+            assertThrows(IllegalStateException.class,
+                () -> writer.addByMember(new FeedbackResponse(high, "a", "Dr. Jones", 4, null, MONTH)));
+        }
+    }
+
+    // member_id COLLATE "C", submitted_at DESC, id DESC, as the archive reads the partition
+    private static final Comparator<FeedbackResponse> BY_MEMBER = Comparator
+        .<FeedbackResponse, byte[]>comparing(row -> row.memberId().getBytes(StandardCharsets.UTF_8), Arrays::compareUnsigned)
+        .thenComparing(FeedbackResponse::submittedAt, Comparator.reverseOrder())
+        .thenComparing(FeedbackResponse::id, (a, b) -> FeedbackArchiveSegment.compare(b, a));
+
+    private FeedbackArchiveSegment write(int rowsPerBlock) throws Exception {
+        Path file = dir.resolve("feedback_2024_01.seg");
+        try (FeedbackArchiveSegment.Writer writer = new FeedbackArchiveSegment.Writer(file, rowsPerBlock)) {
+            for (FeedbackResponse row : rows.stream().sorted((a, b) -> FeedbackArchiveSegment.compare(a.id(), b.id())).toList()) {
+                writer.addById(row);
+            }
+            for (FeedbackResponse row : rows.stream().sorted(BY_MEMBER).toList()) {
+                writer.addByMember(row);
+            }
+            writer.finish();
+        }
+        assertTrue(Files.size(file) > 0);
+        return FeedbackArchiveSegment.open(file);
+    }
+}
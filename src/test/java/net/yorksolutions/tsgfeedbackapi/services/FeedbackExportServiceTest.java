@@ -0,0 +1,69 @@
+package net.yorksolutions.tsgfeedbackapi.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ * Unit Tests for FeedbackExportService
+ * An export needs at least one filter and a forward time range
+ * Concurrent exports are capped, and closing an export that never ran frees its slot once
+*/
+public class FeedbackExportServiceTest {
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private FeedbackExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        exportService = new FeedbackExportService(new ObjectMapper(), transactionManager, 1, 100, 60_000);
+    }
+
+    @Test
+    void prepare_WithoutFilters_ThrowsValidationException() {
+        ValidationException exception = assertThrows(ValidationException.class,
+            () -> exportService.prepare(null, null, null, null));
+
+        assertEquals("filter", exception.getFieldErrors().get(0).field());
+    }
+
+    @Test
+    void prepare_WithBackwardRange_ThrowsValidationException() {
+        Instant now = Instant.now();
+
+        ValidationException exception = assertThrows(ValidationException.class,
+            () -> exportService.prepare(null, null, now, now.minusSeconds(60)));
+
+        assertEquals("from", exception.getFieldErrors().get(0).field());
+    }
+
+    @Test
+    void prepare_BeyondMaxConcurrent_ThrowsExportCapacityException() {
+        exportService.prepare("Jerold Calloway Offices", null, null, null);
+
+        assertThrows(ExportCapacityException.class,
+            () -> exportService.prepare("Jerold Calloway Offices", null, null, null));
+    }
+
+    @Test
+    void close_WithoutWriting_ReleasesSlotOnce() {
+        FeedbackExportService.Export abandoned = exportService.prepare("Jerold Calloway Offices", null, null, null);
+
+        abandoned.close();
+        abandoned.close();
+
+        exportService.prepare("Jerold Calloway Offices", null, null, null);
+        assertThrows(ExportCapacityException.class,
+            () -> exportService.prepare("Jerold Calloway Offices", null, null, null));
+    }
+}
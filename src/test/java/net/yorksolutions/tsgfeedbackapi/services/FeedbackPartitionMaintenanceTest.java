@@ -0,0 +1,170 @@
+package net.yorksolutions.tsgfeedbackapi.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/*
+ * Unit Tests for FeedbackPartitionMaintenance against a mocked JdbcTemplate
+ * Missing partitions from the current month through premake-months ahead are created
+ * Partitions older than the retention are detached concurrently and dropped, or only detached
+ * An interrupted concurrent detach is finalized instead of repeated
+ * With action archive a month is archived before it is detached and dropped, and a failure holds back later months
+ * Action archive without a configured archive directory is refused at startup
+*/
+public class FeedbackPartitionMaintenanceTest {
+
+    private static final Clock MARCH_2025 = Clock.fixed(Instant.parse("2025-03-10T12:00:00Z"), ZoneOffset.UTC);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private Statement statement;
+
+    @Mock
+    private FeedbackArchive archive;
+
+    private final List<Object[]> existing = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class))).thenAnswer(invocation -> {
+            RowMapper<?> mapper = invocation.getArgument(1);
+            List<Object> rows = new ArrayList<>();
+            for (Object[] row : existing) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getString("relname")).thenReturn((String) row[0]);
+                when(rs.getBoolean("relispartition")).thenReturn((Boolean) row[1]);
+                when(rs.getBoolean("detach_pending")).thenReturn((Boolean) row[2]);
+                rows.add(mapper.mapRow(rs, rows.size()));
+            }
+            return rows;
+        });
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenAnswer(invocation ->
+            invocation.<ConnectionCallback<?>>getArgument(0).doInConnection(connection));
+        when(connection.createStatement()).thenReturn(statement);
+    }
+
+    @Test
+    void maintain_CreatesMissingPartitionsAhead() throws Exception {
+        // Arrange: March exists, April-June do not
+        existing.add(new Object[] {"feedback_2025_03", true, false});
+
+        // Act
+        new FeedbackPartitionMaintenance(jdbcTemplate, archive, new SimpleMeterRegistry(), 3, 0,
+            FeedbackPartitionMaintenance.RetentionAction.DROP, MARCH_2025).maintain();
+
+        // Assert
+        List<String> ddl = executed();
+        assertEquals(List.of(
+            "CREATE TABLE IF NOT EXISTS feedback_2025_04 PARTITION OF feedback "
+                + "FOR VALUES FROM ('2025-04-01T00:00:00Z') TO ('2025-05-01T00:00:00Z')",
+            "CREATE TABLE IF NOT EXISTS feedback_2025_05 PARTITION OF feedback "
+                + "FOR VALUES FROM ('2025-05-01T00:00:00Z') TO ('2025-06-01T00:00:00Z')",
+            "CREATE TABLE IF NOT EXISTS feedback_2025_06 PARTITION OF feedback "
+                + "FOR VALUES FROM ('2025-06-01T00:00:00Z') TO ('2025-07-01T00:00:00Z')"), ddl);
+        // Each CREATE ran under a lock timeout that was reset before the connection went back to the pool
+        verify(statement, times(3)).execute("SET lock_timeout = '5s'");
+        verify(statement, times(3)).execute("RESET lock_timeout");
+    }
+
+    @Test
+    void maintain_DetachesConcurrentlyAndDropsExpiredPartitions() throws Exception {
+        // Arrange: 12 months kept, so everything before March 2024 has expired
+        existing.add(new Object[] {"feedback_2024_01", false, false});
+        existing.add(new Object[] {"feedback_2024_02", true, false});
+        existing.add(new Object[] {"feedback_2024_03", true, false});
+        existing.add(new Object[] {"feedback_2025_03", true, false});
+
+        // Act
+        new FeedbackPartitionMaintenance(jdbcTemplate, archive, new SimpleMeterRegistry(), 0, 12,
+            FeedbackPartitionMaintenance.RetentionAction.DROP, MARCH_2025).maintain();
+
+        // Assert: the already detached January table is only dropped
+        assertEquals(List.of(
+            "DROP TABLE IF EXISTS feedback_2024_01",
+            "ALTER TABLE feedback DETACH PARTITION feedback_2024_02 CONCURRENTLY",
+            "DROP TABLE IF EXISTS feedback_2024_02"), executed());
+    }
+
+    @Test
+    void maintain_WithDetachAction_FinalizesInterruptedDetachAndKeepsTables() throws Exception {
+        // Arrange
+        existing.add(new Object[] {"feedback_2024_01", false, false});
+        existing.add(new Object[] {"feedback_2024_02", true, true});
+        existing.add(new Object[] {"feedback_2025_03", true, false});
+
+        // Act
+        new FeedbackPartitionMaintenance(jdbcTemplate, archive, new SimpleMeterRegistry(), 0, 12,
+            FeedbackPartitionMaintenance.RetentionAction.DETACH, MARCH_2025).maintain();
+
+        // Assert
+        assertEquals(List.of("ALTER TABLE feedback DETACH PARTITION feedback_2024_02 FINALIZE"), executed());
+    }
+
+    @Test
+    void maintain_WithArchiveAction_ArchivesBeforeDroppingAndStopsAtFailure() throws Exception {
+        // Arrange: 11 months kept; January archives, February fails, March would be next
+        existing.add(new Object[] {"feedback_2024_01", true, false});
+        existing.add(new Object[] {"feedback_2024_02", true, false});
+        existing.add(new Object[] {"feedback_2024_03", true, false});
+        existing.add(new Object[] {"feedback_2025_03", true, false});
+        when(archive.isConfigured()).thenReturn(true);
+        doThrow(new IOException("disk full")).when(archive).archive(YearMonth.of(2024, 2));
+
+        // Act
+        new FeedbackPartitionMaintenance(jdbcTemplate, archive, new SimpleMeterRegistry(), 0, 11,
+            FeedbackPartitionMaintenance.RetentionAction.ARCHIVE, MARCH_2025).maintain();
+
+        // Assert: February and March stay in the database, so the archive only ever holds the oldest months
+        InOrder inOrder = inOrder(archive, statement);
+        inOrder.verify(archive).archive(YearMonth.of(2024, 1));
+        inOrder.verify(statement).execute("ALTER TABLE feedback DETACH PARTITION feedback_2024_01 CONCURRENTLY");
+        inOrder.verify(statement).execute("DROP TABLE IF EXISTS feedback_2024_01");
+        verify(archive, never()).archive(YearMonth.of(2024, 3));
+        assertEquals(2, executed().size());
+    }
+
+    @Test
+    void constructor_WithArchiveActionAndNoArchiveDir_ThrowsIllegalStateException() {
+        // Arrange
+        when(archive.isConfigured()).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> new FeedbackPartitionMaintenance(jdbcTemplate, archive,
+            new SimpleMeterRegistry(), 0, 11, FeedbackPartitionMaintenance.RetentionAction.ARCHIVE, MARCH_2025));
+    }
+
+    private List<String> executed() throws Exception {
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(statement, atLeast(0)).execute(sql.capture());
+        return sql.getAllValues().stream().filter(s -> !s.contains("lock_timeout")).toList();
+    }
+}
@@ -0,0 +1,100 @@
+package net.yorksolutions.tsgfeedbackapi.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.yorksolutions.tsgfeedbackapi.controllers.GlobalExceptionHandler;
+import net.yorksolutions.tsgfeedbackapi.dtos.ErrorResponse;
+import net.yorksolutions.tsgfeedbackapi.dtos.FeedbackRequest;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * JMH: the 400 path taken by garbage submissions, from createFeedback to the error response
+ * rejectInvalidRequest is the current path; rejectInvalidRequestLegacy reproduces the previous
+ * ArrayList + new FieldError + stack-trace exception path for comparison
+ * Run with: mvn -Pjmh test -Djmh.args="FeedbackRejectionBenchmark"
+*/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FeedbackRejectionBenchmark {
+
+    private FeedbackService feedbackService;
+    private GlobalExceptionHandler exceptionHandler;
+    private FeedbackRequest validRequest;
+    private FeedbackRequest invalidRequest;
+
+    @Setup
+    public void setUp() {
+        // A rejected request never reaches the repository, publisher, cache or stats
+        feedbackService = new FeedbackService(null, null, null, null, new FeedbackMetrics(new SimpleMeterRegistry()), null, null, null, null);
+        exceptionHandler = new GlobalExceptionHandler();
+        validRequest = new FeedbackRequest("908908908", "Jerold Calloway Offices", 4, "Great experience");
+        invalidRequest = new FeedbackRequest("", "a".repeat(81), 9, "a".repeat(201));
+    }
+
+    @Benchmark
+    public List<ErrorResponse.FieldError> validateValidRequest() {
+        return FeedbackRequestValidator.validate(validRequest);
+    }
+
+    @Benchmark
+    public ResponseEntity<ErrorResponse> rejectInvalidRequest() {
+        try {
+            feedbackService.createFeedback(invalidRequest);
+            throw new AssertionError("Expected a validation failure");
+        } catch (ValidationException e) {
+            return exceptionHandler.handleValidationException(e);
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<ErrorResponse> rejectInvalidRequestLegacy() {
+        try {
+            List<ErrorResponse.FieldError> errors = legacyValidate(invalidRequest);
+            if (!errors.isEmpty()) {
+                throw new LegacyValidationException(errors);
+            }
+            throw new AssertionError("Expected a validation failure");
+        } catch (LegacyValidationException e) {
+            return exceptionHandler.handleValidationException(new ValidationException(e.fieldErrors));
+        }
+    }
+
+    private static List<ErrorResponse.FieldError> legacyValidate(FeedbackRequest request) {
+        List<ErrorResponse.FieldError> errors = new ArrayList<>();
+        if (request.memberId() == null || request.memberId().isBlank()) {
+            errors.add(new ErrorResponse.FieldError("memberId", "Member ID is required"));
+        } else if (request.memberId().length() > 36) {
+            errors.add(new ErrorResponse.FieldError("memberId", "Member ID must be less than 36 characters"));
+        }
+        if (request.providerName() == null || request.providerName().isBlank()) {
+            errors.add(new ErrorResponse.FieldError("providerName", "Provider name is required"));
+        } else if (request.providerName().length() > 80) {
+            errors.add(new ErrorResponse.FieldError("providerName", "Provider name must be less than 80 characters"));
+        }
+        if (request.rating() == null || request.rating() < 1 || request.rating() > 5) {
+            errors.add(new ErrorResponse.FieldError("rating", "Rating must be between 1 and 5"));
+        }
+        if (request.comment() != null && request.comment().length() > 200) {
+            errors.add(new ErrorResponse.FieldError("comment", "Comment must be less than 200 characters"));
+        }
+        return errors;
+    }
+
+    /* The previous ValidationException: a regular exception that fills in its stack trace */
+    private static class LegacyValidationException extends RuntimeException {
+        private final List<ErrorResponse.FieldError> fieldErrors;
+
+        LegacyValidationException(List<ErrorResponse.FieldError> fieldErrors) {
+            super("Validation failed");
+            this.fieldErrors = fieldErrors;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package net.yorksolutions.tsgfeedbackapi.services;
+
+import net.yorksolutions.tsgfeedbackapi.dtos.ErrorResponse;
+import net.yorksolutions.tsgfeedbackapi.dtos.FeedbackRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ * Unit Tests for FeedbackRequestValidator
+ * Valid requests get the shared empty list
+ * Errors are reported in field order and reuse the same instances
+ * ValidationException does not capture a stack trace
+*/
+public class FeedbackRequestValidatorTest {
+
+    @Test
+    void validate_WithValidRequest_ReturnsSharedEmptyList() {
+        FeedbackRequest request = new FeedbackRequest("908908908", "Jerold Calloway Offices", 4, null);
+
+        assertSame(List.of(), FeedbackRequestValidator.validate(request));
+    }
+
+    @Test
+    void validate_WithEveryFieldInvalid_ReturnsErrorsInFieldOrder() {
+        FeedbackRequest request = new FeedbackRequest("a".repeat(37), " ", 0, "a".repeat(201));
+
+        List<ErrorResponse.FieldError> errors = FeedbackRequestValidator.validate(request);
+
+        assertEquals(List.of("memberId", "providerName", "rating", "comment"),
+            errors.stream().map(ErrorResponse.FieldError::field).toList());
+        assertSame(errors.get(0), FeedbackRequestValidator.validate(request).get(0));
+    }
+
+    @Test
+    void validationException_HasNoStackTrace() {
+        ValidationException exception = new ValidationException(List.of());
+
+        assertEquals(0, exception.getStackTrace().length);
+    }
+}
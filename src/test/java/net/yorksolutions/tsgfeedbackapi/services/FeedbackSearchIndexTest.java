@@ -0,0 +1,197 @@
+package net.yorksolutions.tsgfeedbackapi.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.yorksolutions.tsgfeedbackapi.dtos.FeedbackResponse;
+import net.yorksolutions.tsgfeedbackapi.dtos.FeedbackSearchPage;
+import net.yorksolutions.tsgfeedbackapi.repositories.FeedbackRepository;
+import net.yorksolutions.tsgfeedbackapi.repositories.PrimaryReads;
+import net.yorksolutions.tsgfeedbackapi.repositories.entities.UuidV7Generator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/*
+ * Unit Tests for FeedbackSearchIndex on a temporary index directory
+ * Comments are matched on stemmed words, ranked by relevance and filtered by provider
+ * Blank queries and out-of-range paging are rejected
+ * Feedback written by other instances is read in by tail()
+ * Hits moved to the archive are loaded from it; hits dropped by retention are removed from the index
+ * After a restart, feedback newer than the last commit is read back from the database
+*/
+public class FeedbackSearchIndexTest {
+
+    @TempDir
+    private Path indexDir;
+
+    @Mock
+    private FeedbackRepository feedbackRepository;
+
+    @Mock
+    private FeedbackReadCache readCache;
+
+    @Mock
+    private FeedbackArchive archive;
+
+    @Mock
+    private PrimaryReads primaryReads;
+
+    private final Map<UUID, FeedbackResponse> rows = new HashMap<>();
+    private FeedbackSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(feedbackRepository.findResponsesByIdIn(anyCollection())).thenAnswer(invocation ->
+            invocation.<Collection<UUID>>getArgument(0).stream().map(rows::get).filter(Objects::nonNull).toList());
+        when(archive.find(any())).thenReturn(Optional.empty());
+        when(archive.isRunning()).thenReturn(true);
+        searchIndex = start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (searchIndex.isRunning()) {
+            searchIndex.stop();
+        }
+    }
+
+    @Test
+    void search_RanksStemmedMatchesAndFiltersByProvider() throws Exception {
+        // Arrange
+        FeedbackResponse twice = feedback("Dr. Phill", "Billing was wrong, and the billing desk never called back");
+        FeedbackResponse once = feedback("Dr. Jones", "Friendly staff but I was billed for a visit I cancelled");
+        FeedbackResponse unrelated = feedback("Dr. Phill", "Long wait time in the lobby");
+        List.of(twice, once, unrelated).forEach(searchIndex::index);
+        searchIndex.refresh();
+
+        // Act
+        FeedbackSearchPage all = searchIndex.search("billing", null, 20, 0);
+        FeedbackSearchPage phill = searchIndex.search("billing", "Dr. Phill", 20, 0);
+        FeedbackSearchPage phrase = searchIndex.search("\"wait time\"", null, 20, 0);
+
+        // Assert
+        assertEquals(List.of(twice, once), all.items());
+        assertEquals(2, all.totalHits());
+        assertNull(all.nextOffset());
+        assertEquals(List.of(twice), phill.items());
+        assertEquals(List.of(unrelated), phrase.items());
+    }
+
+    @Test
+    void search_WithBlankQueryOrBadPaging_ThrowsValidationException() {
+        ValidationException exception = assertThrows(ValidationException.class,
+            () -> searchIndex.search(" ", null, 0, 1001));
+
+        assertEquals(List.of("q", "limit", "offset"),
+            exception.getFieldErrors().stream().map(error -> error.field()).toList());
+    }
+
+    @Test
+    void tail_ReadsFeedbackWrittenByOtherInstances() throws Exception {
+        // Arrange: committed by another instance, so index() was never called here
+        FeedbackResponse elsewhere = feedback("Dr. Jones", "Billing sent me to collections");
+        when(feedbackRepository.findResponsesBetween(
+            argThat(after -> after.version() == 7
+                && UuidV7Generator.timestampOf(after).isBefore(elsewhere.submittedAt())),
+            any(UUID.class),
+            any(Limit.class))).thenReturn(List.of(elsewhere));
+
+        // Act
+        searchIndex.tail();
+        searchIndex.refresh();
+
+        // Assert
+        assertEquals(List.of(elsewhere), searchIndex.search("billing", null, 20, 0).items());
+    }
+
+    @Test
+    void search_WithArchivedAndDroppedHits_LoadsArchiveAndForgetsDropped() throws Exception {
+        // Arrange
+        FeedbackResponse kept = feedback("Dr. Phill", "Billing was wrong");
+        FeedbackResponse archived = feedback("Dr. Phill", "Billing was wrong again");
+        FeedbackResponse dropped = feedback("Dr. Phill", "Billing was wrong every time");
+        List.of(kept, archived, dropped).forEach(searchIndex::index);
+        searchIndex.refresh();
+        rows.remove(archived.id());
+        rows.remove(dropped.id());
+        when(archive.find(archived.id())).thenReturn(Optional.of(archived));
+
+        // Act
+        FeedbackSearchPage first = searchIndex.search("billing", null, 20, 0);
+        searchIndex.refresh();
+        FeedbackSearchPage second = searchIndex.search("billing", null, 20, 0);
+
+        // Assert
+        assertEquals(3, first.totalHits());
+        assertEquals(2, first.items().size());
+        assertTrue(first.items().containsAll(List.of(kept, archived)));
+        assertEquals(2, second.totalHits());
+    }
+
+    @Test
+    void start_AfterRestart_CatchesUpFromLastCommit() throws Exception {
+        // Arrange
+        FeedbackResponse committed = feedback("Dr. Phill", "Billing was wrong");
+        searchIndex.index(committed);
+        searchIndex.stop();
+        // Committed to the database while this instance was down
+        FeedbackResponse missed = feedback("Dr. Phill", "Billing took weeks to fix");
+        // Catch-up reads the v7 id range from a margin before the last commit, not the whole table
+        when(feedbackRepository.findResponsesBetween(
+            argThat(after -> after.version() == 7
+                && !UuidV7Generator.timestampOf(after).isAfter(committed.submittedAt().minusSeconds(59))),
+            argThat(before -> before.version() == 7),
+            any(Limit.class))).thenReturn(List.of(missed));
+
+        // Act
+        searchIndex = start();
+
+        // Assert
+        FeedbackSearchPage page = awaitHits("billing", 2);
+        assertEquals(2, page.items().size());
+        assertTrue(page.items().contains(missed));
+    }
+
+    private FeedbackSearchIndex start() {
+        FeedbackSearchIndex index = new FeedbackSearchIndex(feedbackRepository, readCache, archive, primaryReads,
+            new SimpleMeterRegistry(), indexDir, 60_000, 10_000, 100);
+        index.start();
+        return index;
+    }
+
+    private FeedbackSearchPage awaitHits(String q, int hits) throws Exception {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        FeedbackSearchPage page;
+        do {
+            Thread.sleep(20);
+            searchIndex.refresh();
+            page = searchIndex.search(q, null, 20, 0);
+        } while (page.totalHits() < hits && System.nanoTime() < deadline);
+        return page;
+    }
+
+    private FeedbackResponse feedback(String provider, String comment) {
+        UUID id = UuidV7Generator.next();
+        FeedbackResponse response = new FeedbackResponse(id, "m-101", provider, 3, comment,
+            UuidV7Generator.timestampOf(id));
+        rows.put(id, response);
+        return response;
+    }
+}
@@ -0,0 +1,68 @@
+package net.yorksolutions.tsgfeedbackapi.services;
+
+import net.yorksolutions.tsgfeedbackapi.dtos.ErrorResponse;
+import net.yorksolutions.tsgfeedbackapi.dtos.FeedbackRequest;
+import net.yorksolutions.tsgfeedbackapi.dtos.FeedbackResponse;
+import net.yorksolutions.tsgfeedbackapi.dtos.contracts.FeedbackSubmittedEvent;
+import net.yorksolutions.tsgfeedbackapi.repositories.entities.FeedbackEntity;
+import net.yorksolutions.tsgfeedbackapi.repositories.entities.UuidV7Generator;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * JMH: validation and mapping work done by FeedbackService on every submission
+ * Run with: mvn -Pjmh test -Djmh.args="FeedbackServiceBenchmark"
+*/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FeedbackServiceBenchmark {
+
+    private FeedbackService feedbackService;
+    private FeedbackRequest validRequest;
+    private FeedbackRequest invalidRequest;
+    private FeedbackEntity savedEntity;
+
+    @Setup
+    public void setUp() {
+        // Validation and mapping never touch the collaborators
+        feedbackService = new FeedbackService(null, null, null, null, null, null, null, null, null);
+        validRequest = new FeedbackRequest("908908908", "Jerold Calloway Offices", 4, "Great experience");
+        invalidRequest = new FeedbackRequest("", "a".repeat(81), 9, "a".repeat(201));
+
+        savedEntity = feedbackService.mapToEntity(validRequest);
+        savedEntity.setId(UuidV7Generator.next());
+        savedEntity.setSubmittedAt(Instant.now());
+    }
+
+    @Benchmark
+    public List<ErrorResponse.FieldError> validateValid() {
+        return FeedbackRequestValidator.validate(validRequest);
+    }
+
+    @Benchmark
+    public List<ErrorResponse.FieldError> validateInvalid() {
+        return FeedbackRequestValidator.validate(invalidRequest);
+    }
+
+    @Benchmark
+    public FeedbackEntity mapToEntity() {
+        return feedbackService.mapToEntity(validRequest);
+    }
+
+    @Benchmark
+    public FeedbackResponse mapToResponse() {
+        return feedbackService.mapToResponse(savedEntity);
+    }
+
+    @Benchmark
+    public FeedbackSubmittedEvent mapToEvent() {
+        return feedbackService.mapToEvent(savedEntity);
+    }
+}
@@ -3,31 +3,45 @@ package net.yorksolutions.tsgfeedbackapi.services;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
+import net.yorksolutions.tsgfeedbackapi.dtos.BatchFeedbackResponse;
+import net.yorksolutions.tsgfeedbackapi.dtos.FeedbackPage;
 import net.yorksolutions.tsgfeedbackapi.dtos.FeedbackRequest;
 import net.yorksolutions.tsgfeedbackapi.dtos.FeedbackResponse;
 import net.yorksolutions.tsgfeedbackapi.dtos.ErrorResponse;
+import net.yorksolutions.tsgfeedbackapi.repositories.FeedbackIdempotencyKeyRepository;
 import net.yorksolutions.tsgfeedbackapi.repositories.FeedbackRepository;
+import net.yorksolutions.tsgfeedbackapi.repositories.PrimaryReads;
 import net.yorksolutions.tsgfeedbackapi.repositories.entities.FeedbackEntity;
 import net.yorksolutions.tsgfeedbackapi.messaging.FeedbackEventPublisher;
 
+import org.springframework.data.domain.Limit;
+
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 /*
  * Unit Tests for FeedbackService
- * Happy path tests for createFeedback
+ * Happy path tests for createFeedback, including phase timers and idempotency key claims
  * Test validation errors for createFeedback
- * Test getFeedbackById
- * Test getFeedbackByMemberId
+ * Test createFeedbackBatch per-item results
+ * Test createAssignedFeedback skips rows an earlier attempt already stored
+ * Test getFeedbackById, including the read cache, the primary re-check of replica misses and the archive fall-through
+ * Test getFeedbackByMemberId keyset paging, continuing into the archive
  * Test Mapping between DTO and Entity
 */
 public class FeedbackServiceTest {
@@ -38,6 +52,27 @@ public class FeedbackServiceTest {
     @Mock
     private FeedbackEventPublisher eventPublisher;
 
+    @Mock
+    private FeedbackReadCache readCache;
+
+    @Mock
+    private ProviderStatsService providerStats;
+
+    @Mock
+    private FeedbackMetrics metrics;
+
+    @Mock
+    private FeedbackIdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Mock
+    private FeedbackSearchIndex searchIndex;
+
+    @Mock
+    private FeedbackArchive archive;
+
+    @Mock
+    private PrimaryReads primaryReads;
+
     @InjectMocks
     private FeedbackService feedbackService;
 
@@ -71,7 +106,7 @@ public class FeedbackServiceTest {
         savedEntity.setComment("Great experience");
         savedEntity.setSubmittedAt(submittedAt);
 
-        when(feedbackRepository.save(any(FeedbackEntity.class))).thenReturn(savedEntity);
+        when(feedbackRepository.saveAndFlush(any(FeedbackEntity.class))).thenReturn(savedEntity);
         doNothing().when(eventPublisher).publishFeedbackSubmitted(any());
 
         // Act
@@ -86,8 +121,39 @@ public class FeedbackServiceTest {
         assertEquals("Great experience", response.comment()); // Fixed: removed period
         assertEquals(submittedAt, response.submittedAt());
 
-        verify(feedbackRepository, times(1)).save(any(FeedbackEntity.class));
+        verify(feedbackRepository, times(1)).saveAndFlush(any(FeedbackEntity.class));
         verify(eventPublisher, times(1)).publishFeedbackSubmitted(any());
+        verify(readCache, times(1)).put(response);
+        verify(providerStats, times(1)).record("Jerold Calloway Offices", 4, submittedAt);
+        verify(searchIndex, times(1)).index(response);
+        verify(metrics).record(eq(FeedbackMetrics.Phase.VALIDATE), anyLong());
+        verify(metrics).record(eq(FeedbackMetrics.Phase.PERSIST), anyLong());
+        // The outbox row is flushed inside the OUTBOX phase, and the commit is timed on its own
+        InOrder outbox = inOrder(eventPublisher, feedbackRepository, metrics);
+        outbox.verify(eventPublisher).publishFeedbackSubmitted(any());
+        outbox.verify(feedbackRepository).flush();
+        outbox.verify(metrics).record(eq(FeedbackMetrics.Phase.OUTBOX), anyLong());
+        outbox.verify(metrics).recordCommit();
+    }
+
+    @Test
+    void createFeedback_WithClaimedIdempotencyKey_ThrowsBeforePublishing() {
+        // Arrange
+        FeedbackRequest request = new FeedbackRequest("908908908", "Jerold Calloway Offices", 4, null);
+        FeedbackEntity savedEntity = new FeedbackEntity();
+        savedEntity.setId(UUID.randomUUID());
+        savedEntity.setMemberId("908908908");
+        savedEntity.setProviderName("Jerold Calloway Offices");
+        savedEntity.setRating(4);
+        savedEntity.setSubmittedAt(Instant.now());
+
+        when(feedbackRepository.saveAndFlush(any(FeedbackEntity.class))).thenReturn(savedEntity);
+        when(idempotencyKeyRepository.claim("908908908", "retry-1", savedEntity.getId())).thenReturn(0);
+
+        // Act + Assert
+        assertThrows(DuplicateIdempotencyKeyException.class, () -> feedbackService.createFeedback(request, "retry-1"));
+        verifyNoInteractions(eventPublisher);
+        verifyNoInteractions(readCache);
     }
 
     // ============================================
@@ -116,6 +182,8 @@ public class FeedbackServiceTest {
 
         verifyNoInteractions(feedbackRepository);
         verifyNoInteractions(eventPublisher);
+        verify(metrics).record(eq(FeedbackMetrics.Phase.VALIDATE), anyLong());
+        verifyNoMoreInteractions(metrics);
     }
 
     @Test
@@ -324,6 +392,85 @@ public class FeedbackServiceTest {
         verifyNoInteractions(eventPublisher);
     }
 
+    // ============================================
+    // createFeedbackBatch Tests
+    // ============================================
+
+    @Test
+    void createFeedbackBatch_WithMixedItems_PersistsValidAndReportsInvalid() {
+        // Arrange
+        FeedbackRequest valid = new FeedbackRequest("908908908", "Jerold Calloway Offices", 4, "Great experience");
+        FeedbackRequest invalid = new FeedbackRequest("908908908", "", 9, null);
+
+        when(feedbackRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<FeedbackEntity> entities = invocation.getArgument(0);
+            entities.forEach(entity -> {
+                entity.setId(UUID.randomUUID());
+                entity.setSubmittedAt(Instant.now());
+            });
+            return entities;
+        });
+
+        // Act
+        BatchFeedbackResponse response = feedbackService.createFeedbackBatch(List.of(valid, invalid, valid));
+
+        // Assert
+        assertEquals(2, response.accepted());
+        assertEquals(1, response.rejected());
+        assertEquals(3, response.results().size());
+
+        assertNotNull(response.results().get(0).feedback());
+        assertNull(response.results().get(0).errors());
+
+        BatchFeedbackResponse.ItemResult rejected = response.results().get(1);
+        assertEquals(1, rejected.index());
+        assertNull(rejected.feedback());
+        assertEquals(2, rejected.errors().size());
+
+        assertEquals(2, response.results().get(2).index());
+        assertNotNull(response.results().get(2).feedback());
+
+        verify(feedbackRepository, times(1)).saveAll(argThat(entities -> ((List<?>) entities).size() == 2));
+        verify(feedbackRepository, times(1)).flush();
+        verify(eventPublisher, times(1)).publishFeedbackSubmittedBatch(argThat(events -> events.size() == 2));
+    }
+
+    @Test
+    void createFeedbackBatch_WithOnlyInvalidItems_SkipsPersistence() {
+        // Arrange
+        FeedbackRequest invalid = new FeedbackRequest("", "Jerold Calloway Offices", 4, null);
+
+        // Act
+        BatchFeedbackResponse response = feedbackService.createFeedbackBatch(List.of(invalid));
+
+        // Assert
+        assertEquals(0, response.accepted());
+        assertEquals(1, response.rejected());
+        verifyNoInteractions(feedbackRepository);
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void createAssignedFeedback_WithRowAlreadyStored_PublishesOnlyNewRows() {
+        // Arrange: the first row was committed by an attempt whose outcome was lost
+        FeedbackResponse stored = new FeedbackResponse(
+            UUID.randomUUID(), "908908908", "Jerold Calloway Offices", 4, null, Instant.now());
+        FeedbackResponse fresh = new FeedbackResponse(
+            UUID.randomUUID(), "908908908", "Jerold Calloway Offices", 5, "Retried", Instant.now());
+        when(feedbackRepository.insertAbsent(any(), any(), any(), any(), any(), any())).thenReturn(List.of(fresh.id()));
+
+        // Act
+        List<FeedbackResponse> inserted = feedbackService.createAssignedFeedback(List.of(stored, fresh));
+
+        // Assert
+        assertEquals(List.of(fresh), inserted);
+        verify(feedbackRepository).insertAbsent(
+            argThat(ids -> ids.length == 2 && ids[0].equals(stored.id()) && ids[1].equals(fresh.id())),
+            any(), any(), any(), any(), any());
+        verify(eventPublisher, times(1)).publishFeedbackSubmittedBatch(
+            argThat(events -> events.size() == 1 && events.get(0).id().equals(fresh.id().toString())));
+    }
+
     // ============================================
     // getFeedbackById Tests
     // ============================================
@@ -334,16 +481,11 @@ public class FeedbackServiceTest {
         UUID id = UUID.randomUUID();
         Instant submittedAt = Instant.now();
 
-        FeedbackEntity entity = new FeedbackEntity();
-        entity.setId(id);
-        entity.setMemberId("908908908");
-        entity.setProviderName("Jerold Calloway Offices");
-        entity.setRating(4);
-        entity.setComment("Great experience");
-        entity.setSubmittedAt(submittedAt);
+        FeedbackResponse stored = new FeedbackResponse(
+            id, "908908908", "Jerold Calloway Offices", 4, "Great experience", submittedAt);
 
-        when(feedbackRepository.findById(id))
-            .thenReturn(Optional.of(entity));
+        when(feedbackRepository.findResponseById(id))
+            .thenReturn(Optional.of(stored));
 
         // Act
         FeedbackResponse response = feedbackService.getFeedbackById(id);
@@ -356,7 +498,7 @@ public class FeedbackServiceTest {
         assertEquals(4, response.rating());
         assertEquals("Great experience", response.comment());
 
-        verify(feedbackRepository, times(1)).findById(id);
+        verify(feedbackRepository, times(1)).findResponseById(id);
     }
 
     @Test
@@ -364,7 +506,7 @@ public class FeedbackServiceTest {
         // Arrange
         UUID invalidId = UUID.randomUUID();
 
-        when(feedbackRepository.findById(invalidId))
+        when(feedbackRepository.findResponseById(invalidId))
             .thenReturn(Optional.empty());  // Not found
 
         // Act & Assert
@@ -375,7 +517,75 @@ public class FeedbackServiceTest {
 
         assertTrue(exception.getMessage().contains("Feedback not found with id: " + invalidId));
 
-        verify(feedbackRepository, times(1)).findById(invalidId);
+        verify(feedbackRepository, times(1)).findResponseById(invalidId);
+        verify(readCache, times(1)).putMissing(invalidId);
+    }
+
+    @Test
+    void getFeedbackById_WithCachedResponse_SkipsRepository() {
+        // Arrange
+        UUID id = UUID.randomUUID();
+        FeedbackResponse cached = new FeedbackResponse(
+            id, "908908908", "Jerold Calloway Offices", 4, "Great experience", Instant.now());
+        when(readCache.get(id)).thenReturn(cached);
+
+        // Act
+        FeedbackResponse response = feedbackService.getFeedbackById(id);
+
+        // Assert
+        assertSame(cached, response);
+        verifyNoInteractions(feedbackRepository);
+    }
+
+    @Test
+    void getFeedbackById_WithKnownMissingId_SkipsRepository() {
+        // Arrange
+        UUID id = UUID.randomUUID();
+        when(readCache.isKnownMissing(id)).thenReturn(true);
+
+        // Act & Assert
+        assertThrows(FeedbackNotFoundException.class, () -> feedbackService.getFeedbackById(id));
+        verifyNoInteractions(feedbackRepository);
+    }
+
+    @Test
+    void getFeedbackById_WithReplicaMiss_ReadsPrimaryBeforeCachingMiss() {
+        // Arrange: the replica has not replayed the first row yet, the second does not exist anywhere
+        UUID lagging = UUID.randomUUID();
+        UUID missing = UUID.randomUUID();
+        FeedbackResponse stored = new FeedbackResponse(
+            lagging, "908908908", "Jerold Calloway Offices", 4, "Great experience", Instant.now());
+        when(primaryReads.hasReplica()).thenReturn(true);
+        when(primaryReads.read(any())).thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(0)).get());
+        when(feedbackRepository.findResponseById(lagging)).thenReturn(Optional.empty(), Optional.of(stored));
+        when(feedbackRepository.findResponseById(missing)).thenReturn(Optional.empty());
+        when(archive.find(missing)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertSame(stored, feedbackService.getFeedbackById(lagging));
+        verify(readCache, never()).putMissing(lagging);
+
+        assertThrows(FeedbackNotFoundException.class, () -> feedbackService.getFeedbackById(missing));
+        verify(primaryReads, times(2)).read(any());
+        verify(readCache).putMissing(missing);
+    }
+
+    @Test
+    void getFeedbackById_WithArchivedId_ReadsArchiveAndCaches() {
+        // Arrange
+        UUID id = UUID.randomUUID();
+        FeedbackResponse archived = new FeedbackResponse(
+            id, "908908908", "Jerold Calloway Offices", 4, "Great experience", Instant.parse("2023-01-14T12:00:00Z"));
+        when(feedbackRepository.findResponseById(id)).thenReturn(Optional.empty());
+        when(archive.find(id)).thenReturn(Optional.of(archived));
+
+        // Act
+        FeedbackResponse response = feedbackService.getFeedbackById(id);
+
+        // Assert
+        assertSame(archived, response);
+        verify(readCache).put(archived);
+        verify(readCache, never()).putMissing(id);
     }
 
     // ============================================
@@ -383,7 +593,7 @@ public class FeedbackServiceTest {
     // ============================================
 
     @Test
-    void getFeedbackByMemberId_WithValidMemberId_ReturnsList() {
+    void getFeedbackByMemberId_WithValidMemberId_ReturnsPage() {
         // Arrange
         String memberId = "908908908";
         Instant submittedAt = Instant.now();
@@ -391,31 +601,22 @@ public class FeedbackServiceTest {
         UUID id1 = UUID.randomUUID();
         UUID id2 = UUID.randomUUID();
 
-        FeedbackEntity entity1 = new FeedbackEntity();
-        entity1.setId(id1);
-        entity1.setMemberId(memberId);
-        entity1.setProviderName("Jerold Calloway Offices");
-        entity1.setRating(4);
-        entity1.setComment("Great experience");
-        entity1.setSubmittedAt(submittedAt);
-
-        FeedbackEntity entity2 = new FeedbackEntity();
-        entity2.setId(id2);
-        entity2.setMemberId(memberId);
-        entity2.setProviderName("Dr. Jones");
-        entity2.setRating(5);
-        entity2.setComment("Excellent!");
-        entity2.setSubmittedAt(submittedAt);
-
-        when(feedbackRepository.findByMemberId(memberId))
-            .thenReturn(List.of(entity1, entity2));
+        FeedbackResponse row1 = new FeedbackResponse(
+            id1, memberId, "Jerold Calloway Offices", 4, "Great experience", submittedAt);
+        FeedbackResponse row2 = new FeedbackResponse(
+            id2, memberId, "Dr. Jones", 5, "Excellent!", submittedAt);
+
+        when(feedbackRepository.findPageByMemberId(memberId, Limit.of(51)))
+            .thenReturn(List.of(row1, row2));
 
         // Act
-        List<FeedbackResponse> responses = feedbackService.getFeedbackByMemberId(memberId);
+        FeedbackPage page = feedbackService.getFeedbackByMemberId(memberId, 50, null);
+        List<FeedbackResponse> responses = page.items();
 
         // Assert
         assertNotNull(responses);
         assertEquals(2, responses.size());
+        assertNull(page.nextCursor(), "Last page should not have a next cursor");
 
         assertEquals(id1, responses.get(0).id());
         assertEquals("Jerold Calloway Offices", responses.get(0).providerName());
@@ -423,24 +624,106 @@ public class FeedbackServiceTest {
         assertEquals(id2, responses.get(1).id());
         assertEquals("Dr. Jones", responses.get(1).providerName());
 
-        verify(feedbackRepository, times(1)).findByMemberId(memberId);
+        verify(feedbackRepository, times(1)).findPageByMemberId(memberId, Limit.of(51));
+    }
+
+    @Test
+    void getFeedbackByMemberId_WithMoreRows_ReturnsCursorForNextPage() {
+        // Arrange
+        String memberId = "908908908";
+        Instant newer = Instant.parse("2025-11-14T12:00:00Z");
+        Instant older = newer.minusSeconds(60);
+
+        FeedbackResponse first = new FeedbackResponse(
+            UUID.randomUUID(), memberId, "Jerold Calloway Offices", 4, null, newer);
+        FeedbackResponse extra = new FeedbackResponse(
+            UUID.randomUUID(), memberId, "Dr. Jones", 5, null, older);
+
+        when(feedbackRepository.findPageByMemberId(memberId, Limit.of(2)))
+            .thenReturn(List.of(first, extra));
+        when(feedbackRepository.findPageByMemberIdBefore(memberId, newer, first.id(), Limit.of(2)))
+            .thenReturn(List.of(extra));
+
+        // Act
+        FeedbackPage firstPage = feedbackService.getFeedbackByMemberId(memberId, 1, null);
+        FeedbackPage secondPage = feedbackService.getFeedbackByMemberId(memberId, 1, firstPage.nextCursor());
+
+        // Assert
+        assertEquals(1, firstPage.items().size());
+        assertEquals(first.id(), firstPage.items().get(0).id());
+        assertNotNull(firstPage.nextCursor());
+
+        assertEquals(1, secondPage.items().size());
+        assertEquals(extra.id(), secondPage.items().get(0).id());
+        assertNull(secondPage.nextCursor());
+    }
+
+    @Test
+    void getFeedbackByMemberId_WhenDatabaseRunsOut_ContinuesIntoArchive() {
+        // Arrange: one row left in the database, two older ones archived
+        String memberId = "908908908";
+        FeedbackResponse recent = new FeedbackResponse(
+            UUID.randomUUID(), memberId, "Dr. Jones", 5, null, Instant.parse("2025-11-14T12:00:00Z"));
+        FeedbackResponse archived1 = new FeedbackResponse(
+            UUID.randomUUID(), memberId, "Dr. Jones", 4, null, Instant.parse("2023-06-01T12:00:00Z"));
+        FeedbackResponse archived2 = new FeedbackResponse(
+            UUID.randomUUID(), memberId, "Dr. Jones", 3, null, Instant.parse("2023-05-01T12:00:00Z"));
+
+        when(feedbackRepository.findPageByMemberId(memberId, Limit.of(3))).thenReturn(List.of(recent));
+        when(archive.findByMember(memberId, recent.submittedAt(), recent.id(), 2))
+            .thenReturn(List.of(archived1, archived2));
+        when(archive.findByMember(memberId, archived1.submittedAt(), archived1.id(), 3))
+            .thenReturn(List.of(archived2));
+
+        // Act
+        FeedbackPage firstPage = feedbackService.getFeedbackByMemberId(memberId, 2, null);
+        FeedbackPage secondPage = feedbackService.getFeedbackByMemberId(memberId, 2, firstPage.nextCursor());
+
+        // Assert: the page spans both tiers and the cursor carries on in the archive
+        assertEquals(List.of(recent, archived1), firstPage.items());
+        assertNotNull(firstPage.nextCursor());
+        assertEquals(List.of(archived2), secondPage.items());
+        assertNull(secondPage.nextCursor());
+    }
+
+    @Test
+    void getFeedbackByMemberId_WithInvalidCursor_ThrowsValidationException() {
+        ValidationException exception = assertThrows(
+            ValidationException.class,
+            () -> feedbackService.getFeedbackByMemberId("908908908", 50, "not-a-cursor")
+        );
+
+        assertEquals("cursor", exception.getFieldErrors().get(0).field());
+        verifyNoInteractions(feedbackRepository);
+    }
+
+    @Test
+    void getFeedbackByMemberId_WithLimitOutOfRange_ThrowsValidationException() {
+        ValidationException exception = assertThrows(
+            ValidationException.class,
+            () -> feedbackService.getFeedbackByMemberId("908908908", 0, null)
+        );
+
+        assertEquals("limit", exception.getFieldErrors().get(0).field());
+        verifyNoInteractions(feedbackRepository);
     }
 
     @Test
-    void getFeedbackByMemberId_WithNoResults_ReturnsEmptyList() {
+    void getFeedbackByMemberId_WithNoResults_ReturnsEmptyPage() {
         // Arrange
         String memberId = "m-999";
 
-        when(feedbackRepository.findByMemberId(memberId))
+        when(feedbackRepository.findPageByMemberId(memberId, Limit.of(51)))
             .thenReturn(List.of());  // Empty list
 
         // Act
-        List<FeedbackResponse> responses = feedbackService.getFeedbackByMemberId(memberId);
+        FeedbackPage page = feedbackService.getFeedbackByMemberId(memberId, 50, null);
 
         // Assert
-        assertNotNull(responses);
-        assertTrue(responses.isEmpty(), "Should return empty list when no results");
+        assertNotNull(page.items());
+        assertTrue(page.items().isEmpty(), "Should return empty page when no results");
+        assertNull(page.nextCursor());
 
-        verify(feedbackRepository, times(1)).findByMemberId(memberId);
+        verify(feedbackRepository, times(1)).findPageByMemberId(memberId, Limit.of(51));
     }
 }
\ No newline at end of file
@@ -0,0 +1,138 @@
+package net.yorksolutions.tsgfeedbackapi.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.yorksolutions.tsgfeedbackapi.dtos.BatchFeedbackResponse;
+import net.yorksolutions.tsgfeedbackapi.dtos.FeedbackRequest;
+import net.yorksolutions.tsgfeedbackapi.dtos.FeedbackResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/*
+ * Unit Tests for GroupCommitCoalescer
+ * Invalid requests are rejected on the caller's thread
+ * Concurrent submissions share one createFeedbackBatch call and each get their own response
+ * A failed group commit fails every caller in it
+ * Once stopped, submissions are committed on their own instead of waiting on flushers that have exited
+*/
+public class GroupCommitCoalescerTest {
+
+    private static final FeedbackRequest REQUEST = new FeedbackRequest("908908908", "Jerold Calloway Offices", 4, null);
+
+    @Mock
+    private FeedbackService feedbackService;
+
+    private GroupCommitCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        // A wide window with one flusher so every submission in the test joins the same group
+        coalescer = new GroupCommitCoalescer(feedbackService, new SimpleMeterRegistry(),
+            true, 500, 4, 1, 100, false);
+        coalescer.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        coalescer.stop();
+    }
+
+    @Test
+    void submit_WithInvalidRequest_ThrowsValidationException() {
+        FeedbackRequest invalid = new FeedbackRequest("908908908", "Jerold Calloway Offices", 9, null);
+
+        assertThrows(ValidationException.class, () -> coalescer.submit(invalid));
+        verify(feedbackService, never()).createFeedbackBatch(anyList());
+    }
+
+    @Test
+    void submit_WithConcurrentCallers_CommitsOneGroup() throws Exception {
+        // Arrange
+        when(feedbackService.createFeedbackBatch(anyList())).thenAnswer(invocation -> {
+            List<FeedbackRequest> requests = invocation.getArgument(0);
+            List<BatchFeedbackResponse.ItemResult> results = new ArrayList<>();
+            for (int i = 0; i < requests.size(); i++) {
+                results.add(BatchFeedbackResponse.ItemResult.accepted(i, new FeedbackResponse(
+                    UUID.randomUUID(), "908908908", "Jerold Calloway Offices", 4, null, Instant.now())));
+            }
+            return new BatchFeedbackResponse(requests.size(), 0, results);
+        });
+
+        // Act
+        List<FeedbackResponse> responses = submitConcurrently(4);
+
+        // Assert
+        verify(feedbackService, times(1)).createFeedbackBatch(argThat(requests -> requests.size() == 4));
+        assertEquals(4, responses.stream().map(FeedbackResponse::id).distinct().count());
+    }
+
+    @Test
+    void submit_WhenGroupCommitFails_FailsEveryCaller() throws Exception {
+        when(feedbackService.createFeedbackBatch(anyList()))
+            .thenThrow(new CannotCreateTransactionException("Pool exhausted"));
+
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<FeedbackResponse>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(callers.submit(() -> coalescer.submit(REQUEST)));
+            }
+            for (Future<FeedbackResponse> future : futures) {
+                ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+                assertInstanceOf(CannotCreateTransactionException.class, e.getCause());
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void submit_AfterStop_FallsBackToCreateFeedback() {
+        // Arrange
+        FeedbackResponse created = new FeedbackResponse(
+            UUID.randomUUID(), "908908908", "Jerold Calloway Offices", 4, null, Instant.now());
+        when(feedbackService.createFeedback(REQUEST)).thenReturn(created);
+        coalescer.stop();
+
+        // Act & Assert
+        assertSame(created, assertTimeoutPreemptively(Duration.ofSeconds(5), () -> coalescer.submit(REQUEST)));
+        verify(feedbackService, never()).createFeedbackBatch(anyList());
+    }
+
+    private List<FeedbackResponse> submitConcurrently(int count) throws Exception {
+        ExecutorService callers = Executors.newFixedThreadPool(count);
+        try {
+            List<CompletableFuture<FeedbackResponse>> futures = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                futures.add(CompletableFuture.supplyAsync(() -> coalescer.submit(REQUEST), callers));
+            }
+            List<FeedbackResponse> responses = new ArrayList<>();
+            for (CompletableFuture<FeedbackResponse> future : futures) {
+                responses.add(future.get(5, TimeUnit.SECONDS));
+            }
+            return responses;
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+}
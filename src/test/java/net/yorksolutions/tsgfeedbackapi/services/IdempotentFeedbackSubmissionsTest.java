@@ -0,0 +1,97 @@
+package net.yorksolutions.tsgfeedbackapi.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.yorksolutions.tsgfeedbackapi.dtos.FeedbackRequest;
+import net.yorksolutions.tsgfeedbackapi.dtos.FeedbackResponse;
+import net.yorksolutions.tsgfeedbackapi.repositories.FeedbackIdempotencyKeyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/*
+ * Unit Tests for IdempotentFeedbackSubmissions
+ * First use of a key creates feedback; a retry is replayed from memory
+ * A key already claimed in the database is replayed from the stored feedback, read on the primary
+ * Reusing a key for different content is rejected
+ * Invalid keys are rejected before anything is stored
+*/
+public class IdempotentFeedbackSubmissionsTest {
+
+    private static final FeedbackRequest REQUEST = new FeedbackRequest("908908908", "Jerold Calloway Offices", 4, null);
+    private static final FeedbackResponse CREATED = new FeedbackResponse(
+        UUID.randomUUID(), "908908908", "Jerold Calloway Offices", 4, null, Instant.now());
+
+    @Mock
+    private FeedbackService feedbackService;
+
+    @Mock
+    private FeedbackIdempotencyKeyRepository keyRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private IdempotentFeedbackSubmissions submissions;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        submissions = new IdempotentFeedbackSubmissions(feedbackService, keyRepository, transactionManager,
+            new SimpleMeterRegistry(), 100, 60_000);
+    }
+
+    @Test
+    void submit_WithRetriedKey_ReplaysFromMemory() {
+        when(feedbackService.createFeedback(REQUEST, "retry-1")).thenReturn(CREATED);
+
+        IdempotentFeedbackSubmissions.Result first = submissions.submit(REQUEST, "retry-1");
+        IdempotentFeedbackSubmissions.Result retry = submissions.submit(REQUEST, "retry-1");
+
+        assertFalse(first.replayed());
+        assertTrue(retry.replayed());
+        assertEquals(CREATED, retry.feedback());
+        verify(feedbackService, times(1)).createFeedback(any(), anyString());
+        verifyNoInteractions(keyRepository);
+    }
+
+    @Test
+    void submit_WithKeyClaimedInDatabase_ReplaysStoredFeedback() {
+        when(feedbackService.createFeedback(REQUEST, "retry-1")).thenThrow(new DuplicateIdempotencyKeyException());
+        when(keyRepository.findFeedbackId("908908908", "retry-1")).thenReturn(Optional.of(CREATED.id()));
+        when(feedbackService.getFeedbackById(CREATED.id())).thenReturn(CREATED);
+
+        IdempotentFeedbackSubmissions.Result result = submissions.submit(REQUEST, "retry-1");
+
+        assertTrue(result.replayed());
+        assertEquals(CREATED, result.feedback());
+        // Read-write, so the lookup is served by the primary that just committed the claim
+        verify(transactionManager).getTransaction(argThat(definition -> !definition.isReadOnly()));
+    }
+
+    @Test
+    void submit_WithKeyReusedForDifferentContent_ThrowsIdempotencyKeyReusedException() {
+        when(feedbackService.createFeedback(REQUEST, "retry-1")).thenReturn(CREATED);
+        submissions.submit(REQUEST, "retry-1");
+
+        FeedbackRequest different = new FeedbackRequest("908908908", "Jerold Calloway Offices", 1, null);
+
+        assertThrows(IdempotencyKeyReusedException.class, () -> submissions.submit(different, "retry-1"));
+    }
+
+    @Test
+    void submit_WithBlankKey_ThrowsValidationException() {
+        ValidationException exception = assertThrows(ValidationException.class, () -> submissions.submit(REQUEST, " "));
+
+        assertEquals("Idempotency-Key", exception.getFieldErrors().get(0).field());
+        verifyNoInteractions(feedbackService);
+    }
+}
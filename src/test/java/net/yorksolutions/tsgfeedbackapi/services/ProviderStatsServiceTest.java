@@ -0,0 +1,231 @@
+package net.yorksolutions.tsgfeedbackapi.services;
+
+import net.yorksolutions.tsgfeedbackapi.dtos.ProviderStatsResponse;
+import net.yorksolutions.tsgfeedbackapi.dtos.ProviderTrendResponse;
+import net.yorksolutions.tsgfeedbackapi.repositories.ProviderRatingRollupRepository;
+import net.yorksolutions.tsgfeedbackapi.repositories.ProviderRatingStatsRepository;
+import net.yorksolutions.tsgfeedbackapi.repositories.entities.ProviderRatingRollupEntity;
+import net.yorksolutions.tsgfeedbackapi.repositories.entities.ProviderRatingStatsEntity;
+import net.yorksolutions.tsgfeedbackapi.repositories.entities.UuidV7Generator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/*
+ * Unit Tests for ProviderStatsService
+ * Reads combine stored totals with unflushed deltas
+ * Flush adds the pending delta once and clears it
+ * Failed flushes keep the delta for the next attempt
+ * Deltas go to the totals and the hour and day rows unless the hour was already recounted
+ * Catch-up recounts settled hours (plus the late window), moves the totals by the change, advances the watermark
+ * Trends read one rollup row per bucket over a bucket-aligned range
+*/
+public class ProviderStatsServiceTest {
+
+    private static final String PROVIDER = "Jerold Calloway Offices";
+    private static final Instant NOW = Instant.parse("2025-03-10T12:34:00Z");
+    private static final Instant CURRENT_HOUR = Instant.parse("2025-03-10T12:00:00Z");
+    private static final Instant TODAY = Instant.parse("2025-03-10T00:00:00Z");
+
+    @Mock
+    private ProviderRatingStatsRepository statsRepository;
+
+    @Mock
+    private ProviderRatingRollupRepository rollupRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ProviderStatsService providerStatsService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(rollupRepository.lockReconciledThroughForShare()).thenReturn(CURRENT_HOUR);
+        // Settles 10 minutes after an hour ends; recounted hours are recounted again for 1 hour
+        providerStatsService = new ProviderStatsService(statsRepository, rollupRepository, transactionManager,
+            600_000, 3_600_000, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void getStats_CombinesStoredTotalsWithPendingDelta() {
+        // Arrange: 2 stored ratings (4, 5) and 1 pending rating (3)
+        ProviderRatingStatsEntity stored = new ProviderRatingStatsEntity();
+        stored.setProviderName(PROVIDER);
+        stored.setRatingCount(2);
+        stored.setRatingSum(9);
+        stored.setRating4(1);
+        stored.setRating5(1);
+        when(statsRepository.findById(PROVIDER)).thenReturn(Optional.of(stored));
+
+        providerStatsService.record(PROVIDER, 3, NOW);
+
+        // Act
+        ProviderStatsResponse stats = providerStatsService.getStats(PROVIDER);
+
+        // Assert
+        assertEquals(3, stats.count());
+        assertEquals(4.0, stats.mean());
+        assertEquals(0L, stats.histogram().get(1));
+        assertEquals(1L, stats.histogram().get(3));
+        assertEquals(1L, stats.histogram().get(4));
+        assertEquals(1L, stats.histogram().get(5));
+    }
+
+    @Test
+    void getStats_WithUnknownProvider_ThrowsProviderNotFoundException() {
+        when(statsRepository.findById("nobody")).thenReturn(Optional.empty());
+
+        assertThrows(ProviderNotFoundException.class, () -> providerStatsService.getStats("nobody"));
+    }
+
+    @Test
+    void flush_AddsPendingDeltaOnce() {
+        // Arrange
+        providerStatsService.record(PROVIDER, 5, NOW);
+        providerStatsService.record(PROVIDER, 5, NOW);
+        providerStatsService.record(PROVIDER, 1, NOW);
+
+        // Act
+        providerStatsService.flush();
+        providerStatsService.flush();
+
+        // Assert
+        verify(statsRepository, times(1)).addDelta(PROVIDER, 3, 11, 1, 0, 0, 0, 2);
+    }
+
+    @Test
+    void flush_WithDatabaseError_RetriesDeltaOnNextFlush() {
+        // Arrange
+        providerStatsService.record(PROVIDER, 2, NOW);
+        doThrow(new RuntimeException("database down"))
+            .doNothing()
+            .when(statsRepository).addDelta(anyString(), anyLong(), anyLong(), anyLong(), anyLong(), anyLong(), anyLong(), anyLong());
+
+        // Act
+        providerStatsService.flush();
+        providerStatsService.flush();
+
+        // Assert
+        verify(statsRepository, times(2)).addDelta(PROVIDER, 1, 2, 0, 1, 0, 0, 0);
+    }
+
+    @Test
+    void flush_AddsRollupDeltaToHourAndDayUnlessHourWasRecounted() {
+        // Arrange: two ratings in the current hour, one in the previous (already recounted) hour
+        providerStatsService.record(PROVIDER, 5, Instant.parse("2025-03-10T12:05:00Z"));
+        providerStatsService.record(PROVIDER, 1, Instant.parse("2025-03-10T12:50:00Z"));
+        providerStatsService.record(PROVIDER, 4, Instant.parse("2025-03-10T11:59:59Z"));
+
+        // Act
+        providerStatsService.flush();
+        providerStatsService.flush();
+
+        // Assert: totals, then day row before hour row, the lock order shared by every instance
+        InOrder inOrder = inOrder(rollupRepository, statsRepository);
+        inOrder.verify(rollupRepository).lockReconciledThroughForShare();
+        inOrder.verify(statsRepository).addDelta(PROVIDER, 2, 6, 1, 0, 0, 0, 1);
+        inOrder.verify(rollupRepository).addDelta(PROVIDER, "day", TODAY, 2, 6, 1, 0, 0, 0, 1);
+        inOrder.verify(rollupRepository).addDelta(PROVIDER, "hour", CURRENT_HOUR, 2, 6, 1, 0, 0, 0, 1);
+        verify(rollupRepository, times(2)).addDelta(anyString(), anyString(), any(), anyLong(), anyLong(),
+            anyLong(), anyLong(), anyLong(), anyLong(), anyLong());
+        verify(statsRepository, times(1)).addDelta(anyString(), anyLong(), anyLong(), anyLong(), anyLong(), anyLong(),
+            anyLong(), anyLong());
+    }
+
+    @Test
+    void flush_WithRollupDatabaseError_RetriesBothDeltasOnNextFlush() {
+        // Arrange
+        providerStatsService.record(PROVIDER, 2, NOW);
+        when(rollupRepository.lockReconciledThroughForShare())
+            .thenThrow(new RuntimeException("database down"))
+            .thenReturn(CURRENT_HOUR);
+
+        // Act
+        providerStatsService.flush();
+        providerStatsService.flush();
+
+        // Assert
+        verify(rollupRepository, times(1)).addDelta(PROVIDER, "hour", CURRENT_HOUR, 1, 2, 0, 1, 0, 0, 0);
+        verify(statsRepository, times(1)).addDelta(PROVIDER, 1, 2, 0, 1, 0, 0, 0);
+    }
+
+    @Test
+    void catchUpRollups_RecountsSettledHoursAndAdvancesWatermark() {
+        // Arrange: recounted through 10:00; 11:00-12:00 ended 34 minutes ago and has settled, 12:00-13:00 has not
+        Instant reconciledThrough = Instant.parse("2025-03-10T10:00:00Z");
+        when(rollupRepository.lockReconciledThroughForUpdate()).thenReturn(reconciledThrough);
+
+        // Act
+        providerStatsService.catchUpRollups();
+
+        // Assert: from one late window behind the watermark, found by v7 id range; the totals swap the
+        // old hour rows for the recounted ones
+        Instant from = Instant.parse("2025-03-10T09:00:00Z");
+        InOrder inOrder = inOrder(rollupRepository, statsRepository);
+        inOrder.verify(rollupRepository).lockReconciledThroughForUpdate();
+        inOrder.verify(statsRepository).subtractHours(from, CURRENT_HOUR);
+        inOrder.verify(rollupRepository).recountHours(from, CURRENT_HOUR,
+            UuidV7Generator.lowerBound(Instant.parse("2025-03-10T08:55:00Z")),
+            UuidV7Generator.lowerBound(Instant.parse("2025-03-10T12:05:00Z")));
+        inOrder.verify(statsRepository).addHours(from, CURRENT_HOUR);
+        inOrder.verify(rollupRepository).rollUpDays(TODAY, Instant.parse("2025-03-11T00:00:00Z"));
+        inOrder.verify(rollupRepository).setReconciledThrough(CURRENT_HOUR);
+    }
+
+    @Test
+    void getTrend_ReadsBucketAlignedRange() {
+        // Arrange
+        ProviderRatingRollupEntity row = new ProviderRatingRollupEntity();
+        row.setProviderName(PROVIDER);
+        row.setBucket("hour");
+        row.setBucketStart(CURRENT_HOUR);
+        row.setRatingCount(4);
+        row.setRatingSum(14);
+        row.setRating2(1);
+        row.setRating4(2);
+        row.setRating5(1);
+        Instant from = Instant.parse("2025-03-09T10:30:00Z");
+        when(rollupRepository.findRange(PROVIDER, "hour", Instant.parse("2025-03-09T10:00:00Z"),
+            Instant.parse("2025-03-10T13:00:00Z"))).thenReturn(List.of(row));
+
+        // Act
+        ProviderTrendResponse trend = providerStatsService.getTrend(PROVIDER, from, NOW, "hour");
+
+        // Assert
+        assertEquals(Instant.parse("2025-03-09T10:00:00Z"), trend.from());
+        assertEquals(Instant.parse("2025-03-10T13:00:00Z"), trend.to());
+        assertEquals(1, trend.points().size());
+        ProviderTrendResponse.Point point = trend.points().get(0);
+        assertEquals(CURRENT_HOUR, point.bucketStart());
+        assertEquals(4, point.count());
+        assertEquals(3.5, point.mean());
+        assertEquals(2L, point.histogram().get(4));
+    }
+
+    @Test
+    void getTrend_WithBadBucketOrRange_ThrowsValidationException() {
+        ValidationException badBucket = assertThrows(ValidationException.class,
+            () -> providerStatsService.getTrend(PROVIDER, NOW, NOW, "week"));
+        ValidationException tooMany = assertThrows(ValidationException.class,
+            () -> providerStatsService.getTrend(PROVIDER, NOW.minusSeconds(3600L * 1000), NOW, "hour"));
+
+        assertEquals(List.of("bucket", "from"),
+            badBucket.getFieldErrors().stream().map(error -> error.field()).toList());
+        assertEquals(List.of("from"), tooMany.getFieldErrors().stream().map(error -> error.field()).toList());
+        verifyNoInteractions(rollupRepository);
+    }
+}
@@ -0,0 +1,46 @@
+package net.yorksolutions.tsgfeedbackapi.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * JMH: cost of an admitted SubmissionRateLimiter.acquire under concurrency
+ * Limits are set high enough that nothing is refused, so this measures the CAS path alone;
+ * distinctMembers spreads threads over many member buckets, sameMember has them all hit one
+ * Run with: mvn -Pjmh test -Djmh.args="SubmissionRateLimiterBenchmark"
+*/
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class SubmissionRateLimiterBenchmark {
+
+    private SubmissionRateLimiter limiter;
+    private String[] members;
+
+    @Setup
+    public void setUp() {
+        limiter = new SubmissionRateLimiter(new SimpleMeterRegistry(), true, 1e9, 1_000_000, 100_000,
+            1e9, 1_000_000, System::nanoTime);
+        members = new String[10_000];
+        for (int i = 0; i < members.length; i++) {
+            members[i] = "m-" + i;
+        }
+    }
+
+    @Benchmark
+    public void distinctMembers() {
+        limiter.acquire(members[ThreadLocalRandom.current().nextInt(members.length)]);
+    }
+
+    @Benchmark
+    public void sameMember() {
+        limiter.acquire(members[0]);
+    }
+}
@@ -0,0 +1,171 @@
+package net.yorksolutions.tsgfeedbackapi.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.yorksolutions.tsgfeedbackapi.dtos.FeedbackRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ * Unit Tests for SubmissionRateLimiter, driven by a fake clock
+ * A member gets its burst back to back, then one submission per interval, with Retry-After until the next one
+ * Members are limited independently; the global limit applies across all of them
+ * Member ids validation would reject get no bucket, but still count against the global limit
+ * A batch is charged per item and charges nothing when it is refused
+ * A batch larger than a full bucket is a validation error; the whole global burst is usable by one batch
+ * Concurrent threads share one global budget exactly
+*/
+public class SubmissionRateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    // 2 per second per member with a burst of 3
+    private SubmissionRateLimiter limiter(double globalPerSecond, int globalBurst) {
+        return new SubmissionRateLimiter(meterRegistry, true, 2, 3, 1000, globalPerSecond, globalBurst, clock::get);
+    }
+
+    @Test
+    void acquire_BeyondMemberBurst_ThrowsWithRetryAfterUntilNextPermit() {
+        // Arrange
+        SubmissionRateLimiter limiter = limiter(0, 0);
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire("m-1");
+        }
+
+        // Act
+        RateLimitExceededException ex = assertThrows(RateLimitExceededException.class, () -> limiter.acquire("m-1"));
+
+        // Assert
+        assertEquals("memberId", ex.getField());
+        assertEquals(Duration.ofMillis(500), ex.getRetryAfter());
+        limiter.acquire("m-2");
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        limiter.acquire("m-1");
+        assertThrows(RateLimitExceededException.class, () -> limiter.acquire("m-1"));
+        assertEquals(2, meterRegistry.counter("feedback.rate-limit.rejected", "scope", "member").count());
+    }
+
+    @Test
+    void acquire_BeyondGlobalBurst_ThrowsForEveryMember() {
+        // Arrange
+        SubmissionRateLimiter limiter = limiter(10, 2);
+        limiter.acquire("m-1");
+        limiter.acquire("m-2");
+
+        // Act
+        RateLimitExceededException ex = assertThrows(RateLimitExceededException.class, () -> limiter.acquire("m-3"));
+
+        // Assert
+        assertEquals("service", ex.getField());
+        assertEquals(Duration.ofMillis(100), ex.getRetryAfter());
+        // The refused request did not use up m-3's own allowance
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        for (int i = 0; i < 2; i++) {
+            limiter.acquire("m-3");
+        }
+    }
+
+    @Test
+    void acquire_WithInvalidMemberId_OnlyChargesGlobalLimit() {
+        // Arrange
+        SubmissionRateLimiter limiter = limiter(10, 5);
+        String tooLong = "m".repeat(FeedbackRequestValidator.MEMBER_ID_MAX_LENGTH + 1);
+
+        // Act: past the member burst of 3, but these ids are never given a bucket
+        for (int i = 0; i < 4; i++) {
+            limiter.acquire(i % 2 == 0 ? tooLong : " ");
+        }
+        limiter.acquire((String) null);
+
+        // Assert
+        RateLimitExceededException ex = assertThrows(RateLimitExceededException.class, () -> limiter.acquire(tooLong));
+        assertEquals("service", ex.getField());
+        assertEquals(0, meterRegistry.get("cache.size").tag("cache", "feedback.rate-limit.members").gauge().value());
+    }
+
+    @Test
+    void acquireBatch_ChargesPerItemAndNothingWhenRefused() {
+        // Arrange
+        SubmissionRateLimiter limiter = limiter(0, 0);
+        FeedbackRequest request = new FeedbackRequest("m-1", "Dr. Phill", 4, null);
+
+        limiter.acquire("m-1");
+
+        // Act & Assert: 3 fit the burst but only 2 are left
+        assertThrows(RateLimitExceededException.class,
+            () -> limiter.acquire(Collections.nCopies(3, request)));
+        limiter.acquire(List.of(request, request));
+        assertThrows(RateLimitExceededException.class, () -> limiter.acquire("m-1"));
+    }
+
+    @Test
+    void acquireBatch_LargerThanBurst_ThrowsValidationException() {
+        // Arrange
+        SubmissionRateLimiter limiter = limiter(10, 5);
+        FeedbackRequest request = new FeedbackRequest("m-1", "Dr. Phill", 4, null);
+
+        // Act
+        ValidationException perMember = assertThrows(ValidationException.class,
+            () -> limiter.acquire(Collections.nCopies(4, request)));
+        ValidationException global = assertThrows(ValidationException.class,
+            () -> limiter.acquire(IntStream.range(0, 6)
+                .mapToObj(i -> new FeedbackRequest("m-" + i, "Dr. Phill", 4, null)).toList()));
+
+        // Assert: nothing was charged, so the bucket is still full
+        assertEquals("memberId", perMember.getFieldErrors().get(0).field());
+        assertEquals("requests", global.getFieldErrors().get(0).field());
+        limiter.acquire(IntStream.range(0, 5).mapToObj(i -> new FeedbackRequest("m-" + i, "Dr. Phill", 4, null)).toList());
+    }
+
+    @Test
+    void acquire_FromManyThreads_AdmitsExactlyTheGlobalBurst() throws Exception {
+        // Arrange: the clock stands still, so nothing refills while 16 threads race for 500 permits
+        SubmissionRateLimiter limiter = new SubmissionRateLimiter(meterRegistry, true, 0, 0, 1000, 100, 500, clock::get);
+        limiter.acquire(IntStream.range(0, 500).mapToObj(i -> new FeedbackRequest("m-" + i, "Dr. Phill", 4, null)).toList());
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(5));
+        AtomicInteger admitted = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+
+        // Act
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < 16; t++) {
+            workers.add(pool.submit(() -> {
+                for (int i = 0; i < 100; i++) {
+                    try {
+                        limiter.acquire("m-" + i);
+                        admitted.incrementAndGet();
+                    } catch (RateLimitExceededException e) {
+                        // refused
+                    }
+                }
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        pool.shutdown();
+
+        // Assert: after the full-size batch, 5 seconds at 100/s refilled exactly 500 permits
+        assertEquals(500, admitted.get());
+    }
+}